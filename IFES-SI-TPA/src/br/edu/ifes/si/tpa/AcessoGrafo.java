@@ -0,0 +1,102 @@
+/******************************************************************************
+ *  Compilação:         javac AcessoGrafo.java
+ *  Dependências:       Aresta.java CursorAdjacencia.java
+ *
+ *  Acesso às listas de adjacências de um grafo, independente da representação.
+ *
+ ******************************************************************************/
+
+package br.edu.ifes.si.tpa;
+
+/**
+ * Esta interface define o acesso de leitura às listas de adjacências de um grafo ou dígrafo, ponderado
+ * ou não, independentemente de como ele é armazenado: vetores primitivos de destinos e pesos por vértice,
+ * com cada aresta ponderada não direcionada guardada uma única vez ({@link NucleoGrafo}, base de
+ * {@link Digrafo}, {@link DigrafoPonderado}, {@link Grafo} e {@link GrafoPonderado}), vetores CSR
+ * ({@link DigrafoPonderadoCSR}), arquivo mapeado em memória ({@link GrafoBinario}) ou listas comprimidas
+ * ({@link DigrafoComprimido}). Os algoritmos percorrem as arestas com um {@link CursorAdjacencia}, sem criar
+ * objetos por aresta, e podem assim ser executados sobre a representação mais adequada a cada caso.
+ * <p>
+ * Em grafos não direcionados cada aresta v-w aparece nas listas de v e de w.
+ * Para documentação adicional, acesse:
+ * <a href="http://algs4.cs.princeton.edu/41graph">Section 4.1</a> of
+ * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public interface AcessoGrafo {
+
+    /**
+     * Retorna o número de vértices.
+     * @return o número de vértices
+     */
+    int V();
+
+    /**
+     * Retorna o número de arestas.
+     * @return o número de arestas
+     */
+    int A();
+
+    /**
+     * Retorna verdadeiro se o grafo é direcionado, caso em que cada aresta v-w aparece apenas na lista de v.
+     * @return verdadeiro se o grafo é direcionado
+     */
+    boolean direcionado();
+
+    /**
+     * Retorna o número de arestas na lista de adjacências de v (o grau de saída, em dígrafos).
+     * @param  v o vértice
+     * @return o número de arestas na lista de adjacências de v
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    int grau(int v);
+
+    /**
+     * Retorna um novo cursor sobre as listas de adjacências, a ser posicionado em um vértice antes do uso.
+     * Um mesmo cursor pode ser reposicionado quantas vezes for necessário.
+     * @return um cursor sobre as listas de adjacências
+     */
+    CursorAdjacencia cursor();
+
+    /**
+     * Retorna verdadeiro se alguma aresta tem peso negativo. A implementação padrão percorre todas as
+     * listas com um cursor; representações que mantêm essa informação respondem em tempo constante.
+     * @return verdadeiro se alguma aresta tem peso negativo
+     */
+    default boolean temPesoNegativo() {
+        CursorAdjacencia c = cursor();
+        for (int v = 0; v < V(); v++) {
+            c.posiciona(v);
+            while (c.temProxima()) {
+                c.proxima();
+                if (c.peso() < 0) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Retorna as arestas deste grafo, considerado não direcionado, cada uma uma única vez. A implementação
+     * padrão percorre as listas com um cursor e cria objetos Aresta, na ordem das listas de adjacências. Em
+     * grafos não direcionados cada aresta aparece nas listas das suas duas extremidades e é retornada como
+     * v-w com v < w (ou v-v para laços, que aparecem duas vezes na lista de v). Em dígrafos cada aresta v-w
+     * aparece apenas na lista de v e é retornada como v-w; as arestas v-w e w-v tornam-se arestas paralelas.
+     * Representações que já guardam cada aresta como um objeto podem retornar esses objetos, sem cópia.
+     * @return as A() arestas do grafo
+     */
+    default Aresta[] arestasNaoDirecionadas() {
+        Aresta[] arestas = new Aresta[A()];
+        boolean direcionado = direcionado();
+        int n = 0;
+        CursorAdjacencia c = cursor();
+        for (int v = 0; v < V(); v++) {
+            int lacos = 0;
+            c.posiciona(v);
+            while (c.temProxima()) {
+                int w = c.proxima();
+                if (direcionado || w > v || (w == v && lacos++ % 2 == 0))
+                    arestas[n++] = new Aresta(v, w, c.peso());
+            }
+        }
+        return arestas;
+    }
+}
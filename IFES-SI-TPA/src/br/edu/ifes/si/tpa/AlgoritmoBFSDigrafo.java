@@ -1,7 +1,7 @@
 /*******************************************************************************
  *  Compilação:        javac AlgoritmoBFSDigrafo.java
  *  Execução:          java AlgoritmoBFSDigrafo dados.txt vo
- *  Dependências:      Digrafo.java Fila.java Pilha.java
+ *  Dependências:      Digrafo.java Fila.java Pilha.java AcessoGrafo.java CursorAdjacencia.java
  *  Arquivos de dados: Digrafo1.txt
  *  Link dos dados:    https://drive.google.com/open?id=0B3q56TwNCeXoc2tlbllCRmo1MTQ
  *
@@ -40,34 +40,36 @@ public class AlgoritmoBFSDigrafo {
     private int[] distanciaPara;  // distanciaPara[v1] = tamanho do menor caminho vértice origem vo->v1
 
     /**
-     * Verifica o menor caminho de um vértice origem vo e todos os demais vértices do dígrafo
+     * Verifica o menor caminho de um vértice origem vo e todos os demais vértices do dígrafo,
+     * em qualquer representação que ofereça um cursor de adjacências
      * @param G o dígrafo
      * @param vo o vértice origem
      */
-    public AlgoritmoBFSDigrafo(Digrafo G, int vo) {
+    public AlgoritmoBFSDigrafo(AcessoGrafo G, int vo) {
         marcado = new boolean[G.V()];
         distanciaPara = new int[G.V()];
         arestaPara = new int[G.V()];
         for (int v = 0; v < G.V(); v++) {
             distanciaPara[v] = INFINITY;
         }
-        bfs(G, vo);
+        bfs(G.cursor(), vo);
     }
 
     /**
-     * Método algoritmoBFS para um vértice origem
-     * @param G o dígrafo
+     * Método algoritmoBFS para um vértice origem, percorrendo as arestas com um cursor
+     * @param c o cursor sobre as listas de adjacências do dígrafo
      * @param vo o vértice origem
      */
-    private void bfs(Digrafo G, int vo) {
+    private void bfs(CursorAdjacencia c, int vo) {
         Fila<Integer> f = new Fila<Integer>();
         f.enfileira(vo);
         marcado[vo] = true;
         distanciaPara[vo] = 0;
         while (!f.isEmpty()) {
             int v = f.desenfileira();
-            for (Aresta a : G.adj(v)) {
-                int x = a.getV2();
+            c.posiciona(v);
+            while (c.temProxima()) {
+                int x = c.proxima();
                 if (!marcado[x]) {
                     arestaPara[x] = v;
                     distanciaPara[x] = distanciaPara[v] + 1;
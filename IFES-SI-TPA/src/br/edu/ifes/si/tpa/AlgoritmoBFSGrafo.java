@@ -1,7 +1,7 @@
 /*******************************************************************************
  *  Compilação:        javac AlgoritmoBFSGrafo.java
  *  Execução:          java AlgoritmoBFSGrafo dados.txt vo
- *  Dependências:      Grafo.java Fila.java Pilha.java
+ *  Dependências:      Grafo.java Fila.java Pilha.java AcessoGrafo.java CursorAdjacencia.java
  *  Arquivos de dados: Grafo2.txt
  *  Link dos dados:    https://drive.google.com/open?id=0B3q56TwNCeXoMlQ1c1dGOXJRbG8
  *
@@ -32,31 +32,33 @@ public class AlgoritmoBFSGrafo {
     private int[] distanciaPara;  // distanciaPara[v1] = tamanho do menor caminho vértice origem vo->v1
 
     /**
-     * Verifica o menor caminho de um vértice origem vo e todos os demais vértices do grafo
-     * @param G o dígrafo
+     * Verifica o menor caminho de um vértice origem vo e todos os demais vértices do grafo,
+     * em qualquer representação que ofereça um cursor de adjacências
+     * @param G o grafo
      * @param vo o vértice origem
      */
-    public AlgoritmoBFSGrafo(Grafo G, int vo) {
+    public AlgoritmoBFSGrafo(AcessoGrafo G, int vo) {
         marcado = new boolean[G.V()];
         distanciaPara = new int[G.V()];
         arestaPara = new int[G.V()];
-        bfs(G, vo);
+        bfs(G.cursor(), vo);
     }
 
     /**
      * Método algoritmoBFS para um vértice origem
-     * @param G o grafo
+     * @param c o cursor sobre as listas de adjacências do grafo
      * @param vo o vértice origem
      */
-    private void bfs(Grafo G, int vo) {
+    private void bfs(CursorAdjacencia c, int vo) {
         Fila<Integer> f = new Fila<Integer>();
         f.enfileira(vo);
         marcado[vo] = true;
         distanciaPara[vo] = 0;
         while (!f.isEmpty()) {
             int v = f.desenfileira();
-            for (Aresta a : G.adj(v)) {
-                int x = a.getV2();
+            c.posiciona(v);
+            while (c.temProxima()) {
+                int x = c.proxima();
                 if (!marcado[x]) {
                     arestaPara[x] = v;
                     distanciaPara[x] = distanciaPara[v] + 1;
@@ -1,7 +1,7 @@
 /******************************************************************************
  *  Compilação:  javac ArestaCiclo.java
  *  Execução:    java ArestaCiclo V E F
- *  Dependências: DigrafoPonderado.java Aresta.java Pilha.java
+ *  Dependências: DigrafoPonderado.java Aresta.java Pilha.java AcessoGrafo.java CursorAdjacencia.java
  *
  *  Encontra um ciclo direcionado em um digrafo com arestas ponderadas.
  *  Roda em tempo O(A + V).
@@ -10,6 +10,8 @@
 
 package br.edu.ifes.si.tpa;
 
+import java.util.Arrays;
+
 /**
  * Esta classe tem por objetivo verificar a existência de ciclo direcionado em um digrafo.
  * Para documentação adicional, acesse:
@@ -21,43 +23,52 @@ public class AlgoritmoCicloDirecionado {
     private Aresta[] arestaPara;    // arestaPara[v] = última aresta no caminho para v
     private boolean[] naPilha;      // naPilha[v] = é um vértice na pilha?
     private Pilha<Aresta> ciclo;    // ciclo direcionado (ou null se não existir ciclo)
+    private CursorAdjacencia[] cursores;  // cursores[p] = cursor usado na profundidade p da recursão
 
     /**
      * Determina se o digrafo com arestas ponderadas tem um ciclo direcionado e, se exitir, encontra o ciclo.
+     * As arestas são percorridas com cursores, em qualquer representação do digrafo.
      * @param G o digrafo com arestas ponderadas
      */
-    public AlgoritmoCicloDirecionado(DigrafoPonderado G) {
+    public AlgoritmoCicloDirecionado(AcessoGrafo G) {
         marcado  = new boolean[G.V()];
         naPilha = new boolean[G.V()];
         arestaPara  = new Aresta[G.V()];
+        cursores = new CursorAdjacencia[16];
         for (int v = 0; v < G.V(); v++)
-            if (!marcado[v]) dfs(G, v);
+            if (!marcado[v]) dfs(G, 0, v);
+        cursores = null;
 
         // checar se o digrafo tem um ciclo
         assert checar(G);
     }
 
-    // checar se o algoritmo calcula outra ordenação topológico ou encontra um ciclo direcionado
-    private void dfs(DigrafoPonderado G, int v) {
+    // checar se o algoritmo calcula outra ordenação topológico ou encontra um ciclo direcionado;
+    // cada nível p da recursão reutiliza o mesmo cursor e só as arestas da árvore viram objetos Aresta
+    private void dfs(AcessoGrafo G, int p, int v) {
         naPilha[v] = true;
         marcado[v] = true;
-        for (Aresta a : G.adj(v)) {
-            int w = a.getV2();
+        if (p == cursores.length) cursores = Arrays.copyOf(cursores, 2 * p);
+        if (cursores[p] == null) cursores[p] = G.cursor();
+        CursorAdjacencia c = cursores[p];
+        c.posiciona(v);
+        while (c.temProxima()) {
+            int w = c.proxima();
 
             // curto circuito se for encontrado o ciclo direcionado
             if (ciclo != null) return;
 
             // encontra novo vértice, e chama dfs recursivamente
             else if (!marcado[w]) {
-                arestaPara[w] = a;
-                dfs(G, w);
+                arestaPara[w] = new Aresta(v, w, c.peso());
+                dfs(G, p + 1, w);
             }
 
             // caminho do ciclo direcionado
             else if (naPilha[w]) {
                 ciclo = new Pilha<Aresta>();
 
-                Aresta f = a;
+                Aresta f = new Aresta(v, w, c.peso());
                 while (f.getV1() != w) {
                     ciclo.empilha(f);
                     f = arestaPara[f.getV1()];
@@ -89,7 +100,7 @@ public class AlgoritmoCicloDirecionado {
 
 
     // certifica se o digrafo é acíclico ou tem um ciclo direcionado
-    private boolean checar(DigrafoPonderado G) {
+    private boolean checar(AcessoGrafo G) {
 
         // digrafo ponderado é cíclico
         if (temCiclo()) {
@@ -0,0 +1,282 @@
+/******************************************************************************
+ *  Compilação:         javac AlgoritmoConectividadeDinamica.java
+ *  Execução:           java AlgoritmoConectividadeDinamica dados.txt
+ *  Dependências:       UFReversivel.java In.java
+ *  Arquivo de dados:   ConectividadeDinamica1.txt
+ *
+ *  Responde, de forma offline, consultas de conectividade em um grafo no qual
+ *  arestas são inseridas e removidas ao longo do tempo (divisão e conquista
+ *  sobre a linha do tempo das consultas com union-find reversível).
+ *
+ *  O arquivo de dados contém o número de vértices V, o número de operações e
+ *  uma operação por linha: "+ v w" insere, "- v w" remove e "? v w" consulta.
+ *
+ *  % java AlgoritmoConectividadeDinamica ConectividadeDinamica1.txt
+ *  0-2 conectado
+ *  0-3 conectado
+ *  0-3 não conectado
+ *  1-4 não conectado
+ *  1-4 conectado
+ *  0-4 conectado
+ *
+ ******************************************************************************/
+
+package br.edu.ifes.si.tpa;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Esta classe implementa a conectividade dinâmica offline: as operações de inserção, remoção e consulta
+ * são registradas e, na primeira resposta solicitada, todas as consultas são respondidas de uma vez.
+ * Cada aresta fica ativa durante um intervalo de consultas; os intervalos são distribuídos em uma
+ * árvore de segmentos sobre as consultas e percorridos em profundidade com um {@link UFReversivel},
+ * juntando as arestas ao descer e desfazendo as uniões ao subir. Cada aresta aparece em O(log q) nós
+ * e cada encontra custa O(log V), totalizando O((V + q) log q log V).
+ * Para documentação adicional, acesse:
+ * <a href="http://algs4.cs.princeton.edu/15uf">Section 1.5</a>
+ * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class AlgoritmoConectividadeDinamica {
+
+    private final int V;                             // número de vértices
+    private final Map<Long, List<Integer>> ativas;   // aresta v-w (v <= w) -> inícios dos intervalos abertos
+    private int[] arestaV1, arestaV2;                // extremidades de cada intervalo de atividade
+    private int[] inicio, fim;                       // intervalo [inicio, fim) de consultas em que a aresta está ativa
+    private int intervalos;                          // número de intervalos registrados
+    private int[] consultaV1, consultaV2;            // vértices de cada consulta
+    private int consultas;                           // número de consultas registradas
+    private boolean[] resposta;                      // resposta[i] = resposta da i-ésima consulta (o vetor é null até resolve())
+
+    /**
+     * Inicializa a linha do tempo de um grafo com V vértices e nenhuma aresta.
+     * @param  V o número de vértices
+     * @throws IllegalArgumentException se V < 0
+     */
+    public AlgoritmoConectividadeDinamica(int V) {
+        if (V < 0) throw new IllegalArgumentException("Número de vértices no grafo deve ser não negativo");
+        this.V = V;
+        ativas = new HashMap<Long, List<Integer>>();
+        arestaV1 = new int[4];
+        arestaV2 = new int[4];
+        inicio = new int[4];
+        fim = new int[4];
+        consultaV1 = new int[4];
+        consultaV2 = new int[4];
+    }
+
+    /**
+     * Valida vértice do grafo.
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    private void validaVertice(int v) {
+        if (v < 0 || v >= V)
+            throw new IndexOutOfBoundsException("vértice " + v + " não está entre 0 e " + (V-1));
+    }
+
+    // chave da aresta não direcionada v-w
+    private static long chave(int v, int w) {
+        if (v > w) {
+            int temp = v;
+            v = w;
+            w = temp;
+        }
+        return ((long) v << 32) | w;
+    }
+
+    // as operações só podem ser registradas antes da primeira resposta
+    private void validaAberto() {
+        if (resposta != null) throw new IllegalStateException("consultas já foram resolvidas");
+    }
+
+    /**
+     * Insere a aresta v-w no grafo a partir deste momento. Arestas paralelas são permitidas.
+     * @param v um vértice
+     * @param w outro vértice
+     * @throws IndexOutOfBoundsException caso v ou w não estejam entre 0 e V-1
+     * @throws IllegalStateException se as consultas já foram resolvidas
+     */
+    public void insere(int v, int w) {
+        validaAberto();
+        validaVertice(v);
+        validaVertice(w);
+        long k = chave(v, w);
+        List<Integer> lista = ativas.get(k);
+        if (lista == null) {
+            lista = new ArrayList<Integer>(1);
+            ativas.put(k, lista);
+        }
+        lista.add(consultas);
+    }
+
+    /**
+     * Remove uma cópia da aresta v-w do grafo a partir deste momento.
+     * @param v um vértice
+     * @param w outro vértice
+     * @throws IllegalArgumentException se a aresta v-w não estiver no grafo
+     * @throws IndexOutOfBoundsException caso v ou w não estejam entre 0 e V-1
+     * @throws IllegalStateException se as consultas já foram resolvidas
+     */
+    public void remove(int v, int w) {
+        validaAberto();
+        validaVertice(v);
+        validaVertice(w);
+        long k = chave(v, w);
+        List<Integer> lista = ativas.get(k);
+        if (lista == null) throw new IllegalArgumentException("aresta " + v + "-" + w + " não está no grafo");
+        int desde = lista.remove(lista.size() - 1);
+        if (lista.isEmpty()) ativas.remove(k);
+        fechaIntervalo(v, w, desde, consultas);
+    }
+
+    /**
+     * Registra a consulta "v e w estão conectados neste momento?".
+     * @param v um vértice
+     * @param w outro vértice
+     * @return o índice da consulta, a ser passado para conectado(int)
+     * @throws IndexOutOfBoundsException caso v ou w não estejam entre 0 e V-1
+     * @throws IllegalStateException se as consultas já foram resolvidas
+     */
+    public int consulta(int v, int w) {
+        validaAberto();
+        validaVertice(v);
+        validaVertice(w);
+        if (consultas == consultaV1.length) {
+            consultaV1 = redimensiona(consultaV1, 2 * consultas);
+            consultaV2 = redimensiona(consultaV2, 2 * consultas);
+        }
+        consultaV1[consultas] = v;
+        consultaV2[consultas] = w;
+        return consultas++;
+    }
+
+    /**
+     * Retorna o número de consultas registradas.
+     * @return o número de consultas registradas
+     */
+    public int quantidadeConsultas() {
+        return consultas;
+    }
+
+    /**
+     * Retorna a resposta da i-ésima consulta. Na primeira chamada todas as consultas são resolvidas
+     * e nenhuma nova operação pode ser registrada.
+     * @param i o índice da consulta
+     * @return verdadeiro se os vértices da consulta estavam conectados no momento da consulta
+     * @throws IndexOutOfBoundsException caso i não seja 0 <= i < quantidadeConsultas()
+     */
+    public boolean conectado(int i) {
+        if (i < 0 || i >= consultas)
+            throw new IndexOutOfBoundsException("consulta " + i + " não está entre 0 e " + (consultas-1));
+        if (resposta == null) resolve();
+        return resposta[i];
+    }
+
+    // registra que a aresta v-w esteve ativa nas consultas [de, ate)
+    private void fechaIntervalo(int v, int w, int de, int ate) {
+        if (de >= ate) return;              // nenhuma consulta enxergou a aresta
+        if (intervalos == inicio.length) {
+            arestaV1 = redimensiona(arestaV1, 2 * intervalos);
+            arestaV2 = redimensiona(arestaV2, 2 * intervalos);
+            inicio = redimensiona(inicio, 2 * intervalos);
+            fim = redimensiona(fim, 2 * intervalos);
+        }
+        arestaV1[intervalos] = v;
+        arestaV2[intervalos] = w;
+        inicio[intervalos] = de;
+        fim[intervalos] = ate;
+        intervalos++;
+    }
+
+    private static int[] redimensiona(int[] a, int capacidade) {
+        int[] temp = new int[capacidade];
+        System.arraycopy(a, 0, temp, 0, a.length);
+        return temp;
+    }
+
+    /**
+     * Resolve todas as consultas: fecha os intervalos das arestas ainda presentes, distribui cada
+     * intervalo nos nós da árvore de segmentos e percorre a árvore com o union-find reversível.
+     */
+    private void resolve() {
+        for (Map.Entry<Long, List<Integer>> e : ativas.entrySet()) {
+            int v = (int) (e.getKey() >>> 32);
+            int w = (int) (long) e.getKey();
+            for (int desde : e.getValue()) fechaIntervalo(v, w, desde, consultas);
+        }
+        ativas.clear();
+        resposta = new boolean[consultas];
+        if (consultas == 0) return;
+
+        // listas de intervalos de cada nó da árvore de segmentos (nó 1 é a raiz)
+        int[] quantidade = new int[4 * consultas];
+        for (int i = 0; i < intervalos; i++) distribui(quantidade, null, null, 1, 0, consultas, i);
+        int[] primeiro = new int[4 * consultas + 1];
+        for (int no = 0; no < quantidade.length; no++) primeiro[no + 1] = primeiro[no] + quantidade[no];
+        int[] proximo = new int[4 * consultas];
+        System.arraycopy(primeiro, 0, proximo, 0, proximo.length);
+        int[] itens = new int[primeiro[quantidade.length]];
+        for (int i = 0; i < intervalos; i++) distribui(null, proximo, itens, 1, 0, consultas, i);
+
+        percorre(new UFReversivel(V), primeiro, itens, 1, 0, consultas);
+    }
+
+    // conta (quantidade != null) ou armazena o intervalo i nos nós que cobrem [inicio[i], fim[i])
+    private void distribui(int[] quantidade, int[] proximo, int[] itens, int no, int lo, int hi, int i) {
+        if (fim[i] <= lo || hi <= inicio[i]) return;
+        if (inicio[i] <= lo && hi <= fim[i]) {
+            if (quantidade != null) quantidade[no]++;
+            else                    itens[proximo[no]++] = i;
+            return;
+        }
+        int meio = (lo + hi) >>> 1;
+        distribui(quantidade, proximo, itens, 2 * no, lo, meio, i);
+        distribui(quantidade, proximo, itens, 2 * no + 1, meio, hi, i);
+    }
+
+    // percorre em profundidade o nó que cobre as consultas [lo, hi)
+    private void percorre(UFReversivel uf, int[] primeiro, int[] itens, int no, int lo, int hi) {
+        int marca = uf.marca();
+        for (int k = primeiro[no]; k < primeiro[no + 1]; k++) {
+            int i = itens[k];
+            uf.junta(arestaV1[i], arestaV2[i]);
+        }
+        if (hi - lo == 1) {
+            resposta[lo] = uf.conectado(consultaV1[lo], consultaV2[lo]);
+        } else {
+            int meio = (lo + hi) >>> 1;
+            percorre(uf, primeiro, itens, 2 * no, lo, meio);
+            percorre(uf, primeiro, itens, 2 * no + 1, meio, hi);
+        }
+        uf.desfaz(marca);
+    }
+
+    /**
+     * Testa a classe AlgoritmoConectividadeDinamica
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        int V = in.readInt();
+        int operacoes = in.readInt();
+        AlgoritmoConectividadeDinamica conectividade = new AlgoritmoConectividadeDinamica(V);
+        List<int[]> consultas = new ArrayList<int[]>();
+        for (int i = 0; i < operacoes; i++) {
+            String operacao = in.readString();
+            int v = in.readInt();
+            int w = in.readInt();
+            if (operacao.equals("+"))      conectividade.insere(v, w);
+            else if (operacao.equals("-")) conectividade.remove(v, w);
+            else {
+                conectividade.consulta(v, w);
+                consultas.add(new int[] { v, w });
+            }
+        }
+        for (int i = 0; i < consultas.size(); i++) {
+            int[] c = consultas.get(i);
+            System.out.println(c[0] + "-" + c[1] + (conectividade.conectado(i) ? " conectado" : " não conectado"));
+        }
+    }
+
+}
@@ -1,7 +1,7 @@
 /*******************************************************************************
  *  Compilação:        javac AlgoritmoDFSDigrafo.java
  *  Execução:          java AlgoritmoDFSDigrafo dados.txt vo
- *  Dependências:      Digrafo.java Pilha.java
+ *  Dependências:      Digrafo.java Pilha.java AcessoGrafo.java CursorAdjacencia.java
  *  Arquivos de dados: Digrafo1.txt
  *  Link dos dados:    https://drive.google.com/open?id=0B3q56TwNCeXoc2tlbllCRmo1MTQ
  * 
@@ -40,6 +40,8 @@
 
 package br.edu.ifes.si.tpa;
 
+import java.util.Arrays;
+
 /**
  * Esta classe implementa o algoritmo de busca em profundidade em um dígrafo.
  * Para documentação adicional, acesse:
@@ -50,31 +52,41 @@ public class AlgoritmoDFSDigrafo {
     private boolean[] marcado;    // marcado[v1] = existe um caminho do vértice origem vo->v1?
     private int[] arestaPara;     // arestaPara[v1] = última aresta no menor caminho vértice origem vo->v1
     private final int vo;         // vo é o vértice de origem
+    private CursorAdjacencia[] cursores;  // cursores[p] = cursor usado na profundidade p da recursão
 
     /**
-     * Calcula um caminho dirigido de um vértice de origem vo para todos os outros vértices do dígrafo
+     * Calcula um caminho dirigido de um vértice de origem vo para todos os outros vértices do dígrafo,
+     * em qualquer representação que ofereça um cursor de adjacências
      * @param G o dígrafo
      * @param vo o vértice de origem
      */
-    public AlgoritmoDFSDigrafo(Digrafo G, int vo) {
+    public AlgoritmoDFSDigrafo(AcessoGrafo G, int vo) {
         this.vo = vo;
         arestaPara = new int[G.V()];
         marcado = new boolean[G.V()];
-        dfs(G, vo);
+        cursores = new CursorAdjacencia[16];
+        dfs(G, 0, vo);
+        cursores = null;
     }
 
     /**
-     * Método algoritmoDFS para um vértice origem
+     * Método algoritmoDFS percorrendo as arestas com cursores; cada nível da recursão reutiliza o
+     * cursor de mesma profundidade, criado apenas na primeira vez em que o nível é alcançado
      * @param G o dígrafo
-     * @param vo o vértice origem
+     * @param p a profundidade atual
+     * @param v o vértice atual
      */
-    private void dfs(Digrafo G, int v) { 
+    private void dfs(AcessoGrafo G, int p, int v) {
         marcado[v] = true;
-        for (Aresta a : G.adj(v)) {
-            int x = a.getV2();
+        if (p == cursores.length) cursores = Arrays.copyOf(cursores, 2 * p);
+        if (cursores[p] == null) cursores[p] = G.cursor();
+        CursorAdjacencia c = cursores[p];
+        c.posiciona(v);
+        while (c.temProxima()) {
+            int x = c.proxima();
             if (!marcado[x]) {
                 arestaPara[x] = v;
-                dfs(G, x);
+                dfs(G, p + 1, x);
             }
         }
     }
@@ -1,7 +1,7 @@
 /******************************************************************************
  *  Compilação:        javac AlgoritmoDFSGrafo.java
  *  Execução:          java AlgoritmoDFSGrafo dados.txt 0
- *  Dependências:      Grafo.java Pilha.java
+ *  Dependências:      Grafo.java Pilha.java AcessoGrafo.java CursorAdjacencia.java
  *  Arquivos de dados: Grafo2.txt
  *  Link dos dados:    https://drive.google.com/open?id=0B3q56TwNCeXoMlQ1c1dGOXJRbG8
  *
@@ -18,6 +18,8 @@
 
 package br.edu.ifes.si.tpa;
 
+import java.util.Arrays;
+
 /**
  * Esta classe implementa o algoritmo de busca em profundidade em um grafo.
  * Para documentação adicional, acesse:
@@ -28,31 +30,40 @@ public class AlgoritmoDFSGrafo {
     private boolean[] marcado;    // marcado[v1] = existe um caminho do vértice origem vo->v1?
     private int[] arestaPara;     // arestaPara[v1] = última aresta no menor caminho vértice origem vo->v1
     private final int vo;         // vo é o vértice de origem
+    private CursorAdjacencia[] cursores;  // cursores[p] = cursor usado na profundidade p da recursão
 
     /**
      * Identifica o caminho entre <tt>vo</tt> e todos os outros vértices no grafo <tt>G</tt>.
      * @param G o grafo
      * @param vo o vértice de origem
      */
-    public AlgoritmoDFSGrafo(Grafo G, int vo) {
+    public AlgoritmoDFSGrafo(AcessoGrafo G, int vo) {
         this.vo = vo;
         arestaPara = new int[G.V()];
         marcado = new boolean[G.V()];
-        dfs(G, vo);
+        cursores = new CursorAdjacencia[16];
+        dfs(G, 0, vo);
+        cursores = null;
     }
 
     /**
-     * Método algoritmoDFS para um vértice origem
+     * Método algoritmoDFS para um vértice origem; cada nível da recursão reutiliza o cursor de mesma
+     * profundidade, criado apenas na primeira vez em que o nível é alcançado
      * @param G o grafo
-     * @param v o vértice origem
+     * @param p a profundidade atual
+     * @param v o vértice atual
      */
-    private void dfs(Grafo G, int v) {
+    private void dfs(AcessoGrafo G, int p, int v) {
         marcado[v] = true;
-        for (Aresta a : G.adj(v)) {
-            int x = a.getV2();
+        if (p == cursores.length) cursores = Arrays.copyOf(cursores, 2 * p);
+        if (cursores[p] == null) cursores[p] = G.cursor();
+        CursorAdjacencia c = cursores[p];
+        c.posiciona(v);
+        while (c.temProxima()) {
+            int x = c.proxima();
             if (!marcado[x]) {
                 arestaPara[x] = v;
-                dfs(G, x);
+                dfs(G, p + 1, x);
             }
         }
     }
@@ -0,0 +1,230 @@
+/*******************************************************************************
+ *  Compilação:       javac AlgoritmoMSTBoruvkaGrafoPonderado.java
+ *  Execução:         java  AlgoritmoMSTBoruvkaGrafoPonderado dados.txt
+ *  Dependências:     GrafoPonderado.java Aresta.java Fila.java AcessoGrafo.java
+ *                    UF.java UFConcorrente.java In.java VetorArestas.java
+ *  Arquivo de dados: GrafoPonderado1.txt
+ *  Link dos dados:   https://drive.google.com/open?id=0B3q56TwNCeXoenFyMnlzX2ZyXzg
+ *
+ *  Calcula a árvore geradora mínima (MTS) utilizando o algoritmo de Borůvka em paralelo.
+ *
+ *  %  java AlgoritmoMSTBoruvkaGrafoPonderado GrafoPonderado1.txt
+ *  0-7 0.16000
+ *  1-7 0.19000
+ *  2-3 0.17000
+ *  4-5 0.35000
+ *  5-7 0.28000
+ *  6-2 0.40000
+ *  0-2 0.26000
+ *  1.81000
+ *
+ ******************************************************************************/
+
+package br.edu.ifes.si.tpa;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Esta classe implementa a geração da árvore geradora mínima utilizando o algoritmo de Borůvka.
+ * A cada rodada cada componente escolhe, em paralelo, a sua aresta de saída de menor peso e os
+ * componentes são contraídos por um {@link UFConcorrente}; o número de componentes cai pelo menos
+ * pela metade, de forma que são necessárias no máximo log V rodadas. Os empates de peso são
+ * desfeitos pela posição da aresta, garantindo que as arestas escolhidas nunca formam ciclo. As arestas
+ * do grafo são lidas por índice de um {@link VetorArestas}, e só as da árvore viram objetos Aresta.
+ * Para documentação adicional, acesse:
+ * <a href="http://algs4.cs.princeton.edu/43mst">Section 4.3</a>
+ * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class AlgoritmoMSTBoruvkaGrafoPonderado {
+    private static final double FLOATING_POINT_EPSILON = 1E-12;
+
+    private double peso;                            // peso da árvore geradora mínima (MST)
+    private Fila<Aresta> mst = new Fila<Aresta>();  // arestas na árvore geradora mínima (MST)
+
+    /**
+     * Calcula a árvore geradora mínima do grafo ponderado utilizando o pool comum do ForkJoin.
+     * @param G o grafo ponderado, em qualquer representação
+     * @throws IllegalArgumentException se G é direcionado
+     */
+    public AlgoritmoMSTBoruvkaGrafoPonderado(AcessoGrafo G) {
+        this(G, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Calcula a árvore geradora mínima do grafo ponderado.
+     * @param G o grafo ponderado, em qualquer representação
+     * @param pool o pool em que são executadas as rodadas
+     * @throws IllegalArgumentException se G é direcionado
+     */
+    public AlgoritmoMSTBoruvkaGrafoPonderado(AcessoGrafo G, ForkJoinPool pool) {
+        if (G.direcionado()) throw new IllegalArgumentException("a árvore geradora mínima é definida apenas para grafos não direcionados");
+        final VetorArestas arestas = VetorArestas.de(G);
+        final int V = G.V();
+        pool.submit(() -> boruvka(arestas, V)).join();
+
+        // checa as condições de otimização
+        assert checa(G);
+    }
+
+    /**
+     * Executa as rodadas de Borůvka até não haver mais arestas entre componentes distintos.
+     * @param arestas as arestas do grafo
+     * @param V o número de vértices
+     */
+    private void boruvka(final VetorArestas arestas, int V) {
+        final UFConcorrente uf = new UFConcorrente(V);
+        final int[] componente = new int[V];
+        final AtomicIntegerArray menor = new AtomicIntegerArray(V);   // menor[c] = menor aresta saindo do componente c
+        final boolean[] escolhida = new boolean[arestas.A()];
+        int[] candidatas = IntStream.range(0, arestas.A()).toArray();
+
+        while (candidatas.length > 0 && mst.tamanho() < V - 1) {
+            IntStream.range(0, V).parallel().forEach(v -> {
+                componente[v] = uf.encontra(v);
+                menor.set(v, -1);
+            });
+
+            // cada aresta disputa o posto de menor aresta dos dois componentes que liga
+            final int[] atuais = candidatas;
+            IntStream.range(0, atuais.length).parallel().forEach(k -> {
+                int i = atuais[k];
+                int c1 = componente[arestas.v1(i)];
+                int c2 = componente[arestas.v2(i)];
+                if (c1 == c2) return;
+                atualizaMenor(menor, arestas, c1, i);
+                atualizaMenor(menor, arestas, c2, i);
+            });
+
+            // contrai cada componente através da sua menor aresta
+            IntStream.range(0, V).parallel().forEach(c -> {
+                int i = menor.get(c);
+                if (componente[c] != c || i == -1) return;
+                if (uf.junta(arestas.v1(i), arestas.v2(i))) escolhida[i] = true;
+            });
+
+            int antes = mst.tamanho();
+            for (int i : atuais) {
+                if (escolhida[i]) {
+                    escolhida[i] = false;
+                    mst.enfileira(arestas.aresta(i));
+                    peso += arestas.peso(i);
+                }
+            }
+            if (mst.tamanho() == antes) break;
+
+            // descarta as arestas que ficaram dentro de um mesmo componente
+            candidatas = IntStream.of(atuais).parallel()
+                    .filter(i -> !uf.conectado(arestas.v1(i), arestas.v2(i)))
+                    .toArray();
+        }
+    }
+
+    // substitui menor[c] pela aresta i se ela for menor (peso e, em caso de empate, posição)
+    private static void atualizaMenor(AtomicIntegerArray menor, VetorArestas arestas, int c, int i) {
+        while (true) {
+            int atual = menor.get(c);
+            if (atual != -1) {
+                int cmp = Double.compare(arestas.peso(i), arestas.peso(atual));
+                if (cmp > 0 || (cmp == 0 && i >= atual)) return;
+            }
+            if (menor.compareAndSet(c, atual, i)) return;
+        }
+    }
+
+    /**
+     * Retorna as arestas da árvore geradora mínima (MST).
+     * @return as arestas da árvores geradora mínima como um iterable de arestas
+     */
+    public Iterable<Aresta> arestas() {
+        return mst;
+    }
+
+    /**
+     * Retorna a soma das arestas ponderadas na árvores geradora mínima (MST).
+     * @return a soma das arestas ponderadas na árvores geradora mínima (MST)
+     */
+    public double peso() {
+        return peso;
+    }
+    
+    /**
+     * Checa as condições de otimização 
+     * @param G o grafo ponderado
+     * @return verdadeiro se as condições forem satisfeitas, a falso, caso contrário
+     */
+    private boolean checa(AcessoGrafo G) {
+        VetorArestas arestasG = VetorArestas.de(G);
+
+        // checa peso total
+        double total = 0.0;
+        for (Aresta a : arestas()) {
+            total += a.peso();
+        }
+        if (Math.abs(total - peso()) > FLOATING_POINT_EPSILON) {
+            System.err.printf("Peso das arestas não é igual peso(): %f vs. %f\n", total, peso());
+            return false;
+        }
+
+        // checa que é acíclico
+        UF uf = new UF(G.V());
+        for (Aresta a : arestas()) {
+            int v1 = a.umVertice(), v2 = a.outroVertice(v1);
+            if (uf.conectado(v1, v2)) {
+                System.err.println("Não é floresta");
+                return false;
+            }
+            uf.junta(v1, v2);
+        }
+
+        // chega que é uma árvores geradora
+        for (int i = 0; i < arestasG.A(); i++) {
+            int v1 = arestasG.v1(i), v2 = arestasG.v2(i);
+            if (!uf.conectado(v1, v2)) {
+                System.err.println("Não é uma árvore geradora mínima");
+                return false;
+            }
+        }
+
+        // checa que é uma árvore geradora mínima ( cortar condições de otimização )
+        for (Aresta a : arestas()) {
+
+            // todas arestas na árvores geradora mínima (MST) exceto 'a'
+            uf = new UF(G.V());
+            for (Aresta f : mst) {
+                int x = f.umVertice(), y = f.outroVertice(x);
+                if (f != a) uf.junta(x, y);
+            }
+            
+            // checa que é aresta de peso min em corte de cruzamento
+            for (int i = 0; i < arestasG.A(); i++) {
+                int x = arestasG.v1(i), y = arestasG.v2(i);
+                if (!uf.conectado(x, y)) {
+                    if (arestasG.peso(i) < a.peso()) {
+                        System.err.println("Aresta " + arestasG.aresta(i) + " viola as condições de corte de optimização");
+                        return false;
+                    }
+                }
+            }
+
+        }
+
+        return true;
+    }
+
+
+    /**
+     * Testa a classe AlgoritmoMSTBoruvkaGrafoPonderado
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        GrafoPonderado G = new GrafoPonderado(in);
+        AlgoritmoMSTBoruvkaGrafoPonderado boruvka = new AlgoritmoMSTBoruvkaGrafoPonderado(G);
+        for (Aresta a : boruvka.arestas()) {
+            System.out.println(a);
+        }
+        System.out.printf("%.5f\n", boruvka.peso());
+    }
+
+}
@@ -0,0 +1,551 @@
+/*******************************************************************************
+ *  Compilação:       javac AlgoritmoMSTDinamicaGrafoPonderado.java
+ *  Execução:         java  AlgoritmoMSTDinamicaGrafoPonderado dados.txt
+ *  Dependências:     GrafoPonderado.java Aresta.java Fila.java
+ *                    UF.java In.java AcessoGrafo.java VetorArestas.java
+ *  Arquivo de dados: GrafoPonderado1.txt
+ *  Link dos dados:   https://drive.google.com/open?id=0B3q56TwNCeXoenFyMnlzX2ZyXzg
+ *
+ *  Mantém a árvore geradora mínima (floresta geradora mínima) de um grafo ponderado
+ *  enquanto arestas são inseridas e removidas, utilizando uma link-cut tree.
+ *
+ *  %  java AlgoritmoMSTDinamicaGrafoPonderado GrafoPonderado1.txt
+ *  1.81000
+ *  removendo 6-2 0.40000
+ *  1.93000
+ *  inserindo 1-6 0.10000
+ *  1.51000
+ *
+ ******************************************************************************/
+
+package br.edu.ifes.si.tpa;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Esta classe mantém a floresta geradora mínima de um grafo ponderado sob inserções e remoções de arestas.
+ * A floresta é representada por uma link-cut tree em que cada aresta da árvore é um nó intermediário
+ * com o seu peso, o que permite encontrar a aresta de maior peso no caminho entre dois vértices em
+ * O(log V) amortizado.
+ * <p>
+ * Na inserção de v-w: se v e w estão em componentes diferentes a aresta entra na floresta; caso contrário
+ * ela substitui a aresta de maior peso do caminho v-w se for mais leve que ela. Na remoção de uma aresta
+ * da floresta, os dois lados do corte são percorridos alternadamente pelas arestas da floresta até que o
+ * menor deles se esgote; a substituta é a aresta mais leve (a mais antiga, entre pesos iguais) fora da
+ * floresta que liga um vértice do lado menor ao outro lado. A remoção leva tempo proporcional ao número
+ * de vértices do lado menor e de arestas fora da floresta que incidem neles, e não ao número total de
+ * arestas fora da floresta; no pior caso, um corte ao meio de um componente denso, ainda é O(V + A).
+ * As arestas são identificadas pela referência do objeto {@link Aresta} inserido.
+ * Para documentação adicional, acesse:
+ * <a href="http://algs4.cs.princeton.edu/43mst">Section 4.3</a>
+ * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class AlgoritmoMSTDinamicaGrafoPonderado {
+    private static final double FLOATING_POINT_EPSILON = 1E-12;
+
+    private final int V;                        // número de vértices
+    private double peso;                        // peso da floresta geradora mínima, somado com compensação
+    private double compensacao;                 // erro de arredondamento acumulado em peso (soma de Neumaier)
+    private int sequencia;                      // contador para desempate entre arestas de mesmo peso
+    private final Map<Aresta, Integer> ordem = new IdentityHashMap<Aresta, Integer>();    // aresta -> ordem de inserção
+    private final Map<Aresta, Integer> naArvore = new IdentityHashMap<Aresta, Integer>(); // aresta da floresta -> nó
+    private final Comparator<Aresta> porPeso;   // ordem por peso e, entre pesos iguais, por ordem de inserção
+    private final Set<Aresta>[] arvore;         // arvore[v] = arestas da floresta que incidem em v (null se nenhuma)
+    private final Set<Aresta>[] foraDaArvore;   // foraDaArvore[v] = arestas fora da floresta que incidem em v
+
+    // busca do lado menor do corte na remoção
+    private final int[] marca;                  // marca[v] = rodada e lado em que v foi alcançado
+    private int rodada;                         // número de buscas feitas
+    private final int[] ladoV, ladoW;           // vértices alcançados de cada lado, em ordem de busca
+    private boolean ladoMenorEhV;               // o lado de v se esgotou primeiro na última busca
+
+    // link-cut tree: os nós 0..V-1 são os vértices e os nós a partir de V são as arestas da floresta
+    private int[] esquerdo, direito, pai;       // filhos e pai na splay tree (ou pai de caminho na raiz)
+    private boolean[] invertido;                // inversão pendente da subárvore
+    private double[] valor;                     // peso da aresta do nó (-infinito para vértices)
+    private int[] maximo;                       // nó de maior valor na subárvore da splay tree
+    private Aresta[] aresta;                    // aresta[x] = aresta representada pelo nó x
+    private int[] livres;                       // pilha de nós de aresta livres
+    private int quantidadeLivres;
+    private int[] caminho;                      // pilha de nós de splay(), reaproveitada entre chamadas
+
+    /**
+     * Inicializa a estrutura com V vértices e nenhuma aresta.
+     * @param V o número de vértices
+     * @throws IllegalArgumentException se V < 0
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public AlgoritmoMSTDinamicaGrafoPonderado(int V) {
+        if (V < 0) throw new IllegalArgumentException("Número de vértices no grafo deve ser não negativo");
+        this.V = V;
+        porPeso = new Comparator<Aresta>() {
+            public int compare(Aresta a, Aresta b) {
+                int cmp = a.compareTo(b);
+                if (cmp != 0) return cmp;
+                return Integer.compare(ordem.get(a), ordem.get(b));
+            }
+        };
+        arvore = (Set<Aresta>[]) new Set[V];
+        foraDaArvore = (Set<Aresta>[]) new Set[V];
+        marca = new int[V];
+        ladoV = new int[V];
+        ladoW = new int[V];
+        int capacidade = 2 * Math.max(V, 1);
+        esquerdo = new int[capacidade];
+        direito = new int[capacidade];
+        pai = new int[capacidade];
+        invertido = new boolean[capacidade];
+        valor = new double[capacidade];
+        maximo = new int[capacidade];
+        aresta = new Aresta[capacidade];
+        livres = new int[capacidade];
+        caminho = new int[capacidade];
+        for (int x = 0; x < capacidade; x++) {
+            esquerdo[x] = direito[x] = pai[x] = -1;
+            valor[x] = Double.NEGATIVE_INFINITY;
+            maximo[x] = x;
+        }
+        for (int x = capacidade - 1; x >= V; x--) livres[quantidadeLivres++] = x;
+    }
+
+    /**
+     * Inicializa a estrutura com as arestas do grafo ponderado, lidas de um {@link VetorArestas}.
+     * Cada aresta é um novo objeto; as referências das arestas da floresta, a serem passadas a remove(),
+     * podem ser obtidas com arestas().
+     * @param G o grafo ponderado
+     * @throws IllegalArgumentException se G é direcionado
+     */
+    public AlgoritmoMSTDinamicaGrafoPonderado(AcessoGrafo G) {
+        this(G.V());
+        if (G.direcionado()) throw new IllegalArgumentException("a árvore geradora mínima é definida apenas para grafos não direcionados");
+        VetorArestas arestas = VetorArestas.de(G);
+        for (int i = 0; i < arestas.A(); i++) insere(arestas.aresta(i));
+    }
+
+    /**
+     * Valida vértice do grafo.
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    private void validaVertice(int v) {
+        if (v < 0 || v >= V)
+            throw new IndexOutOfBoundsException("vértice " + v + " não está entre 0 e " + (V-1));
+    }
+
+    /**
+     * Insere a aresta no grafo e atualiza a floresta geradora mínima.
+     * @param a a aresta
+     * @throws IllegalArgumentException se a aresta já foi inserida
+     * @throws IndexOutOfBoundsException caso extremidades não estejam entre 0 e V-1
+     */
+    public void insere(Aresta a) {
+        int v = a.umVertice(), w = a.outroVertice(v);
+        validaVertice(v);
+        validaVertice(w);
+        if (ordem.containsKey(a)) throw new IllegalArgumentException("aresta " + a + " já foi inserida");
+        ordem.put(a, sequencia++);
+
+        if (v == w) {                                   // laço nunca pertence à floresta
+            adicionaFora(a);
+        }
+        else if (encontraRaiz(v) != encontraRaiz(w)) {
+            liga(a);
+        }
+        else {
+            int x = maximoNoCaminho(v, w);
+            if (valor[x] > a.peso()) {                  // a substitui a aresta mais pesada do ciclo
+                Aresta substituida = aresta[x];
+                corta(substituida);
+                adicionaFora(substituida);
+                liga(a);
+            }
+            else {
+                adicionaFora(a);
+            }
+        }
+        assert checa();
+    }
+
+    /**
+     * Remove a aresta do grafo e atualiza a floresta geradora mínima. Se a aresta é da floresta, a busca
+     * da substituta leva tempo proporcional ao tamanho do lado menor do corte e às arestas fora da
+     * floresta que incidem nele.
+     * @param a a aresta (o mesmo objeto passado para insere)
+     * @throws IllegalArgumentException se a aresta não está no grafo
+     */
+    public void remove(Aresta a) {
+        if (!ordem.containsKey(a)) throw new IllegalArgumentException("aresta " + a + " não está no grafo");
+        if (!naArvore.containsKey(a)) {
+            removeFora(a);
+            ordem.remove(a);
+            assert checa();
+            return;
+        }
+        corta(a);
+
+        // a aresta mais leve fora da floresta que religa os dois lados do corte é a substituta;
+        // toda aresta que religa os lados tem uma extremidade no lado menor
+        int v = a.umVertice(), w = a.outroVertice(v);
+        int n = ladoMenor(v, w);
+        int[] lado = ladoMenorEhV ? ladoV : ladoW;
+        int marcaLado = marca[lado[0]];
+        Aresta substituta = null;
+        for (int i = 0; i < n; i++) {
+            int x = lado[i];
+            if (foraDaArvore[x] == null) continue;
+            for (Aresta f : foraDaArvore[x]) {
+                if (marca[f.outroVertice(x)] == marcaLado) continue;   // as duas extremidades no lado menor
+                if (substituta == null || porPeso.compare(f, substituta) < 0) substituta = f;
+            }
+        }
+        ordem.remove(a);
+        if (substituta != null) {
+            removeFora(substituta);
+            liga(substituta);
+        }
+        assert checa();
+    }
+
+    /**
+     * Percorre pelas arestas da floresta, alternadamente, os componentes de v e de w (já separados) até
+     * que um deles se esgote. Os vértices alcançados do lado v ficam em ladoV, com marca 2 * rodada, e os
+     * do lado w em ladoW, com marca 2 * rodada + 1; ladoMenorEhV indica qual lado se esgotou, o menor.
+     * @return o número de vértices do lado menor
+     */
+    private int ladoMenor(int v, int w) {
+        rodada++;
+        int marcaV = 2 * rodada, marcaW = 2 * rodada + 1;
+        marca[v] = marcaV;
+        marca[w] = marcaW;
+        ladoV[0] = v;
+        ladoW[0] = w;
+        int inicioV = 0, fimV = 1, inicioW = 0, fimW = 1;
+        while (true) {
+            if (inicioV == fimV) {
+                ladoMenorEhV = true;
+                return fimV;
+            }
+            fimV = expande(ladoV, inicioV++, fimV, marcaV);
+            if (inicioW == fimW) {
+                ladoMenorEhV = false;
+                return fimW;
+            }
+            fimW = expande(ladoW, inicioW++, fimW, marcaW);
+        }
+    }
+
+    // acrescenta em lado os vizinhos na floresta, ainda não marcados, do vértice lado[i]
+    private int expande(int[] lado, int i, int fim, int marcaLado) {
+        int x = lado[i];
+        if (arvore[x] == null) return fim;
+        for (Aresta f : arvore[x]) {
+            int y = f.outroVertice(x);
+            if (marca[y] == marcaLado) continue;
+            marca[y] = marcaLado;
+            lado[fim++] = y;
+        }
+        return fim;
+    }
+
+    // registra a aresta como fora da floresta nas duas extremidades
+    private void adicionaFora(Aresta a) {
+        int v = a.umVertice(), w = a.outroVertice(v);
+        incidencia(foraDaArvore, v).add(a);
+        incidencia(foraDaArvore, w).add(a);
+    }
+
+    private void removeFora(Aresta a) {
+        int v = a.umVertice(), w = a.outroVertice(v);
+        foraDaArvore[v].remove(a);
+        foraDaArvore[w].remove(a);
+    }
+
+    // conjunto de arestas incidentes em v, criado no primeiro uso
+    private static Set<Aresta> incidencia(Set<Aresta>[] conjuntos, int v) {
+        if (conjuntos[v] == null) conjuntos[v] = Collections.newSetFromMap(new IdentityHashMap<Aresta, Boolean>(4));
+        return conjuntos[v];
+    }
+
+    /**
+     * Retorna verdadeiro se a aresta pertence à floresta geradora mínima atual.
+     * @param a a aresta
+     * @return verdadeiro se a aresta pertence à floresta geradora mínima atual
+     */
+    public boolean contem(Aresta a) {
+        return naArvore.containsKey(a);
+    }
+
+    /**
+     * Retorna as arestas da floresta geradora mínima atual.
+     * @return as arestas da floresta geradora mínima como um iterable de arestas
+     */
+    public Iterable<Aresta> arestas() {
+        Fila<Aresta> mst = new Fila<Aresta>();
+        for (Aresta a : naArvore.keySet()) mst.enfileira(a);
+        return mst;
+    }
+
+    /**
+     * Retorna a soma dos pesos das arestas da floresta geradora mínima atual. A soma é mantida com
+     * compensação do erro de arredondamento, de modo que não se desvia do peso das arestas atuais
+     * depois de muitas inserções e remoções.
+     * @return a soma dos pesos das arestas da floresta geradora mínima atual
+     */
+    public double peso() {
+        return peso + compensacao;
+    }
+
+    // soma x ao peso, guardando em compensacao a parte perdida no arredondamento (soma de Neumaier)
+    private void somaPeso(double x) {
+        double t = peso + x;
+        compensacao += erroSoma(peso, x, t);
+        peso = t;
+    }
+
+    // parte de soma + x perdida no arredondamento de t = soma + x
+    private static double erroSoma(double soma, double x, double t) {
+        return Math.abs(soma) >= Math.abs(x) ? (soma - t) + x : (x - t) + soma;
+    }
+
+    // adiciona a aresta na floresta criando um nó para ela
+    private void liga(Aresta a) {
+        if (quantidadeLivres == 0) redimensiona(2 * valor.length);
+        int x = livres[--quantidadeLivres];
+        aresta[x] = a;
+        valor[x] = a.peso();
+        maximo[x] = x;
+        int v = a.umVertice(), w = a.outroVertice(v);
+        link(v, x);
+        link(x, w);
+        incidencia(arvore, v).add(a);
+        incidencia(arvore, w).add(a);
+        naArvore.put(a, x);
+        somaPeso(a.peso());
+    }
+
+    // retira a aresta da floresta e libera o seu nó
+    private void corta(Aresta a) {
+        int x = naArvore.remove(a);
+        int v = a.umVertice(), w = a.outroVertice(v);
+        cut(v, x);
+        cut(x, w);
+        arvore[v].remove(a);
+        arvore[w].remove(a);
+        aresta[x] = null;
+        valor[x] = Double.NEGATIVE_INFINITY;
+        livres[quantidadeLivres++] = x;
+        if (naArvore.isEmpty()) peso = compensacao = 0.0;  // floresta vazia: descarta o erro acumulado
+        else                    somaPeso(-a.peso());
+    }
+
+    private void redimensiona(int capacidade) {
+        int antiga = valor.length;
+        esquerdo = Arrays.copyOf(esquerdo, capacidade);
+        direito = Arrays.copyOf(direito, capacidade);
+        pai = Arrays.copyOf(pai, capacidade);
+        invertido = Arrays.copyOf(invertido, capacidade);
+        valor = Arrays.copyOf(valor, capacidade);
+        maximo = Arrays.copyOf(maximo, capacidade);
+        aresta = Arrays.copyOf(aresta, capacidade);
+        livres = Arrays.copyOf(livres, capacidade);
+        caminho = new int[capacidade];
+        for (int x = capacidade - 1; x >= antiga; x--) {
+            esquerdo[x] = direito[x] = pai[x] = -1;
+            valor[x] = Double.NEGATIVE_INFINITY;
+            maximo[x] = x;
+            livres[quantidadeLivres++] = x;
+        }
+    }
+
+   /***************************************************************************
+    * Link-cut tree.
+    ***************************************************************************/
+
+    // x é raiz da sua splay tree?
+    private boolean ehRaiz(int x) {
+        int p = pai[x];
+        return p == -1 || (esquerdo[p] != x && direito[p] != x);
+    }
+
+    // propaga a inversão pendente de x para os filhos
+    private void empurra(int x) {
+        if (!invertido[x]) return;
+        int temp = esquerdo[x];
+        esquerdo[x] = direito[x];
+        direito[x] = temp;
+        if (esquerdo[x] != -1) invertido[esquerdo[x]] ^= true;
+        if (direito[x] != -1) invertido[direito[x]] ^= true;
+        invertido[x] = false;
+    }
+
+    // recalcula o nó de maior valor na subárvore de x
+    private void atualiza(int x) {
+        int m = x;
+        if (esquerdo[x] != -1 && valor[maximo[esquerdo[x]]] > valor[m]) m = maximo[esquerdo[x]];
+        if (direito[x] != -1 && valor[maximo[direito[x]]] > valor[m]) m = maximo[direito[x]];
+        maximo[x] = m;
+    }
+
+    private void rotaciona(int x) {
+        int p = pai[x], g = pai[p];
+        if (!ehRaiz(p)) {
+            if (esquerdo[g] == p) esquerdo[g] = x;
+            else                  direito[g] = x;
+        }
+        pai[x] = g;
+        if (esquerdo[p] == x) {
+            esquerdo[p] = direito[x];
+            if (direito[x] != -1) pai[direito[x]] = p;
+            direito[x] = p;
+        }
+        else {
+            direito[p] = esquerdo[x];
+            if (esquerdo[x] != -1) pai[esquerdo[x]] = p;
+            esquerdo[x] = p;
+        }
+        pai[p] = x;
+        atualiza(p);
+        atualiza(x);
+    }
+
+    private void splay(int x) {
+        // empurra as inversões pendentes do topo da splay tree até x
+        int topo = x;
+        int n = 0;
+        caminho[n++] = topo;
+        while (!ehRaiz(topo)) {
+            topo = pai[topo];
+            caminho[n++] = topo;
+        }
+        while (n > 0) empurra(caminho[--n]);
+
+        while (!ehRaiz(x)) {
+            int p = pai[x];
+            if (!ehRaiz(p)) {
+                int g = pai[p];
+                if ((esquerdo[g] == p) == (esquerdo[p] == x)) rotaciona(p);
+                else                                          rotaciona(x);
+            }
+            rotaciona(x);
+        }
+    }
+
+    // torna o caminho da raiz até x preferido
+    private void access(int x) {
+        int ultimo = -1;
+        for (int y = x; y != -1; y = pai[y]) {
+            splay(y);
+            direito[y] = ultimo;
+            atualiza(y);
+            ultimo = y;
+        }
+        splay(x);
+    }
+
+    private void tornaRaiz(int x) {
+        access(x);
+        invertido[x] ^= true;
+    }
+
+    private int encontraRaiz(int x) {
+        access(x);
+        empurra(x);
+        while (esquerdo[x] != -1) {
+            x = esquerdo[x];
+            empurra(x);
+        }
+        splay(x);
+        return x;
+    }
+
+    private void link(int x, int y) {
+        tornaRaiz(x);
+        pai[x] = y;
+    }
+
+    private void cut(int x, int y) {
+        tornaRaiz(x);
+        access(y);
+        // x é o filho esquerdo de y e não tem filho direito
+        esquerdo[y] = -1;
+        pai[x] = -1;
+        atualiza(y);
+    }
+
+    // nó de aresta de maior peso no caminho entre os vértices v e w (que devem estar conectados)
+    private int maximoNoCaminho(int v, int w) {
+        tornaRaiz(v);
+        access(w);
+        return maximo[w];
+    }
+
+    /**
+     * Checa as condições de otimização: a floresta é acíclica, geradora e toda aresta fora dela
+     * é pelo menos tão pesada quanto a aresta mais pesada do caminho que ela fecharia.
+     * @return verdadeiro se as condições forem satisfeitas, a falso, caso contrário
+     */
+    private boolean checa() {
+        double total = 0.0, erro = 0.0;
+        UF uf = new UF(V);
+        for (Aresta a : naArvore.keySet()) {
+            double t = total + a.peso();
+            erro += erroSoma(total, a.peso(), t);
+            total = t;
+            int v = a.umVertice(), w = a.outroVertice(v);
+            if (uf.conectado(v, w)) {
+                System.err.println("Não é floresta");
+                return false;
+            }
+            uf.junta(v, w);
+        }
+        total += erro;
+        if (Math.abs(total - peso()) > FLOATING_POINT_EPSILON * Math.max(1.0, Math.abs(total))) {
+            System.err.printf("Peso das arestas não é igual peso(): %f vs. %f\n", total, peso());
+            return false;
+        }
+        for (int x = 0; x < V; x++) {
+            if (foraDaArvore[x] == null) continue;
+            for (Aresta f : foraDaArvore[x]) {
+                int v = f.umVertice(), w = f.outroVertice(v);
+                if (v != x || v == w) continue;             // cada aresta é checada uma única vez
+                if (!uf.conectado(v, w)) {
+                    System.err.println("Não é uma floresta geradora");
+                    return false;
+                }
+                if (valor[maximoNoCaminho(v, w)] > f.peso() + FLOATING_POINT_EPSILON) {
+                    System.err.println("Aresta " + f + " viola as condições de ciclo de optimização");
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Testa a classe AlgoritmoMSTDinamicaGrafoPonderado
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        GrafoPonderado G = new GrafoPonderado(in);
+        AlgoritmoMSTDinamicaGrafoPonderado mst = new AlgoritmoMSTDinamicaGrafoPonderado(G);
+        System.out.printf("%.5f\n", mst.peso());
+
+        Aresta maisPesada = null;
+        for (Aresta a : mst.arestas()) {
+            if (maisPesada == null || a.peso() > maisPesada.peso()) maisPesada = a;
+        }
+        System.out.println("removendo " + maisPesada);
+        mst.remove(maisPesada);
+        System.out.printf("%.5f\n", mst.peso());
+
+        Aresta nova = new Aresta(1, G.V() - 2, 0.10);
+        System.out.println("inserindo " + nova);
+        mst.insere(nova);
+        System.out.printf("%.5f\n", mst.peso());
+    }
+
+}
@@ -0,0 +1,293 @@
+/*******************************************************************************
+ *  Compilação:       javac AlgoritmoMSTFilterKruskalGrafoPonderado.java
+ *  Execução:         java  AlgoritmoMSTFilterKruskalGrafoPonderado dados.txt
+ *  Dependências:     GrafoPonderado.java Aresta.java Fila.java AcessoGrafo.java
+ *                    UF.java In.java VetorArestas.java
+ *  Arquivo de dados: GrafoPonderado1.txt
+ *  Link dos dados:   https://drive.google.com/open?id=0B3q56TwNCeXoenFyMnlzX2ZyXzg
+ *
+ *  Calcula a árvore geradora mínima (MTS) utilizando o algoritmo Filter-Kruskal.
+ *
+ *  %  java AlgoritmoMSTFilterKruskalGrafoPonderado GrafoPonderado1.txt
+ *  0-7 0.16000
+ *  2-3 0.17000
+ *  1-7 0.19000
+ *  0-2 0.26000
+ *  5-7 0.28000
+ *  4-5 0.35000
+ *  6-2 0.40000
+ *  1.81000
+ *
+ ******************************************************************************/
+
+package br.edu.ifes.si.tpa;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+/**
+ * Esta classe implementa a geração da árvore geradora mínima utilizando o algoritmo Filter-Kruskal.
+ * As arestas são particionadas em torno do peso de uma aresta pivô, como no quicksort: as leves são
+ * processadas primeiro e, antes de processar as pesadas, são descartadas as arestas cujos vértices já
+ * estão no mesmo componente. Em grafos densos a maior parte das arestas pesadas é descartada sem
+ * nunca ser ordenada. As arestas são lidas de um {@link VetorArestas} e o algoritmo trabalha sobre um
+ * único vetor de índices: a partição é feita no lugar, em uma passada, e a filtragem compacta as arestas
+ * que restam no início do trecho, sem alocar vetores a cada nível. As etapas de partição e filtragem de
+ * trechos grandes são divididas ao meio e executadas em um {@link ForkJoinPool}, juntando as metades com
+ * uma troca de blocos; durante essas etapas o union-find é apenas consultado.
+ * Para documentação adicional, acesse:
+ * <a href="http://algs4.cs.princeton.edu/43mst">Section 4.3</a>
+ * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class AlgoritmoMSTFilterKruskalGrafoPonderado {
+    private static final double FLOATING_POINT_EPSILON = 1E-12;
+    private static final int LIMITE_KRUSKAL = 1024;      // abaixo deste tamanho as arestas são ordenadas diretamente
+    private static final int LIMITE_PARALELO = 1 << 16;  // abaixo deste tamanho partição e filtro são sequenciais
+
+    private double peso;                            // peso da árvore geradora mínima (MST)
+    private Fila<Aresta> mst = new Fila<Aresta>();  // arestas na árvore geradora mínima (MST)
+    private final ForkJoinPool pool;                // pool que executa partição e filtro
+    private final Random random = new Random(42);   // escolha do pivô
+    private UF uf;                                  // componentes da floresta atual
+    private int V;                                  // número de vértices do grafo
+    private VetorArestas arestas;                   // arestas do grafo
+    private int[] ids;                              // índices das arestas, particionados no lugar
+
+    /**
+     * Calcula a árvore geradora mínima do grafo ponderado utilizando o pool comum do ForkJoin.
+     * @param G o grafo ponderado, em qualquer representação
+     * @throws IllegalArgumentException se G é direcionado
+     */
+    public AlgoritmoMSTFilterKruskalGrafoPonderado(AcessoGrafo G) {
+        this(G, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Calcula a árvore geradora mínima do grafo ponderado.
+     * @param G o grafo ponderado, em qualquer representação
+     * @param pool o pool em que são executadas a partição e a filtragem das arestas
+     * @throws IllegalArgumentException se G é direcionado
+     */
+    public AlgoritmoMSTFilterKruskalGrafoPonderado(AcessoGrafo G, ForkJoinPool pool) {
+        if (G.direcionado()) throw new IllegalArgumentException("a árvore geradora mínima é definida apenas para grafos não direcionados");
+        this.pool = pool;
+        this.V = G.V();
+        // sem compressão de caminho: encontra não altera a estrutura e pode ser chamado em paralelo
+        uf = new UF(G.V());
+        arestas = VetorArestas.de(G);
+        ids = IntStream.range(0, arestas.A()).toArray();
+        filterKruskal(0, ids.length);
+        arestas = null;
+        ids = null;
+
+        // checa as condições de otimização
+        assert checa(G);
+    }
+
+    /**
+     * Processa as arestas ids[lo .. hi-1] em ordem crescente de peso, filtrando as pesadas antes de ordená-las.
+     * @param lo o início do trecho
+     * @param hi o fim do trecho (exclusive)
+     */
+    private void filterKruskal(int lo, int hi) {
+        if (mst.tamanho() >= V - 1) return;
+        if (hi - lo <= LIMITE_KRUSKAL) {
+            kruskal(lo, hi);
+            return;
+        }
+        final double pivo = arestas.peso(ids[lo + random.nextInt(hi - lo)]);
+        int m = hi - lo < LIMITE_PARALELO ? particiona(lo, hi, pivo) : pool.submit(() -> particiona(lo, hi, pivo)).join();
+        if (m == hi) {                          // todos os pesos <= pivô: não há o que filtrar
+            kruskal(lo, hi);
+            return;
+        }
+        filterKruskal(lo, m);
+        int k = hi - m < LIMITE_PARALELO ? filtra(m, hi) : pool.submit(() -> filtra(m, hi)).join();
+        filterKruskal(m, k);
+    }
+
+    /**
+     * Ordena as arestas ids[lo .. hi-1] e as adiciona na árvore se não criarem ciclo.
+     * @param lo o início do trecho
+     * @param hi o fim do trecho (exclusive)
+     */
+    private void kruskal(int lo, int hi) {
+        long[] chaves = arestas.ordenaPorPeso(ids, lo, hi);
+        for (int k = 0; k < chaves.length && mst.tamanho() < V - 1; k++) {
+            int i = (int) chaves[k];
+            int v1 = arestas.v1(i);
+            int v2 = arestas.v2(i);
+            if (!uf.conectado(v1, v2)) { // v1-v2 não cria ciclo
+                uf.junta(v1, v2);  // juntar os componentes v1 a v2
+                Aresta a = arestas.aresta(i);
+                mst.enfileira(a);  // adiciona aresta na árvore geradora mínima (MST)
+                peso += a.peso();
+            }
+        }
+    }
+
+    /**
+     * Particiona ids[lo .. hi-1] no lugar: as arestas de peso <= pivô antes, as demais depois. Trechos
+     * grandes são divididos ao meio, particionados em paralelo e juntados trocando o bloco pesado da
+     * primeira metade com o leve da segunda.
+     * @return o início das arestas de peso > pivô
+     */
+    private int particiona(int lo, int hi, double pivo) {
+        if (hi - lo >= LIMITE_PARALELO) {
+            int meio = (lo + hi) >>> 1;
+            ForkJoinTask<Integer> esquerda = ForkJoinTask.adapt(() -> particiona(lo, meio, pivo)).fork();
+            int m2 = particiona(meio, hi, pivo);
+            int m1 = esquerda.join();
+            trocaBlocos(m1, meio, m2);
+            return m1 + (m2 - meio);
+        }
+        int i = lo, j = hi - 1;
+        while (true) {
+            while (i <= j && arestas.peso(ids[i]) <= pivo) i++;
+            while (i <= j && arestas.peso(ids[j]) > pivo) j--;
+            if (i >= j) return i;
+            int t = ids[i];
+            ids[i++] = ids[j];
+            ids[j--] = t;
+        }
+    }
+
+    // troca os blocos ids[a .. b-1] e ids[b .. c-1], sem manter a ordem dentro deles: o menor dos dois
+    // troca de lugar com a ponta oposta do outro
+    private void trocaBlocos(int a, int b, int c) {
+        int s = Math.min(b - a, c - b);
+        int d = c - s - a;
+        if (s < LIMITE_PARALELO) {
+            for (int k = a; k < a + s; k++) troca(k, k + d);
+        }
+        else {
+            IntStream.range(a, a + s).parallel().forEach(k -> troca(k, k + d));
+        }
+    }
+
+    private void troca(int i, int j) {
+        int t = ids[i];
+        ids[i] = ids[j];
+        ids[j] = t;
+    }
+
+    /**
+     * Compacta no início de ids[lo .. hi-1] as arestas cujos vértices ainda estão em componentes diferentes,
+     * na ordem original. Trechos grandes são divididos ao meio, filtrados em paralelo e juntados copiando
+     * as arestas restantes da segunda metade logo após as da primeira.
+     * @return o fim das arestas restantes
+     */
+    private int filtra(int lo, int hi) {
+        if (hi - lo >= LIMITE_PARALELO) {
+            int meio = (lo + hi) >>> 1;
+            ForkJoinTask<Integer> esquerda = ForkJoinTask.adapt(() -> filtra(lo, meio)).fork();
+            int k2 = filtra(meio, hi);
+            int k1 = esquerda.join();
+            System.arraycopy(ids, meio, ids, k1, k2 - meio);
+            return k1 + (k2 - meio);
+        }
+        int k = lo;
+        for (int j = lo; j < hi; j++) {
+            int i = ids[j];
+            if (!uf.conectado(arestas.v1(i), arestas.v2(i))) ids[k++] = i;
+        }
+        return k;
+    }
+
+    /**
+     * Retorna as arestas da árvore geradora mínima (MST).
+     * @return as arestas da árvores geradora mínima como um iterable de arestas
+     */
+    public Iterable<Aresta> arestas() {
+        return mst;
+    }
+
+    /**
+     * Retorna a soma das arestas ponderadas na árvores geradora mínima (MST).
+     * @return a soma das arestas ponderadas na árvores geradora mínima (MST)
+     */
+    public double peso() {
+        return peso;
+    }
+    
+    /**
+     * Checa as condições de otimização 
+     * @param G o grafo ponderado
+     * @return verdadeiro se as condições forem satisfeitas, a falso, caso contrário
+     */
+    private boolean checa(AcessoGrafo G) {
+        VetorArestas arestasG = VetorArestas.de(G);
+
+        // checa peso total
+        double total = 0.0;
+        for (Aresta a : arestas()) {
+            total += a.peso();
+        }
+        if (Math.abs(total - peso()) > FLOATING_POINT_EPSILON) {
+            System.err.printf("Peso das arestas não é igual peso(): %f vs. %f\n", total, peso());
+            return false;
+        }
+
+        // checa que é acíclico
+        UF uf = new UF(G.V());
+        for (Aresta a : arestas()) {
+            int v1 = a.umVertice(), v2 = a.outroVertice(v1);
+            if (uf.conectado(v1, v2)) {
+                System.err.println("Não é floresta");
+                return false;
+            }
+            uf.junta(v1, v2);
+        }
+
+        // chega que é uma árvores geradora
+        for (int i = 0; i < arestasG.A(); i++) {
+            int v1 = arestasG.v1(i), v2 = arestasG.v2(i);
+            if (!uf.conectado(v1, v2)) {
+                System.err.println("Não é uma árvore geradora mínima");
+                return false;
+            }
+        }
+
+        // checa que é uma árvore geradora mínima ( cortar condições de otimização )
+        for (Aresta a : arestas()) {
+
+            // todas arestas na árvores geradora mínima (MST) exceto 'a'
+            uf = new UF(G.V());
+            for (Aresta f : mst) {
+                int x = f.umVertice(), y = f.outroVertice(x);
+                if (f != a) uf.junta(x, y);
+            }
+            
+            // checa que é aresta de peso min em corte de cruzamento
+            for (int i = 0; i < arestasG.A(); i++) {
+                int x = arestasG.v1(i), y = arestasG.v2(i);
+                if (!uf.conectado(x, y)) {
+                    if (arestasG.peso(i) < a.peso()) {
+                        System.err.println("Aresta " + arestasG.aresta(i) + " viola as condições de corte de optimização");
+                        return false;
+                    }
+                }
+            }
+
+        }
+
+        return true;
+    }
+
+
+    /**
+     * Testa a classe AlgoritmoMSTFilterKruskalGrafoPonderado
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        GrafoPonderado G = new GrafoPonderado(in);
+        AlgoritmoMSTFilterKruskalGrafoPonderado kruskal = new AlgoritmoMSTFilterKruskalGrafoPonderado(G);
+        for (Aresta a : kruskal.arestas()) {
+            System.out.println(a);
+        }
+        System.out.printf("%.5f\n", kruskal.peso());
+    }
+
+}
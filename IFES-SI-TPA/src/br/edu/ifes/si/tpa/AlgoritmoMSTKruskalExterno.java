@@ -0,0 +1,336 @@
+/*******************************************************************************
+ *  Compilação:       javac AlgoritmoMSTKruskalExterno.java
+ *  Execução:         java  AlgoritmoMSTKruskalExterno dados.txt [arestasPorRodada]
+ *  Dependências:     Aresta.java Fila.java UF.java In.java
+ *                    FilaPrioridadeMinIndex.java
+ *  Arquivo de dados: GrafoPonderado1.txt
+ *  Link dos dados:   https://drive.google.com/open?id=0B3q56TwNCeXoenFyMnlzX2ZyXzg
+ *
+ *  Calcula a árvore geradora mínima (MTS) utilizando o algoritmo de Kruskal semi-externo:
+ *  apenas o union-find fica em memória e as arestas são lidas de um arquivo binário,
+ *  ordenadas com ordenação externa (merge sort) e percorridas uma única vez.
+ *
+ *  O arquivo binário de arestas tem um cabeçalho com V (int) e A (long), seguido de A
+ *  registros com v1 (int), v2 (int) e peso (double), em big-endian.
+ *
+ *  %  java AlgoritmoMSTKruskalExterno GrafoPonderado1.txt 4
+ *  0-7 0.16000
+ *  2-3 0.17000
+ *  1-7 0.19000
+ *  0-2 0.26000
+ *  5-7 0.28000
+ *  4-5 0.35000
+ *  6-2 0.40000
+ *  1.81000
+ *
+ ******************************************************************************/
+
+package br.edu.ifes.si.tpa;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Esta classe implementa a geração da árvore geradora mínima para grafos cujas arestas não cabem em memória,
+ * mas cujos vértices cabem. As arestas são lidas do arquivo binário em rodadas de no máximo
+ * arestasPorRodada arestas; cada rodada é ordenada por peso em vetores primitivos e gravada em um arquivo
+ * temporário. Enquanto houver mais de MAXIMO_RODADAS rodadas, grupos de MAXIMO_RODADAS rodadas são
+ * intercalados em uma nova rodada, de forma que nunca haja mais que MAXIMO_RODADAS arquivos abertos. As
+ * rodadas restantes são então lidas sequencialmente, cada uma com um buffer próprio, e intercaladas com uma
+ * fila de prioridade indexada, alimentando diretamente o Kruskal, que para ao completar V-1 arestas. Os
+ * buffers das rodadas somam no máximo o espaço de uma rodada (entre 4KB e 64KB por rodada), e cada arquivo
+ * temporário é apagado assim que intercalado ou ao final. As listas de adjacências nunca são construídas.
+ * Para documentação adicional, acesse:
+ * <a href="http://algs4.cs.princeton.edu/43mst">Section 4.3</a>
+ * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class AlgoritmoMSTKruskalExterno {
+    private static final int TAMANHO_REGISTRO = 4 + 4 + 8;   // v1 (int), v2 (int) e peso (double)
+    private static final int TAMANHO_BUFFER = 1 << 16;
+    private static final int TAMANHO_BUFFER_MINIMO = 1 << 12; // menor buffer de leitura de uma rodada na intercalação
+    private static final int MAXIMO_RODADAS = 64;            // maior número de rodadas abertas de uma vez
+
+    private double peso;                            // peso da árvore geradora mínima (MST)
+    private Fila<Aresta> mst = new Fila<Aresta>();  // arestas na árvore geradora mínima (MST)
+
+    /**
+     * Calcula a árvore geradora mínima das arestas do arquivo binário.
+     * @param arquivo o arquivo binário de arestas
+     * @param arestasPorRodada o número máximo de arestas mantidas em memória durante a ordenação
+     * @throws IllegalArgumentException se arestasPorRodada não for positivo ou se o arquivo não puder ser lido
+     */
+    public AlgoritmoMSTKruskalExterno(File arquivo, int arestasPorRodada) {
+        if (arestasPorRodada <= 0) throw new IllegalArgumentException("arestasPorRodada deve ser positivo");
+        List<File> rodadas = new ArrayList<File>();
+        try {
+            DataInputStream entrada = new DataInputStream(new BufferedInputStream(new FileInputStream(arquivo), TAMANHO_BUFFER));
+            try {
+                int V = entrada.readInt();
+                long A = entrada.readLong();
+                if (V < 0) throw new IllegalArgumentException("Número de vértices no grafo deve ser não negativo");
+                if (A < 0) throw new IllegalArgumentException("Número de arestas deve ser não negativo");
+                criaRodadas(entrada, V, A, arestasPorRodada, rodadas);
+                reduzRodadas(rodadas, arestasPorRodada);
+                intercala(rodadas, V, arestasPorRodada);
+            }
+            finally {
+                entrada.close();
+            }
+        }
+        catch (IOException ioe) {
+            throw new IllegalArgumentException("Não foi possível ler " + arquivo, ioe);
+        }
+        finally {
+            for (File f : rodadas) f.delete();
+        }
+    }
+
+    /**
+     * Lê as arestas em blocos, ordena cada bloco por peso e grava cada um em um arquivo temporário.
+     */
+    private static void criaRodadas(DataInputStream entrada, int V, long A, int arestasPorRodada, List<File> rodadas) throws IOException {
+        int capacidade = (int) Math.min(arestasPorRodada, Math.max(A, 1));
+        int[] v1 = new int[capacidade];
+        int[] v2 = new int[capacidade];
+        double[] pesos = new double[capacidade];
+        long lidas = 0;
+        while (lidas < A) {
+            int n = (int) Math.min(capacidade, A - lidas);
+            for (int i = 0; i < n; i++) {
+                v1[i] = entrada.readInt();
+                v2[i] = entrada.readInt();
+                pesos[i] = entrada.readDouble();
+                if (v1[i] < 0 || v1[i] >= V) throw new IndexOutOfBoundsException("vértice " + v1[i] + " não está entre 0 e " + (V-1));
+                if (v2[i] < 0 || v2[i] >= V) throw new IndexOutOfBoundsException("vértice " + v2[i] + " não está entre 0 e " + (V-1));
+                if (Double.isNaN(pesos[i])) throw new IllegalArgumentException("Peso é não numérico");
+            }
+            lidas += n;
+            ordena(pesos, v1, v2, 0, n - 1);
+
+            File rodada = File.createTempFile("kruskal", ".run");
+            rodadas.add(rodada);   // apagada pelo construtor ao final, mesmo em caso de erro
+            DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(rodada), TAMANHO_BUFFER));
+            try {
+                for (int i = 0; i < n; i++) {
+                    saida.writeInt(v1[i]);
+                    saida.writeInt(v2[i]);
+                    saida.writeDouble(pesos[i]);
+                }
+            }
+            finally {
+                saida.close();
+            }
+        }
+    }
+
+    /**
+     * Enquanto houver mais de MAXIMO_RODADAS rodadas, intercala as MAXIMO_RODADAS primeiras em uma nova
+     * rodada, no fim da lista, e apaga as intercaladas. A nova rodada entra na lista antes de ser gravada,
+     * de forma que o construtor a apague mesmo se a gravação falhar.
+     */
+    private static void reduzRodadas(List<File> rodadas, int arestasPorRodada) throws IOException {
+        while (rodadas.size() > MAXIMO_RODADAS) {
+            List<File> grupo = new ArrayList<File>(rodadas.subList(0, MAXIMO_RODADAS));
+            int k = grupo.size();
+            File destino = File.createTempFile("kruskal", ".run");
+            rodadas.add(destino);
+            DataInputStream[] entradas = new DataInputStream[k];
+            long[] restantes = new long[k];
+            int[] x = new int[k];
+            int[] y = new int[k];
+            double[] pesos = new double[k];
+            try {
+                FilaPrioridadeMinIndex<Double> pq = abre(grupo, tamanhoBuffer(arestasPorRodada, k), entradas, restantes, x, y, pesos);
+                DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(destino), TAMANHO_BUFFER));
+                try {
+                    while (!pq.isEmpty()) {
+                        int r = pq.removeMin();
+                        saida.writeInt(x[r]);
+                        saida.writeInt(y[r]);
+                        saida.writeDouble(pesos[r]);
+                        if (proxima(entradas, restantes, x, y, pesos, r)) pq.insere(r, pesos[r]);
+                    }
+                }
+                finally {
+                    saida.close();
+                }
+            }
+            finally {
+                for (DataInputStream entrada : entradas)
+                    if (entrada != null) entrada.close();
+            }
+            for (File rodada : grupo) rodada.delete();
+            rodadas.subList(0, MAXIMO_RODADAS).clear();
+        }
+    }
+
+    /**
+     * Lê as rodadas sequencialmente e as intercala em ordem crescente de peso, executando o Kruskal.
+     * Os buffers de leitura somam no máximo arestasPorRodada registros, respeitados os limites por rodada.
+     */
+    private void intercala(List<File> rodadas, int V, int arestasPorRodada) throws IOException {
+        int k = rodadas.size();
+        DataInputStream[] entradas = new DataInputStream[k];
+        long[] restantes = new long[k];   // registros ainda não lidos de cada rodada
+        int[] x = new int[k];             // aresta atual (lida e ainda não consumida) de cada rodada
+        int[] y = new int[k];
+        double[] pesos = new double[k];
+        try {
+            FilaPrioridadeMinIndex<Double> pq = abre(rodadas, tamanhoBuffer(arestasPorRodada, k), entradas, restantes, x, y, pesos);
+            UF uf = new UF(V, UF.Compressao.REDUCAO_PELA_METADE);
+            while (!pq.isEmpty() && mst.tamanho() < V - 1) {
+                int r = pq.removeMin();
+                int v1 = x[r], v2 = y[r];
+                double p = pesos[r];
+                if (proxima(entradas, restantes, x, y, pesos, r)) pq.insere(r, pesos[r]);
+                if (!uf.conectado(v1, v2)) { // v1-v2 não cria ciclo
+                    uf.junta(v1, v2);
+                    mst.enfileira(new Aresta(v1, v2, p));
+                    peso += p;
+                }
+            }
+        }
+        finally {
+            for (DataInputStream entrada : entradas)
+                if (entrada != null) entrada.close();
+        }
+    }
+
+    // tamanho do buffer de leitura de cada uma de k rodadas intercaladas: os k buffers somam no máximo o
+    // espaço de uma rodada, respeitados os limites por rodada
+    private static int tamanhoBuffer(int arestasPorRodada, int k) {
+        long orcamento = (long) arestasPorRodada * TAMANHO_REGISTRO / Math.max(k, 1);
+        return (int) Math.max(TAMANHO_BUFFER_MINIMO, Math.min(TAMANHO_BUFFER, orcamento));
+    }
+
+    // abre as rodadas, lê a primeira aresta de cada uma e retorna a fila com a aresta atual (a de menor peso
+    // ainda não consumida) de cada rodada; as entradas abertas são fechadas por quem chamou
+    private static FilaPrioridadeMinIndex<Double> abre(List<File> rodadas, int tamanhoBuffer, DataInputStream[] entradas, long[] restantes, int[] x, int[] y, double[] pesos) throws IOException {
+        FilaPrioridadeMinIndex<Double> pq = new FilaPrioridadeMinIndex<Double>(Math.max(rodadas.size(), 1));
+        for (int r = 0; r < rodadas.size(); r++) {
+            File rodada = rodadas.get(r);
+            restantes[r] = rodada.length() / TAMANHO_REGISTRO;
+            entradas[r] = new DataInputStream(new BufferedInputStream(new FileInputStream(rodada), tamanhoBuffer));
+            if (proxima(entradas, restantes, x, y, pesos, r)) pq.insere(r, pesos[r]);
+        }
+        return pq;
+    }
+
+    // lê a próxima aresta da rodada r; fecha a rodada e retorna falso se ela acabou
+    private static boolean proxima(DataInputStream[] entradas, long[] restantes, int[] x, int[] y, double[] pesos, int r) throws IOException {
+        if (restantes[r] == 0) {
+            entradas[r].close();
+            entradas[r] = null;
+            return false;
+        }
+        x[r] = entradas[r].readInt();
+        y[r] = entradas[r].readInt();
+        pesos[r] = entradas[r].readDouble();
+        restantes[r]--;
+        return true;
+    }
+
+    // ordena os vetores paralelos pelo peso (quicksort com partição de três vias)
+    private static void ordena(double[] pesos, int[] v1, int[] v2, int lo, int hi) {
+        while (lo < hi) {
+            double pivo = pesos[lo + (hi - lo) / 2];
+            int lt = lo, i = lo, gt = hi;
+            while (i <= gt) {
+                int cmp = Double.compare(pesos[i], pivo);
+                if      (cmp < 0) troca(pesos, v1, v2, lt++, i++);
+                else if (cmp > 0) troca(pesos, v1, v2, i, gt--);
+                else              i++;
+            }
+            // recursão na parte menor para limitar a profundidade da pilha
+            if (lt - lo < hi - gt) {
+                ordena(pesos, v1, v2, lo, lt - 1);
+                lo = gt + 1;
+            }
+            else {
+                ordena(pesos, v1, v2, gt + 1, hi);
+                hi = lt - 1;
+            }
+        }
+    }
+
+    private static void troca(double[] pesos, int[] v1, int[] v2, int i, int j) {
+        double p = pesos[i]; pesos[i] = pesos[j]; pesos[j] = p;
+        int t = v1[i]; v1[i] = v1[j]; v1[j] = t;
+        t = v2[i]; v2[i] = v2[j]; v2[j] = t;
+    }
+
+    /**
+     * Converte um arquivo de dados no formato texto de GrafoPonderado (V, A e A linhas v1 v2 peso)
+     * para o arquivo binário de arestas, lendo uma aresta por vez.
+     * @param in o arquivo de entrada de dados
+     * @param arquivo o arquivo binário a ser gravado
+     * @throws IllegalArgumentException se o arquivo não puder ser gravado
+     */
+    public static void converte(In in, File arquivo) {
+        int V = in.readInt();
+        long A = in.readLong();
+        try {
+            DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(arquivo), TAMANHO_BUFFER));
+            try {
+                saida.writeInt(V);
+                saida.writeLong(A);
+                for (long i = 0; i < A; i++) {
+                    saida.writeInt(in.readInt());
+                    saida.writeInt(in.readInt());
+                    saida.writeDouble(in.readDouble());
+                }
+            }
+            finally {
+                saida.close();
+            }
+        }
+        catch (IOException ioe) {
+            throw new IllegalArgumentException("Não foi possível gravar " + arquivo, ioe);
+        }
+    }
+
+    /**
+     * Retorna as arestas da árvore geradora mínima (MST).
+     * @return as arestas da árvores geradora mínima como um iterable de arestas
+     */
+    public Iterable<Aresta> arestas() {
+        return mst;
+    }
+
+    /**
+     * Retorna a soma das arestas ponderadas na árvores geradora mínima (MST).
+     * @return a soma das arestas ponderadas na árvores geradora mínima (MST)
+     */
+    public double peso() {
+        return peso;
+    }
+
+    /**
+     * Testa a classe AlgoritmoMSTKruskalExterno
+     */
+    public static void main(String[] args) throws IOException {
+        In in = new In(args[0]);
+        int arestasPorRodada = args.length > 1 ? Integer.parseInt(args[1]) : 1 << 20;
+        File binario = File.createTempFile("arestas", ".bin");
+        try {
+            converte(in, binario);
+            AlgoritmoMSTKruskalExterno kruskal = new AlgoritmoMSTKruskalExterno(binario, arestasPorRodada);
+            for (Aresta a : kruskal.arestas()) {
+                System.out.println(a);
+            }
+            System.out.printf("%.5f\n", kruskal.peso());
+        }
+        finally {
+            binario.delete();
+        }
+    }
+
+}
@@ -1,12 +1,13 @@
 /*******************************************************************************
  *  Compilação:       javac AlgoritmoMSTKruskalGrafoPonderado.java
- *  Execução:         java  AlgoritmoMSTKruskalGrafoPonderado dados.txt
+ *  Execução:         java  AlgoritmoMSTKruskalGrafoPonderado dados.txt [float]
  *  Dependências:     GrafoPonderado.java Aresta.java Fila.java
- *                    UF.java In.java
+ *                    UF.java In.java AcessoGrafo.java VetorArestas.java
  *  Arquivo de dados: GrafoPonderado1.txt
  *  Link dos dados:   https://drive.google.com/open?id=0B3q56TwNCeXoenFyMnlzX2ZyXzg
  *
- *  Calcula a árvore geradora mínima (MTS) utilizando o algoritmo de Kruskal.
+ *  Calcula a árvore geradora mínima (MTS) utilizando o algoritmo de Kruskal. Com a opção
+ *  float, os pesos são guardados e ordenados em precisão simples.
  *
  *  %  java AlgoritmoMSTKruskalGrafoPonderado GrafoPonderado1.txt
  *  0-7 0.16000
@@ -18,48 +19,155 @@
  *  6-2 0.40000
  *  1.81000
  *
+ *  % java AlgoritmoMSTKruskalGrafoPonderado benchmark 1000000 10000000
+ *  (compara os modos de ordenação das arestas em um grafo aleatório)
+ *
  ******************************************************************************/
 
 package br.edu.ifes.si.tpa;
 
+import java.util.Arrays;
+import java.util.Random;
+
 /**
  * Esta classe implementa a geração da árvore geradora mínima utilizando o algoritmo de Kruskal.
+ * As arestas do grafo são lidas por índice de um {@link VetorArestas}; os modos que ordenam chaves
+ * primitivas só criam objetos Aresta para as arestas da árvore.
  * Para documentação adicional, acesse:
  * <a href="http://algs4.cs.princeton.edu/43mst">Section 4.3</a>
  * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
  */
 public class AlgoritmoMSTKruskalGrafoPonderado {
     private static final double FLOATING_POINT_EPSILON = 1E-12;
+    private static final double TOLERANCIA_FLOAT = 2 * Math.ulp(1.0f);
+
+    /**
+     * Formas de obter as arestas em ordem crescente de peso.
+     * FILA_PRIORIDADE insere as arestas uma a uma na fila de prioridade;
+     * HEAP_EM_LOTE constrói o heap de uma vez em tempo linear (construção por sink); esses dois modos
+     * comparam objetos Aresta, criados para todas as arestas;
+     * ORDENACAO_PARALELA ordena com Arrays.parallelSort um vetor de long com 32 bits do peso em double e o
+     * índice de cada aresta, e reordena pelos 32 bits restantes cada trecho em que os primeiros coincidem,
+     * obtendo exatamente a ordem de Aresta.compareTo, com empates na ordem dos índices;
+     * CHAVES_FLOAT ordena com Arrays.parallelSort um vetor de long com o peso em precisão simples e o
+     * índice de cada aresta, em uma única passada. Arestas cujos pesos diferem por menos de 2<sup>-22</sup> (relativo)
+     * podem então ficar em qualquer ordem, e essa é a tolerância usada na verificação das condições de corte.
+     */
+    public enum Ordenacao { FILA_PRIORIDADE, HEAP_EM_LOTE, ORDENACAO_PARALELA, CHAVES_FLOAT }
 
     private double peso;                            // peso da árvore geradora mínima (MST)
     private Fila<Aresta> mst = new Fila<Aresta>();  // arestas na árvore geradora mínima (MST)
 
     /**
      * Calcula a árvore geradora mínima do grafo ponderado.
-     * @param G o grafo ponderado
+     * @param G o grafo ponderado, em qualquer representação
+     * @throws IllegalArgumentException se G é direcionado
      */
-    public AlgoritmoMSTKruskalGrafoPonderado(GrafoPonderado G) {
-        // estrutura mais eficiente para construir heap passando array de Arestas
-        FilaPrioridadeMin<Aresta> pq = new FilaPrioridadeMin<Aresta>();
-        for (Aresta e : G.arestas()) {
-            pq.insere(e);
-        }
-
-        // executar o algoritmo guloso
-        UF uf = new UF(G.V()); // instanciando uma estrutura do tipo union-find com o número de vértices do grafo
-        while (!pq.isEmpty() && mst.tamanho() < G.V() - 1) {
-            Aresta a = pq.delMin();
-            int v1 = a.umVertice();
-            int v2 = a.outroVertice(v1);
-            if (!uf.conectado(v1, v2)) { // v1-v2 não cria ciclo
-                uf.junta(v1, v2);  // juntar os componentes v1 a v2
-                mst.enfileira(a);  // adiciona aresta na árvore geradora mínima (MST)
-                peso += a.peso();
+    public AlgoritmoMSTKruskalGrafoPonderado(AcessoGrafo G) {
+        this(G, Ordenacao.FILA_PRIORIDADE);
+    }
+
+    /**
+     * Calcula a árvore geradora mínima do grafo ponderado, obtendo as arestas em ordem
+     * crescente de peso da forma indicada.
+     * @param G o grafo ponderado, em qualquer representação
+     * @param ordenacao a forma de ordenar as arestas
+     * @throws IllegalArgumentException se G é direcionado
+     */
+    public AlgoritmoMSTKruskalGrafoPonderado(AcessoGrafo G, Ordenacao ordenacao) {
+        if (G.direcionado()) throw new IllegalArgumentException("a árvore geradora mínima é definida apenas para grafos não direcionados");
+        VetorArestas arestas = VetorArestas.de(G);
+        UF uf = new UF(G.V(), UF.Compressao.REDUCAO_PELA_METADE); // union-find com o número de vértices do grafo e caminho reduzido pela metade
+
+        if (ordenacao == Ordenacao.ORDENACAO_PARALELA) {
+            long[] chaves = arestas.ordenaPorPeso();
+            for (int i = 0; i < chaves.length && mst.tamanho() < G.V() - 1; i++) {
+                adiciona(uf, arestas, (int) chaves[i]);
+            }
+        }
+        else if (ordenacao == Ordenacao.CHAVES_FLOAT) {
+            long[] chaves = new long[arestas.A()];
+            for (int i = 0; i < arestas.A(); i++) {
+                chaves[i] = (long) chave((float) arestas.peso(i)) << 32 | i;
+            }
+            Arrays.parallelSort(chaves);
+            for (int i = 0; i < chaves.length && mst.tamanho() < G.V() - 1; i++) {
+                adiciona(uf, arestas, (int) chaves[i]);
+            }
+        }
+        else {
+            FilaPrioridadeMin<Aresta> pq;
+            if (ordenacao == Ordenacao.HEAP_EM_LOTE) {
+                pq = new FilaPrioridadeMin<Aresta>(objetos(arestas));
+            }
+            else {
+                pq = new FilaPrioridadeMin<Aresta>();
+                for (int i = 0; i < arestas.A(); i++) {
+                    pq.insere(arestas.aresta(i));
+                }
+            }
+
+            // executar o algoritmo guloso
+            while (!pq.isEmpty() && mst.tamanho() < G.V() - 1) {
+                adiciona(uf, pq.delMin());
             }
         }
 
         // checa as condições de otimização
-        assert checa(G);
+        assert checa(G, arestas, ordenacao == Ordenacao.CHAVES_FLOAT ? TOLERANCIA_FLOAT : 0.0);
+    }
+
+    /**
+     * Retorna um inteiro cuja ordem com sinal é a ordem do peso p: os bits do float, com os bits
+     * de expoente e mantissa invertidos quando p é negativo.
+     * @param p o peso
+     * @return a chave do peso
+     */
+    private static int chave(float p) {
+        int bits = Float.floatToIntBits(p);
+        return bits ^ (bits >> 31 & 0x7FFFFFFF);
+    }
+
+    // um objeto Aresta para cada aresta do vetor
+    private static Aresta[] objetos(VetorArestas arestas) {
+        Aresta[] objetos = new Aresta[arestas.A()];
+        for (int i = 0; i < objetos.length; i++) {
+            objetos[i] = arestas.aresta(i);
+        }
+        return objetos;
+    }
+
+    /**
+     * Adiciona a aresta i na árvore geradora mínima se ela não criar ciclo; o objeto Aresta só é criado
+     * se ela entrar na árvore.
+     * @param uf os componentes da floresta atual
+     * @param arestas as arestas do grafo
+     * @param i o índice da aresta
+     */
+    private void adiciona(UF uf, VetorArestas arestas, int i) {
+        int v1 = arestas.v1(i);
+        int v2 = arestas.v2(i);
+        if (!uf.conectado(v1, v2)) { // v1-v2 não cria ciclo
+            uf.junta(v1, v2);
+            Aresta a = arestas.aresta(i);
+            mst.enfileira(a);
+            peso += a.peso();
+        }
+    }
+
+    /**
+     * Adiciona a aresta na árvore geradora mínima se ela não criar ciclo.
+     * @param uf os componentes da floresta atual
+     * @param a a aresta
+     */
+    private void adiciona(UF uf, Aresta a) {
+        int v1 = a.umVertice();
+        int v2 = a.outroVertice(v1);
+        if (!uf.conectado(v1, v2)) { // v1-v2 não cria ciclo
+            uf.junta(v1, v2);  // juntar os componentes v1 a v2
+            mst.enfileira(a);  // adiciona aresta na árvore geradora mínima (MST)
+            peso += a.peso();
+        }
     }
 
     /**
@@ -81,9 +189,11 @@ public class AlgoritmoMSTKruskalGrafoPonderado {
     /**
      * Checa as condições de otimização 
      * @param G o grafo ponderado
+     * @param arestasG as arestas do grafo
+     * @param tolerancia a diferença relativa de peso abaixo da qual a ordem das arestas é indiferente
      * @return verdadeiro se as condições forem satisfeitas, a falso, caso contrário
      */
-    private boolean checa(GrafoPonderado G) {
+    private boolean checa(AcessoGrafo G, VetorArestas arestasG, double tolerancia) {
 
         // checa peso total
         double total = 0.0;
@@ -107,8 +217,8 @@ public class AlgoritmoMSTKruskalGrafoPonderado {
         }
 
         // chega que é uma árvores geradora
-        for (Aresta a : G.arestas()) {
-            int v1 = a.umVertice(), v2 = a.outroVertice(v1);
+        for (int i = 0; i < arestasG.A(); i++) {
+            int v1 = arestasG.v1(i), v2 = arestasG.v2(i);
             if (!uf.conectado(v1, v2)) {
                 System.err.println("Não é uma árvore geradora mínima");
                 return false;
@@ -126,11 +236,11 @@ public class AlgoritmoMSTKruskalGrafoPonderado {
             }
             
             // checa que é aresta de peso min em corte de cruzamento
-            for (Aresta f : G.arestas()) {
-                int x = f.umVertice(), y = f.outroVertice(x);
+            for (int i = 0; i < arestasG.A(); i++) {
+                int x = arestasG.v1(i), y = arestasG.v2(i);
                 if (!uf.conectado(x, y)) {
-                    if (f.peso() < a.peso()) {
-                        System.err.println("Aresta " + f + " viola as condições de corte de optimização");
+                    if (arestasG.peso(i) < a.peso() - tolerancia * Math.abs(a.peso())) {
+                        System.err.println("Aresta " + arestasG.aresta(i) + " viola as condições de corte de optimização");
                         return false;
                     }
                 }
@@ -142,13 +252,40 @@ public class AlgoritmoMSTKruskalGrafoPonderado {
     }
 
 
+    /**
+     * Compara o tempo de cada modo de ordenação em um grafo aleatório com V vértices e A arestas.
+     * @param V o número de vértices
+     * @param A o número de arestas
+     */
+    private static void benchmark(int V, int A) {
+        Random random = new Random(42);
+        GrafoPonderado G = new GrafoPonderado(V);
+        for (int v = 1; v < V; v++) {                  // árvore aleatória para garantir conectividade
+            G.addAresta(new Aresta(random.nextInt(v), v, random.nextDouble()));
+        }
+        for (int i = V - 1; i < A; i++) {
+            G.addAresta(new Aresta(random.nextInt(V), random.nextInt(V), random.nextDouble()));
+        }
+        for (Ordenacao o : Ordenacao.values()) {
+            long inicio = System.nanoTime();
+            AlgoritmoMSTKruskalGrafoPonderado kruskal = new AlgoritmoMSTKruskalGrafoPonderado(G, o);
+            long fim = System.nanoTime();
+            System.out.printf("%-20s %8d ms  peso %.5f\n", o, (fim - inicio) / 1000000, kruskal.peso());
+        }
+    }
+
     /**
      * Testa a classe AlgoritmoMSTKruskalGrafoPonderado
      */
     public static void main(String[] args) {
+        if (args[0].equals("benchmark")) {
+            benchmark(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+            return;
+        }
         In in = new In(args[0]);
-        GrafoPonderado G = new GrafoPonderado(in);
-        AlgoritmoMSTKruskalGrafoPonderado kruskal = new AlgoritmoMSTKruskalGrafoPonderado(G);
+        boolean precisaoSimples = args.length > 1 && args[1].equals("float");
+        GrafoPonderado G = new GrafoPonderado(in, precisaoSimples ? NucleoGrafo.Pesos.FLOAT : NucleoGrafo.Pesos.DOUBLE);
+        AlgoritmoMSTKruskalGrafoPonderado kruskal = new AlgoritmoMSTKruskalGrafoPonderado(G, precisaoSimples ? Ordenacao.CHAVES_FLOAT : Ordenacao.FILA_PRIORIDADE);
         for (Aresta a : kruskal.arestas()) {
             System.out.println(a);
         }
@@ -1,12 +1,14 @@
 /******************************************************************************
  *  Compilação:         javac AlgoritmoMSTPrimGrafoPonderado.java
- *  Execução:           java AlgoritmoMSTPrimGrafoPonderado dados.txt
- *  Dependências:       GrafoPonderado.java Aresta.java Fila.java
- *                      FilaPrioridadeMinIndex.java UF.java In.java
+ *  Execução:           java AlgoritmoMSTPrimGrafoPonderado dados.txt [float]
+ *  Dependências:       GrafoPonderado.java Aresta.java Fila.java AcessoGrafo.java CursorAdjacencia.java
+ *                      FilaPrioridadeMinIndex.java FilaPrioridadeMinIndexFloat.java UF.java In.java
+ *                      VetorArestas.java
  *  Arquivo de dados:   GrafoPonderado1.txt
  *  Link dos dados:     https://drive.google.com/open?id=0B3q56TwNCeXoenFyMnlzX2ZyXzg
  *
- *  Calcula a árvore geradora mínima (MTS) utilizando o algoritmo de Prim.
+ *  Calcula a árvore geradora mínima (MTS) utilizando o algoritmo de Prim. Com a opção
+ *  float, os pesos são guardados e comparados em precisão simples.
  *
  *  %  java AlgoritmoMSTPrimGrafoPonderado GrafoPonderado1.txt
  *  7-1 0.19000
@@ -21,34 +23,63 @@
 
 package br.edu.ifes.si.tpa;
 
+import java.util.Arrays;
+
 /**
  * Esta classe implementa a geração da árvore geradora mínima utilizando o algoritmo de Prim.
+ * Em precisão simples os pesos das arestas candidatas são guardados e comparados como float, também nas chaves
+ * da fila de prioridade ({@link FilaPrioridadeMinIndexFloat}, sem um objeto Double por chave); arestas cujos
+ * pesos diferem por menos de 2<sup>-22</sup> (relativo) podem então ser escolhidas em qualquer ordem, e essa
+ * é a tolerância usada na verificação das condições de corte.
  * Para documentação adicional, acesse:
  * <a href="http://algs4.cs.princeton.edu/43mst">Section 4.3</a>
  * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
  */
 public class AlgoritmoMSTPrimEagerGrafoPonderado {
     private static final double FLOATING_POINT_EPSILON = 1E-12;
+    private static final double TOLERANCIA_FLOAT = 2 * Math.ulp(1.0f);
 
     private Aresta[] arestaPara;         // arestaPara[v] = aresta mais curta do vértice da árvore para vértice não-árvore
     private double[] distanciaPara;      // distanciaPara[v] = peso de tal aresta mais curta
+    private float[] distanciaParaFloat;  // substitui distanciaPara em precisão simples (distanciaPara fica null)
     private boolean[] marcado;           // marcado[v] = verdadeiro se v está na árvore, falso, caso contrário
     private FilaPrioridadeMinIndex<Double> pq;
+    private FilaPrioridadeMinIndexFloat pqFloat;   // substitui pq em precisão simples (pq fica null)
 
     /**
      * Calcula a árvore geradora mínima do grafo ponderado.
-     * @param G o grafo ponderado
+     * @param G o grafo ponderado, em qualquer representação
+     * @throws IllegalArgumentException se G é direcionado
+     */
+    public AlgoritmoMSTPrimEagerGrafoPonderado(AcessoGrafo G) {
+        this(G, false);
+    }
+
+    /**
+     * Calcula a árvore geradora mínima do grafo ponderado, comparando os pesos em precisão
+     * simples (float) ou dupla (double).
+     * @param G o grafo ponderado, em qualquer representação
+     * @param precisaoSimples verdadeiro para guardar e comparar os pesos das arestas candidatas como float
+     * @throws IllegalArgumentException se G é direcionado
      */
-    public AlgoritmoMSTPrimEagerGrafoPonderado(GrafoPonderado G) {
+    public AlgoritmoMSTPrimEagerGrafoPonderado(AcessoGrafo G, boolean precisaoSimples) {
+        if (G.direcionado()) throw new IllegalArgumentException("a árvore geradora mínima é definida apenas para grafos não direcionados");
+        CursorAdjacencia c = G.cursor();
         arestaPara = new Aresta[G.V()];
-        distanciaPara = new double[G.V()];
         marcado = new boolean[G.V()];
-        pq = new FilaPrioridadeMinIndex<Double>(G.V());
-        for (int v = 0; v < G.V(); v++)
-            distanciaPara[v] = Double.POSITIVE_INFINITY;
+        if (precisaoSimples) {
+            pqFloat = new FilaPrioridadeMinIndexFloat(G.V());
+            distanciaParaFloat = new float[G.V()];
+            Arrays.fill(distanciaParaFloat, Float.POSITIVE_INFINITY);
+        } else {
+            pq = new FilaPrioridadeMinIndex<Double>(G.V());
+            distanciaPara = new double[G.V()];
+            for (int v = 0; v < G.V(); v++)
+                distanciaPara[v] = Double.POSITIVE_INFINITY;
+        }
 
         for (int v = 0; v < G.V(); v++)      // executa Prim à partir de cada vértice para obter a árvore geradora mínima
-            if (!marcado[v]) prim(G, v);     
+            if (!marcado[v]) prim(c, v);     
 
         // checa condições de otimização
         assert checa(G);
@@ -56,34 +87,50 @@ public class AlgoritmoMSTPrimEagerGrafoPonderado {
 
     /**
      * Método para rodar o algoritmo prim no grafo G, iniciado do vértice de origem vo
-     * @param G o grafo
+     * @param c o cursor sobre as listas de adjacências do grafo
      * @param vo o vértice origem
      */
-    private void prim(GrafoPonderado G, int vo) {
-        distanciaPara[vo] = 0.0;
-        pq.insere(vo, distanciaPara[vo]);
-        while (!pq.isEmpty()) {
-            int v = pq.removeMin();
-            visita(G, v);
+    private void prim(CursorAdjacencia c, int vo) {
+        if (distanciaParaFloat != null) {
+            distanciaParaFloat[vo] = 0.0f;
+            pqFloat.insere(vo, 0.0f);
+            while (!pqFloat.isEmpty()) {
+                visita(c, pqFloat.removeMin());
+            }
+        } else {
+            distanciaPara[vo] = 0.0;
+            pq.insere(vo, 0.0);
+            while (!pq.isEmpty()) {
+                visita(c, pq.removeMin());
+            }
         }
     }
 
     /**
-     * Método para visitar um determinado vértice v
-     * @param G o grafo
+     * Método para visitar um determinado vértice v; o objeto Aresta só é criado quando a distância melhora
+     * @param c o cursor sobre as listas de adjacências do grafo
      * @param v o vértice
      */
-    private void visita(GrafoPonderado G, int v) {
+    private void visita(CursorAdjacencia c, int v) {
         marcado[v] = true;
-        for (Aresta a : G.adj(v)) {
-            int v2 = a.outroVertice(v);
+        c.posiciona(v);
+        while (c.temProxima()) {
+            int v2 = c.proxima();
             if (marcado[v2]) continue;         // v1-v2 é uma aresta obsoleta
-            if (a.peso() < distanciaPara[v2]) {
-                distanciaPara[v2] = a.peso();
-                arestaPara[v2] = a;
-                if (pq.contem(v2)) pq.diminuiChave(v2, distanciaPara[v2]);
-                else               pq.insere(v2, distanciaPara[v2]);
+            if (distanciaParaFloat != null) {
+                float p = (float) c.peso();
+                if (!(p < distanciaParaFloat[v2])) continue;
+                distanciaParaFloat[v2] = p;
+                if (pqFloat.contem(v2)) pqFloat.diminuiChave(v2, p);
+                else                    pqFloat.insere(v2, p);
+            } else {
+                double peso = c.peso();
+                if (!(peso < distanciaPara[v2])) continue;
+                distanciaPara[v2] = peso;
+                if (pq.contem(v2)) pq.diminuiChave(v2, peso);
+                else               pq.insere(v2, peso);
             }
+            arestaPara[v2] = new Aresta(v, v2, c.peso());
         }
     }
 
@@ -119,7 +166,9 @@ public class AlgoritmoMSTPrimEagerGrafoPonderado {
      * @param G o grafo ponderado
      * @return verdadeiro se as condições forem satisfeitas, e falso, caso contrário
      */
-    private boolean checa(GrafoPonderado G) {
+    private boolean checa(AcessoGrafo G) {
+        VetorArestas arestasG = VetorArestas.de(G);
+        double tolerancia = distanciaParaFloat != null ? TOLERANCIA_FLOAT : 0.0;
 
         // checa peso
         double pesoTotal = 0.0;
@@ -143,8 +192,8 @@ public class AlgoritmoMSTPrimEagerGrafoPonderado {
         }
 
         // chega que é uma árvores geradora
-        for (Aresta a : G.arestas()) {
-            int v1 = a.umVertice(), v2 = a.outroVertice(v1);
+        for (int i = 0; i < arestasG.A(); i++) {
+            int v1 = arestasG.v1(i), v2 = arestasG.v2(i);
             if (!uf.conectado(v1, v2)) {
                 System.err.println("Não é uma árvore geradora mínima");
                 return false;
@@ -162,11 +211,11 @@ public class AlgoritmoMSTPrimEagerGrafoPonderado {
             }
 
             // checa que é aresta de peso min em corte de cruzamento
-            for (Aresta f : G.arestas()) {
-                int x = f.umVertice(), y = f.outroVertice(x);
+            for (int i = 0; i < arestasG.A(); i++) {
+                int x = arestasG.v1(i), y = arestasG.v2(i);
                 if (!uf.conectado(x, y)) {
-                    if (f.peso() < a.peso()) {
-                        System.err.println("Aresta " + f + " viola as condições de corte de optimização");
+                    if (arestasG.peso(i) < a.peso() - tolerancia * Math.abs(a.peso())) {
+                        System.err.println("Aresta " + arestasG.aresta(i) + " viola as condições de corte de optimização");
                         return false;
                     }
                 }
@@ -182,8 +231,9 @@ public class AlgoritmoMSTPrimEagerGrafoPonderado {
      */
     public static void main(String[] args) {
         In in = new In(args[0]);
-        GrafoPonderado G = new GrafoPonderado(in);
-        AlgoritmoMSTPrimEagerGrafoPonderado prim = new AlgoritmoMSTPrimEagerGrafoPonderado(G);
+        boolean precisaoSimples = args.length > 1 && args[1].equals("float");
+        GrafoPonderado G = new GrafoPonderado(in, precisaoSimples ? NucleoGrafo.Pesos.FLOAT : NucleoGrafo.Pesos.DOUBLE);
+        AlgoritmoMSTPrimEagerGrafoPonderado prim = new AlgoritmoMSTPrimEagerGrafoPonderado(G, precisaoSimples);
         for (Aresta a : prim.arestas()) {
             System.out.println(a);
         }
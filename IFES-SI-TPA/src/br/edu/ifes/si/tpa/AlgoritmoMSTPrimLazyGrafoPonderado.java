@@ -1,8 +1,8 @@
 /******************************************************************************
  *  Compilação:         javac AlgoritmoMSTPrimLazyGrafoPonderado.java
  *  Execução:           java AlgoritmoMSTPrimLazyGrafoPonderado dados.txt
- *  Dependências:       GrafoPonderado.java Aresta.java Fila.java
- *                      FilaPrioridadeMinIndex.java UF.java In.java
+ *  Dependências:       GrafoPonderado.java Aresta.java Fila.java AcessoGrafo.java CursorAdjacencia.java
+ *                      FilaPrioridadeMinIndex.java UF.java In.java VetorArestas.java
  *  Arquivo de dados:   GrafoPonderado1.txt
  *  Link dos dados:     https://drive.google.com/open?id=0B3q56TwNCeXoenFyMnlzX2ZyXzg
  *
@@ -17,10 +17,15 @@
  *  2-6 0.40000
  *  0-7 0.16000
  *  1.81000
+ *
+ *  %  java AlgoritmoMSTPrimLazyGrafoPonderado GrafoPonderado1.txt limitado
+ *  (mesma árvore, com a fila de prioridade limitada a O(V) entradas)
  ******************************************************************************/
 
 package br.edu.ifes.si.tpa;
 
+import java.util.Arrays;
+
 /**
  * Esta classe implementa a geração da árvore geradora mínima utilizando o algoritmo de Prim na versão preguiçosa (lazy).
  * Para documentação adicional, acesse:
@@ -34,17 +39,75 @@ public class AlgoritmoMSTPrimLazyGrafoPonderado {
     private Fila<Aresta> mst;             // arestas na árvore geradora mínima (MST)
     private boolean[] marcado;            // marcado[v] = verdadeiro se o vértice v está na árvore
     private FilaPrioridadeMin<Aresta> pq; // arestas com um dos vértices na árvore
+    private int tamanhoMaximoFila;        // maior número de entradas na fila de prioridade durante a execução
+    private CursorAdjacencia cursor;      // cursor sobre as listas de adjacências do grafo
+
+    // modo com memória limitada
+    private static final double LIMITE_OBSOLETAS = 0.5; // fração de entradas obsoletas que dispara a compactação
+    private static final int CANDIDATAS_POR_VERTICE = 32; // arestas guardadas na primeira escolha e, em média, por vértice
+    private int[][] destinos;             // destinos[v][0 .. quantas[v]-1] = próximas candidatas de v, por peso
+    private double[][] pesos;             // pesos[v][i] = peso da candidata destinos[v][i]
+    private int[][] indices;              // indices[v][i] = posição da candidata destinos[v][i] na lista de v
+    private int[] quantas;                // quantas[v] = número de candidatas guardadas de v
+    private boolean[] completas;          // completas[v] = as candidatas guardadas são todas as que restam a v
+    private long guardadas;               // posições alocadas em destinos, somadas sobre os vértices
+    private long limiteGuardadas;         // máximo de guardadas: 2 * CANDIDATAS_POR_VERTICE * V
+    private int[] posicao;                // posicao[v] = índice da aresta candidata de v em destinos[v]
+    private int[] alvos;                  // alvos[w] = número de entradas na fila cuja aresta candidata leva a w
+    private int obsoletas;                // número de entradas na fila cuja aresta candidata leva a um vértice da árvore
+    private FilaPrioridadeMin<Integer> fila; // vértices da árvore, ordenados pelo peso da sua aresta candidata
 
     /**
      * Calcula a árvore geradora mínima do grafo ponderado.
-     * @param G o grafo ponderado
+     * @param G o grafo ponderado, em qualquer representação
+     * @throws IllegalArgumentException se G é direcionado
+     */
+    public AlgoritmoMSTPrimLazyGrafoPonderado(AcessoGrafo G) {
+        this(G, false);
+    }
+
+    /**
+     * Calcula a árvore geradora mínima do grafo ponderado.
+     * No modo com memória limitada a fila de prioridade guarda apenas a próxima aresta candidata de cada
+     * vértice da árvore, de forma que ela nunca passa de V entradas. As entradas cujo destino já entrou na
+     * árvore são contadas e, quando passam de LIMITE_OBSOLETAS da fila, a fila é reconstruída sem elas.
+     * Cada vértice da árvore guarda, em vetores primitivos, uma janela das suas arestas mais leves que levam
+     * para fora da árvore, em ordem de peso; quando elas acabam, a lista do vértice é percorrida de novo para
+     * escolher as seguintes, com uma janela duas vezes maior. A primeira janela tem CANDIDATAS_POR_VERTICE
+     * arestas, e as janelas só crescem enquanto o total guardado não passa de 2 * CANDIDATAS_POR_VERTICE
+     * entradas por vértice do grafo. A memória extra fica assim em O(V) entradas, sem objetos Aresta além
+     * dos da árvore, e a lista de um vértice v é percorrida O(log grau(v)) vezes enquanto houver memória
+     * para a janela dobrar.
+     * @param G o grafo ponderado, em qualquer representação
+     * @param memoriaLimitada verdadeiro para usar o modo com memória limitada
+     * @throws IllegalArgumentException se G é direcionado
      */
-    public AlgoritmoMSTPrimLazyGrafoPonderado(GrafoPonderado G) {
+    public AlgoritmoMSTPrimLazyGrafoPonderado(AcessoGrafo G, boolean memoriaLimitada) {
+        if (G.direcionado()) throw new IllegalArgumentException("a árvore geradora mínima é definida apenas para grafos não direcionados");
         mst = new Fila<Aresta>();
-        pq = new FilaPrioridadeMin<Aresta>();
+        cursor = G.cursor();
         marcado = new boolean[G.V()];
-        for (int v = 0; v < G.V(); v++)     // executa Prim à partir de cada vértice para obter a árvore geradora mínima
-            if (!marcado[v]) prim(G, v);    
+        if (memoriaLimitada) {
+            destinos = new int[G.V()][];
+            pesos = new double[G.V()][];
+            indices = new int[G.V()][];
+            quantas = new int[G.V()];
+            completas = new boolean[G.V()];
+            limiteGuardadas = 2L * CANDIDATAS_POR_VERTICE * G.V();
+            posicao = new int[G.V()];
+            alvos = new int[G.V()];
+            fila = new FilaPrioridadeMin<Integer>((x, y) -> Double.compare(pesoCandidata(x), pesoCandidata(y)));
+        }
+        else {
+            pq = new FilaPrioridadeMin<Aresta>();
+        }
+        for (int v = 0; v < G.V(); v++) {   // executa Prim à partir de cada vértice para obter a árvore geradora mínima
+            if (marcado[v]) continue;
+            if (memoriaLimitada) primLimitado(G, v);
+            else                 prim(G, v);
+        }
+
+        cursor = null;
 
         // checa condições de otimização
         assert checa(G);
@@ -55,7 +118,7 @@ public class AlgoritmoMSTPrimLazyGrafoPonderado {
      * @param G o grafo
      * @param vo o vértice origem
      */
-    private void prim(GrafoPonderado G, int vo) {
+    private void prim(AcessoGrafo G, int vo) {
         visita(G, vo);
         while (!pq.isEmpty()) {                               // melhor parar quando MST V-1 arestas
             Aresta a = pq.delMin();                           // menor aresta no pq
@@ -74,11 +137,204 @@ public class AlgoritmoMSTPrimLazyGrafoPonderado {
      * @param G o grafo ponderado
      * @param vo o vértice a ser visitado
      */
-    private void visita(GrafoPonderado G, int v) {
+    private void visita(AcessoGrafo G, int v) {
+        assert !marcado[v];
+        marcado[v] = true;
+        cursor.posiciona(v);
+        while (cursor.temProxima()) {
+            int w = cursor.proxima();
+            if (!marcado[w]) pq.insere(new Aresta(v, w, cursor.peso()));
+        }
+        tamanhoMaximoFila = Math.max(tamanhoMaximoFila, pq.tamanho());
+    }
+
+    /**
+     * Método para rodar o algoritmo prim com memória limitada, iniciado do vértice de origem vo
+     * @param G o grafo
+     * @param vo o vértice origem
+     */
+    private void primLimitado(AcessoGrafo G, int vo) {
+        visitaLimitado(G, vo);
+        while (!fila.isEmpty()) {
+            int v = fila.delMin();                            // vértice com a menor aresta candidata
+            int w = destinos[v][posicao[v]];
+            alvos[w]--;
+            if (marcado[w]) {                                 // entrada obsoleta: w já está na árvore
+                obsoletas--;
+                if (avanca(G, v)) fila.insere(v);
+                continue;
+            }
+            Aresta a = new Aresta(v, w, pesoCandidata(v));
+            mst.enfileira(a);                                 // adiciona aresta 'a' em MST
+            peso += a.peso();
+            if (avanca(G, v)) fila.insere(v);
+            visitaLimitado(G, w);                             // w torna-se parte da árvore
+            if (obsoletas > LIMITE_OBSOLETAS * fila.tamanho()) compacta(G);
+        }
+    }
+
+    /**
+     * Marca v, escolhe as suas primeiras arestas candidatas e insere v na fila com a mais leve
+     * @param G o grafo ponderado
+     * @param v o vértice a ser visitado
+     */
+    private void visitaLimitado(AcessoGrafo G, int v) {
         assert !marcado[v];
         marcado[v] = true;
-        for (Aresta e : G.adj(v))
-            if (!marcado[e.outroVertice(v)]) pq.insere(e);
+        obsoletas += alvos[v];                                // entradas que levavam a v tornaram-se obsoletas
+        seleciona(G, v, Double.NEGATIVE_INFINITY, -1);
+        if (avanca(G, v)) fila.insere(v);
+        tamanhoMaximoFila = Math.max(tamanhoMaximoFila, fila.tamanho());
+    }
+
+    /**
+     * Guarda a janela de arestas mais leves de v que levam para fora da árvore e vêm depois da aresta
+     * (pesoAnterior, indiceAnterior) na ordem por peso e, entre pesos iguais, por posição na lista de v,
+     * que é a ordem de uma ordenação estável da lista por peso. A janela tem CANDIDATAS_POR_VERTICE
+     * posições na primeira escolha e dobra a cada nova escolha, se cabe em limiteGuardadas. As arestas são
+     * escolhidas com um heap máximo limitado ao tamanho da janela, ordenado no final (heapsort), em tempo
+     * O(grau(v) log janela).
+     * @param G o grafo ponderado
+     * @param v o vértice da árvore
+     * @param pesoAnterior o peso da última candidata já guardada de v
+     * @param indiceAnterior a posição na lista de v da última candidata já guardada (-1 se nenhuma)
+     */
+    private void seleciona(AcessoGrafo G, int v, double pesoAnterior, int indiceAnterior) {
+        int atual = destinos[v] == null ? 0 : destinos[v].length;
+        int capacidade = atual == 0 ? CANDIDATAS_POR_VERTICE : (int) Math.min(2L * atual, Integer.MAX_VALUE);
+        capacidade = Math.min(capacidade, G.grau(v));
+        if (atual > 0 && guardadas + capacidade - atual > limiteGuardadas) capacidade = atual;
+        if (destinos[v] == null || capacidade != atual) {
+            guardadas += capacidade - atual;
+            destinos[v] = new int[capacidade];
+            pesos[v] = new double[capacidade];
+            indices[v] = new int[capacidade];
+        }
+        int[] d = destinos[v];
+        double[] p = pesos[v];
+        int[] ind = indices[v];
+        int n = 0;                                            // candidatas guardadas
+        int restantes = 0;                                    // candidatas encontradas
+        cursor.posiciona(v);
+        for (int i = 0; cursor.temProxima(); i++) {
+            int w = cursor.proxima();
+            double peso = cursor.peso();
+            if (marcado[w]) continue;
+            int ordem = Double.compare(peso, pesoAnterior);
+            if (ordem < 0 || (ordem == 0 && i <= indiceAnterior)) continue;
+            restantes++;
+            if (n < d.length) {                               // heap ainda não cheio: sobe a nova aresta
+                int j = n++;
+                for (; j > 0 && maior(p, ind, (j - 1) / 2, peso, i) < 0; j = (j - 1) / 2) {
+                    d[j] = d[(j - 1) / 2];
+                    p[j] = p[(j - 1) / 2];
+                    ind[j] = ind[(j - 1) / 2];
+                }
+                d[j] = w;
+                p[j] = peso;
+                ind[j] = i;
+            }
+            else if (n > 0 && Double.compare(peso, p[0]) < 0) {  // mais leve que a mais pesada guardada
+                desce(d, p, ind, 0, n, w, peso, i);
+            }
+        }
+        for (int k = n - 1; k > 0; k--) {                     // heapsort: a mais pesada vai para o fim
+            int w = d[k];
+            double peso = p[k];
+            int i = ind[k];
+            d[k] = d[0];
+            p[k] = p[0];
+            ind[k] = ind[0];
+            desce(d, p, ind, 0, k, w, peso, i);
+        }
+        quantas[v] = n;
+        completas[v] = restantes == n;
+        posicao[v] = -1;
+    }
+
+    // compara a candidata j do heap com a aresta (peso, i), por peso e depois por posição na lista
+    private static int maior(double[] p, int[] ind, int j, double peso, int i) {
+        int ordem = Double.compare(p[j], peso);
+        return ordem != 0 ? ordem : Integer.compare(ind[j], i);
+    }
+
+    // coloca a aresta (w, peso, i) na posição j do heap máximo d[0 .. n-1] e a desce até a sua posição
+    private static void desce(int[] d, double[] p, int[] ind, int j, int n, int w, double peso, int i) {
+        while (2 * j + 1 < n) {
+            int filho = 2 * j + 1;
+            if (filho + 1 < n && maior(p, ind, filho + 1, p[filho], ind[filho]) > 0) filho++;
+            if (maior(p, ind, filho, peso, i) <= 0) break;
+            d[j] = d[filho];
+            p[j] = p[filho];
+            ind[j] = ind[filho];
+            j = filho;
+        }
+        d[j] = w;
+        p[j] = peso;
+        ind[j] = i;
+    }
+
+    // peso da aresta candidata atual do vértice v
+    private double pesoCandidata(int v) {
+        return pesos[v][posicao[v]];
+    }
+
+    /**
+     * Avança a aresta candidata de v até a próxima que leva a um vértice fora da árvore, escolhendo
+     * novas candidatas na lista de v quando as guardadas acabam.
+     * @param G o grafo ponderado
+     * @param v o vértice da árvore
+     * @return verdadeiro se v ainda tem aresta candidata; falso se as suas arestas acabaram
+     */
+    private boolean avanca(AcessoGrafo G, int v) {
+        while (true) {
+            int p = posicao[v] + 1;
+            while (p < quantas[v] && marcado[destinos[v][p]]) p++;
+            if (p < quantas[v]) {
+                posicao[v] = p;
+                alvos[destinos[v][p]]++;
+                return true;
+            }
+            if (completas[v]) {
+                guardadas -= destinos[v].length;
+                destinos[v] = null;                           // libera as candidatas já esgotadas
+                pesos[v] = null;
+                indices[v] = null;
+                return false;
+            }
+            int ultima = quantas[v] - 1;
+            seleciona(G, v, pesos[v][ultima], indices[v][ultima]);
+        }
+    }
+
+    /**
+     * Reconstrói a fila sem entradas obsoletas: cada vértice cuja candidata leva a um vértice da
+     * árvore avança para a próxima candidata válida ou sai da fila. A fila é refeita em tempo linear.
+     * @param G o grafo ponderado
+     */
+    private void compacta(AcessoGrafo G) {
+        Integer[] vertices = new Integer[fila.tamanho()];
+        int n = 0;
+        while (!fila.isEmpty()) {
+            int v = fila.delMin();
+            int w = destinos[v][posicao[v]];
+            if (marcado[w]) {
+                alvos[w]--;
+                obsoletas--;
+                if (!avanca(G, v)) continue;
+            }
+            vertices[n++] = v;
+        }
+        assert obsoletas == 0;
+        fila = new FilaPrioridadeMin<Integer>(Arrays.copyOf(vertices, n), (x, y) -> Double.compare(pesoCandidata(x), pesoCandidata(y)));
+    }
+
+    /**
+     * Retorna o maior número de entradas na fila de prioridade durante a execução.
+     * @return o maior número de entradas na fila de prioridade
+     */
+    public int tamanhoMaximoFila() {
+        return tamanhoMaximoFila;
     }
         
     /**
@@ -102,7 +358,8 @@ public class AlgoritmoMSTPrimLazyGrafoPonderado {
      * @param G o grafo ponderado
      * @return verdadeiro se as condições forem satisfeitas, e falso, caso contrário
      */
-    private boolean checa(GrafoPonderado G) {
+    private boolean checa(AcessoGrafo G) {
+        VetorArestas arestasG = VetorArestas.de(G);
 
         // checa peso
         double pesoTotal = 0.0;
@@ -126,8 +383,8 @@ public class AlgoritmoMSTPrimLazyGrafoPonderado {
         }
 
         // chega que é uma árvores geradora
-        for (Aresta a : G.arestas()) {
-            int v1 = a.umVertice(), v2 = a.outroVertice(v1);
+        for (int i = 0; i < arestasG.A(); i++) {
+            int v1 = arestasG.v1(i), v2 = arestasG.v2(i);
             if (!uf.conectado(v1, v2)) {
                 System.err.println("Não é uma árvore geradora mínima");
                 return false;
@@ -145,11 +402,11 @@ public class AlgoritmoMSTPrimLazyGrafoPonderado {
             }
 
             // checa que é aresta de peso min em corte de cruzamento
-            for (Aresta f : G.arestas()) {
-                int x = f.umVertice(), y = f.outroVertice(x);
+            for (int i = 0; i < arestasG.A(); i++) {
+                int x = arestasG.v1(i), y = arestasG.v2(i);
                 if (!uf.conectado(x, y)) {
-                    if (f.peso() < a.peso()) {
-                        System.err.println("Aresta " + f + " viola as condições de corte de optimização");
+                    if (arestasG.peso(i) < a.peso()) {
+                        System.err.println("Aresta " + arestasG.aresta(i) + " viola as condições de corte de optimização");
                         return false;
                     }
                 }
@@ -167,7 +424,8 @@ public class AlgoritmoMSTPrimLazyGrafoPonderado {
     public static void main(String[] args) {
         In in = new In(args[0]);
         GrafoPonderado G = new GrafoPonderado(in);
-        AlgoritmoMSTPrimLazyGrafoPonderado prim = new AlgoritmoMSTPrimLazyGrafoPonderado(G);
+        boolean memoriaLimitada = args.length > 1 && args[1].equals("limitado");
+        AlgoritmoMSTPrimLazyGrafoPonderado prim = new AlgoritmoMSTPrimLazyGrafoPonderado(G, memoriaLimitada);
         for (Aresta a : prim.arestas()) {
             System.out.println(a);
         }
@@ -2,7 +2,7 @@
  * ****************************************************************************
  *  Compilação:         javac AlgoritmoSPBellmanFord.java
  *  Execução:           java AlgoritmoSPBellmanFord dados.txt vo
- *  Dependências:       DigrafoPonderado.java Aresta.java
+ *  Dependências:       DigrafoPonderado.java Aresta.java AcessoGrafo.java CursorAdjacencia.java
  *  Arquivo de dados:   DigrafoPonderado1.txt
  *  Link dos dados:
  *
@@ -45,11 +45,12 @@ public class AlgoritmoSPBellmanFord {
      * Calcula a árvore de caminho mais curto de vo para todos os outros
      * vértices no digrafo de arestas ponderadas
      *
-     * @param G digrafo de arestas ponderadas (digrafo sem ciclos negativos)
+     * @param G digrafo de arestas ponderadas (digrafo sem ciclos negativos), em qualquer representação
      * @param vo o vértice de origem
      * @throws IllegalArgumentException vo menor que 0 ou maior que V-1
      */
-    public AlgoritmoSPBellmanFord(DigrafoPonderado G, int vo) {
+    public AlgoritmoSPBellmanFord(AcessoGrafo G, int vo) {
+        CursorAdjacencia c = G.cursor();
         distanciaPara = new double[G.V()];
         arestaPara = new Aresta[G.V()];
 
@@ -62,35 +63,38 @@ public class AlgoritmoSPBellmanFord {
         //relaxamento
         for (int i = 0; i < G.V(); i++) {
             for (int v = 0; v < G.V(); v++) {
-                for (Aresta a : G.adj(v)) {
-                    relaxa(a);
+                c.posiciona(v);
+                while (c.temProxima()) {
+                    int w = c.proxima();
+                    relaxa(v, w, c.peso());
                 }
             }
         }
 
         //checagem de ciclos negativos
-        for (Aresta a : G.arestas()) {
-            int v1 = a.getV1();
-            int v2 = a.getV2();
-
-            if (distanciaPara[v2] > distanciaPara[v1] + a.peso()) {
-                System.out.println("Ciclo negativo");
-                cicloNegativo = true;
-                return;
+        for (int v1 = 0; v1 < G.V(); v1++) {
+            c.posiciona(v1);
+            while (c.temProxima()) {
+                int v2 = c.proxima();
+
+                if (distanciaPara[v2] > distanciaPara[v1] + c.peso()) {
+                    System.out.println("Ciclo negativo");
+                    cicloNegativo = true;
+                    return;
+                }
             }
         }
 
     }
 
     /**
-     * Relaxa vértice v e insere na fila as respectivas extremidades da aresta
-     * relaxada se houver alteração
+     * Relaxa a aresta v1->v2; o objeto Aresta só é criado quando a distância
+     * melhora
      */
-    private void relaxa(Aresta a) {
-        int v1 = a.getV1(), v2 = a.getV2();
-        if (distanciaPara[v2] > distanciaPara[v1] + a.peso()) {
-            distanciaPara[v2] = distanciaPara[v1] + a.peso();
-            arestaPara[v2] = a;
+    private void relaxa(int v1, int v2, double peso) {
+        if (distanciaPara[v2] > distanciaPara[v1] + peso) {
+            distanciaPara[v2] = distanciaPara[v1] + peso;
+            arestaPara[v2] = new Aresta(v1, v2, peso);
         }
     }
 
@@ -2,6 +2,7 @@
  *  Compilação:         javac AlgoritmoSPBellmanFord.java
  *  Execução:           java AlgoritmoSPBellmanFord dados.txt vo
  *  Dependências:       DigrafoPonderado.java Aresta.java AlgoritmoCicloDirecionado.java Fila.java
+ *                      AcessoGrafo.java CursorAdjacencia.java
  *  Arquivo de dados:   DigrafoPonderado1.txt
  *  Link dos dados:
  *
@@ -41,14 +42,17 @@ public class AlgoritmoSPBellmanFordFila {
     private Fila<Integer> fila;          // fila de vértices para relaxar
     private int custo;                   // número de chamadas para relaxa()
     private Iterable<Aresta> ciclo;      // ciclo negativo (não null, se não existir)
+    private boolean procuraCiclo;        // falso se não há pesos negativos, e portanto ciclos negativos
 
     /**
      * Calcula a árvore de caminho mais curto de vo para todos os outros vértices no digrafo de arestas ponderadas
-     * @param G digrafo de arestas ponderadas (digrafo sem ciclos negativos)
+     * @param G digrafo de arestas ponderadas (digrafo sem ciclos negativos), em qualquer representação
      * @param vo o vértice de origem
      * @throws IllegalArgumentException vo menor que 0 ou maior que V-1
      */
-    public AlgoritmoSPBellmanFordFila(DigrafoPonderado G, int vo) {
+    public AlgoritmoSPBellmanFordFila(AcessoGrafo G, int vo) {
+        CursorAdjacencia c = G.cursor();
+        procuraCiclo = G.temPesoNegativo();   // sem pesos negativos não há ciclo negativo a procurar
         distanciaPara  = new double[G.V()];
         arestaPara  = new Aresta[G.V()];
         naFila = new boolean[G.V()];
@@ -63,28 +67,30 @@ public class AlgoritmoSPBellmanFordFila {
         while (!fila.isEmpty() && !temCicloNegativo()) {
             int v = fila.desenfileira();
             naFila[v] = false;
-            relaxa(G, v);
+            relaxa(G, c, v);
         }
 
         assert checar(G, vo);
     }
 
     /**
-     * Relaxa vértice v e insere na fila as respectivas extremidades da aresta relaxada se houver alteração
+     * Relaxa vértice v e insere na fila as respectivas extremidades da aresta relaxada se houver alteração;
+     * as arestas são lidas com o cursor c e o objeto Aresta só é criado quando a distância melhora
      */
-    private void relaxa(DigrafoPonderado G, int v1) {
-        for (Aresta a : G.adj(v1)) {
-            int v2 = a.getV2();
-            if (distanciaPara[v2] > distanciaPara[v1] + a.peso()) {
-                distanciaPara[v2] = distanciaPara[v1] + a.peso();
-                arestaPara[v2] = a;
+    private void relaxa(AcessoGrafo G, CursorAdjacencia c, int v1) {
+        c.posiciona(v1);
+        while (c.temProxima()) {
+            int v2 = c.proxima();
+            if (distanciaPara[v2] > distanciaPara[v1] + c.peso()) {
+                distanciaPara[v2] = distanciaPara[v1] + c.peso();
+                arestaPara[v2] = new Aresta(v1, v2, c.peso());
                 if (!naFila[v2]) {
                     fila.enfileira(v2);
                     naFila[v2] = true;
                 }
             }
             
-            if (custo++ % G.V() == 0) {
+            if (custo++ % G.V() == 0 && procuraCiclo) {
                 encontraCicloNegativo();
                 if (temCicloNegativo()) return;  // encontrou um ciclo negativo
             }
@@ -167,7 +173,7 @@ public class AlgoritmoSPBellmanFordFila {
      * @param vo o vértice origem
      * @return verdadeiro caso sejam satisfeitas as condições
      */
-    private boolean checar(DigrafoPonderado G, int vo) {
+    private boolean checar(AcessoGrafo G, int vo) {
 
         // tem um ciclo negativo
         if (temCicloNegativo()) {
@@ -198,11 +204,13 @@ public class AlgoritmoSPBellmanFordFila {
             }
 
             // checar se todas as arestas a = v->v2 satisfazem distanciaPara[v2] <= distanciaPara[v] + a.peso()
+            CursorAdjacencia c = G.cursor();
             for (int v = 0; v < G.V(); v++) {
-                for (Aresta a : G.adj(v)) {
-                    int w = a.getV2();
-                    if (distanciaPara[v] + a.peso() < distanciaPara[w]) {
-                        System.err.println("aresta " + a + " não relaxada");
+                c.posiciona(v);
+                while (c.temProxima()) {
+                    int w = c.proxima();
+                    if (distanciaPara[v] + c.peso() < distanciaPara[w]) {
+                        System.err.println("aresta " + new Aresta(v, w, c.peso()) + " não relaxada");
                         return false;
                     }
                 }
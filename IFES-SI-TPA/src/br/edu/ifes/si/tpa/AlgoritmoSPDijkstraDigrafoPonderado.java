@@ -1,13 +1,16 @@
 /**
  * ****************************************************************************
  *  Compilação:         javac AlgoritmoSPDijkstraDigrafoPonderado.java
- *  Execução:           java AlgoritmoSPDijkstraDigrafoPonderado dados.txt vo
- *  Dependências:       DigrafoPonderado.java FilaPrioridadeMinIndex.java Pilha.java Aresta.java
+ *  Execução:           java AlgoritmoSPDijkstraDigrafoPonderado dados.txt vo [float]
+ *  Dependências:       DigrafoPonderado.java FilaPrioridadeMinIndex.java FilaPrioridadeMinIndexFloat.java
+ *                      Pilha.java Aresta.java
+ *                      AcessoGrafo.java CursorAdjacencia.java
  *  Arquivo de dados:   DigrafoPonderado1.txt
  *  Link dos dados:
  *
  *  Algoritmo Dijkstra. Calcula a árvore que representa o menor caminho de um vértice de origem para todos os outros.
- *  Assume todos os pesos das arestas como não negativos.
+ *  Assume todos os pesos das arestas como não negativos. Com a opção float, os pesos
+ *  são guardados e as distâncias calculadas em precisão simples.
  *
  *  % java AlgoritmoSPDijkstraDigrafoPonderado DigrafoPonderado1.txt 0
  *  0 to 0 (0.00)
@@ -22,45 +25,87 @@
  */
 package br.edu.ifes.si.tpa;
 
+import java.util.Arrays;
+
 /**
  * Esta classe implementa o caminho mínimo utilizando o algoritmo de Dijkstra.
+ * Em precisão simples as distâncias são guardadas e somadas como float, o que reduz à metade a memória do
+ * vetor de distâncias, e as chaves da fila de prioridade ficam em um float[] ({@link FilaPrioridadeMinIndexFloat})
+ * em vez de um objeto Double por chave; cada distância pode então diferir da calculada em double por um erro relativo de
+ * até 2<sup>-22</sup> por aresta relaxada, e é essa a tolerância usada na verificação das condições de otimização.
  * Para documentação adicional, acesse:
  * <a href="http://algs4.cs.princeton.edu/44sp">Section 4.4</a>
  * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
  */
 public class AlgoritmoSPDijkstraDigrafoPonderado {
+    private static final double TOLERANCIA_FLOAT = 2 * Math.ulp(1.0f); // erro relativo de uma soma em float
 
     private double[] distanciaPara;          // distanciaPara[v1] = menor distância entre de um vértice origem e v1: vo->v1
+    private float[] distanciaParaFloat;      // substitui distanciaPara em precisão simples (distanciaPara fica null)
     private Aresta[] arestaPara;           // arestaPara[v1] = última aresta no menor caminho vo->v1
     private FilaPrioridadeMinIndex<Double> filaPrioridade; // fila de prioridade dos vértices
+    private FilaPrioridadeMinIndexFloat filaPrioridadeFloat; // substitui filaPrioridade em precisão simples
 
     /**
-     * Calcula o caminho mais curto a partir de um vértice origem para cada um dos outros vértices do dígrafo ponderado
+     * Calcula o caminho mais curto a partir de um vértice origem para cada um dos outros vértices do dígrafo
+     * ponderado, em qualquer representação, percorrendo as arestas com um único cursor
      * @param G o dígrafo ponderado
      * @param vo o vértice origem
      * @throws IllegalArgumentException se a aresta tiver peso negativo
      */
-    public AlgoritmoSPDijkstraDigrafoPonderado(DigrafoPonderado G, int vo) {
-        for (Aresta a : G.arestas()) {
-            if (a.peso() < 0) {
-                throw new IllegalArgumentException("aresta " + a + " tem peso negativo");
+    public AlgoritmoSPDijkstraDigrafoPonderado(AcessoGrafo G, int vo) {
+        this(G, vo, false);
+    }
+
+    /**
+     * Calcula o caminho mais curto a partir de um vértice origem para cada um dos outros vértices do dígrafo
+     * ponderado, com as distâncias em precisão simples (float) ou dupla (double)
+     * @param G o dígrafo ponderado
+     * @param vo o vértice origem
+     * @param precisaoSimples verdadeiro para guardar e somar as distâncias como float
+     * @throws IllegalArgumentException se a aresta tiver peso negativo
+     */
+    public AlgoritmoSPDijkstraDigrafoPonderado(AcessoGrafo G, int vo, boolean precisaoSimples) {
+        CursorAdjacencia c = G.cursor();
+        if (G.temPesoNegativo()) {           // em tempo constante nos grafos que mantêm essa informação
+            for (int v = 0; v < G.V(); v++) {
+                c.posiciona(v);
+                while (c.temProxima()) {
+                    int w = c.proxima();
+                    if (c.peso() < 0) {
+                        throw new IllegalArgumentException("aresta " + new Aresta(v, w, c.peso()) + " tem peso negativo");
+                    }
+                }
             }
         }
 
-        distanciaPara = new double[G.V()];
         arestaPara = new Aresta[G.V()];
-        for (int v = 0; v < G.V(); v++) {
-            distanciaPara[v] = Double.POSITIVE_INFINITY;
+        if (precisaoSimples) {
+            distanciaParaFloat = new float[G.V()];
+            Arrays.fill(distanciaParaFloat, Float.POSITIVE_INFINITY);
+            distanciaParaFloat[vo] = 0.0f;
+        } else {
+            distanciaPara = new double[G.V()];
+            for (int v = 0; v < G.V(); v++) {
+                distanciaPara[v] = Double.POSITIVE_INFINITY;
+            }
+            distanciaPara[vo] = 0.0;
         }
-        distanciaPara[vo] = 0.0;
 
         // relaxa vertices em ordem de acordo com a distância de s
-        filaPrioridade = new FilaPrioridadeMinIndex<Double>(G.V());
-        filaPrioridade.insere(vo, distanciaPara[vo]);
-        while (!filaPrioridade.isEmpty()) {
-            int v = filaPrioridade.removeMin();
-            for (Aresta a : G.adj(v)) {
-                relaxa(a);
+        if (precisaoSimples) {
+            filaPrioridadeFloat = new FilaPrioridadeMinIndexFloat(G.V());
+            filaPrioridadeFloat.insere(vo, 0.0f);
+        } else {
+            filaPrioridade = new FilaPrioridadeMinIndex<Double>(G.V());
+            filaPrioridade.insere(vo, 0.0);
+        }
+        while (precisaoSimples ? !filaPrioridadeFloat.isEmpty() : !filaPrioridade.isEmpty()) {
+            int v = precisaoSimples ? filaPrioridadeFloat.removeMin() : filaPrioridade.removeMin();
+            c.posiciona(v);
+            while (c.temProxima()) {
+                int w = c.proxima();
+                relaxa(v, w, c.peso());
             }
         }
 
@@ -68,22 +113,33 @@ public class AlgoritmoSPDijkstraDigrafoPonderado {
         assert checa(G, vo);
     }
 
-    // 
     /**
-     * Relaxa aresta e atualiza a filaPrioridade, se alterada
-     * @param a a aresta
+     * Relaxa a aresta v1->v2 lida de um cursor; o objeto Aresta só é criado quando a distância melhora
+     * @param v1 o vértice de origem da aresta
+     * @param v2 o vértice de destino da aresta
+     * @param peso o peso da aresta
      */
-    private void relaxa(Aresta a) {
-        int v1 = a.getV1(), v2 = a.getV2();
-        if (distanciaPara[v2] > distanciaPara[v1] + a.peso()) {
-            distanciaPara[v2] = distanciaPara[v1] + a.peso();
-            arestaPara[v2] = a;
+    private void relaxa(int v1, int v2, double peso) {
+        if (distanciaParaFloat != null) {
+            float d = distanciaParaFloat[v1] + (float) peso;
+            if (!(distanciaParaFloat[v2] > d)) return;
+            distanciaParaFloat[v2] = d;
+            if (filaPrioridadeFloat.contem(v2)) {
+                filaPrioridadeFloat.diminuiChave(v2, d);
+            } else {
+                filaPrioridadeFloat.insere(v2, d);
+            }
+        } else {
+            double distancia = distanciaPara[v1] + peso;
+            if (!(distanciaPara[v2] > distancia)) return;
+            distanciaPara[v2] = distancia;
             if (filaPrioridade.contem(v2)) {
-                filaPrioridade.diminuiChave(v2, distanciaPara[v2]);
+                filaPrioridade.diminuiChave(v2, distancia);
             } else {
-                filaPrioridade.insere(v2, distanciaPara[v2]);
+                filaPrioridade.insere(v2, distancia);
             }
         }
+        arestaPara[v2] = new Aresta(v1, v2, peso);
     }
 
     /**
@@ -92,7 +148,7 @@ public class AlgoritmoSPDijkstraDigrafoPonderado {
      * @return retorna o tamanho do menor caminho do vértice origem para o vértice v, ou Double.POSITIVE_INFINITYse não existir caminho
      */
     public double distanciaPara(int v) {
-        return distanciaPara[v];
+        return distanciaParaFloat != null ? distanciaParaFloat[v] : distanciaPara[v];
     }
 
     /**
@@ -101,7 +157,7 @@ public class AlgoritmoSPDijkstraDigrafoPonderado {
      * @return verdadeiro se existe um caminho do vértice origem para o vértice v, ou falso, caso contrário
      */
     public boolean temCaminhoPara(int v) {
-        return distanciaPara[v] < Double.POSITIVE_INFINITY;
+        return distanciaPara(v) < Double.POSITIVE_INFINITY;
     }
 
     /**
@@ -123,24 +179,31 @@ public class AlgoritmoSPDijkstraDigrafoPonderado {
     // checa optimality conditions:
     // (i)  for all arestas e:            distanciaPara[e.to()] <= distanciaPara[e.from()] + e.peso()
     // (ii) for all edge e on the SPT: distanciaPara[e.to()] == distanciaPara[e.from()] + e.peso()
+    // em precisão simples, ambas com tolerância relativa TOLERANCIA_FLOAT sobre distanciaPara[e.from()] + e.peso()
     /**
      * Checar as condições de otimização
      * @param G o dígrafo ponderado
      * @param vo o vértice origem
      * @return verdadeiro caso sejam satisfeitas as condições
      */
-    private boolean checa(DigrafoPonderado G, int vo) {
+    private boolean checa(AcessoGrafo G, int vo) {
+        CursorAdjacencia c = G.cursor();
+        double tolerancia = distanciaParaFloat != null ? TOLERANCIA_FLOAT : 0.0;
 
         // checa se as arestas possuem peso negativa
-        for (Aresta a : G.arestas()) {
-            if (a.peso() < 0) {
-                System.err.println("detectada aresta com peso negativo");
-                return false;
+        for (int v = 0; v < G.V(); v++) {
+            c.posiciona(v);
+            while (c.temProxima()) {
+                c.proxima();
+                if (c.peso() < 0) {
+                    System.err.println("detectada aresta com peso negativo");
+                    return false;
+                }
             }
         }
 
         // checa se distanciaPara[vo] e arestaPara[vo] são consistentes
-        if (distanciaPara[vo] != 0.0 || arestaPara[vo] != null) {
+        if (distanciaPara(vo) != 0.0 || arestaPara[vo] != null) {
             System.err.println("distanciaPara[vo] e arestaPara[vo] inconsistent");
             return false;
         }
@@ -148,7 +211,7 @@ public class AlgoritmoSPDijkstraDigrafoPonderado {
             if (v == vo) {
                 continue;
             }
-            if (arestaPara[v] == null && distanciaPara[v] != Double.POSITIVE_INFINITY) {
+            if (arestaPara[v] == null && distanciaPara(v) != Double.POSITIVE_INFINITY) {
                 System.err.println("distanciaPara[] e arestaPara[] inconsistente");
                 return false;
             }
@@ -156,10 +219,12 @@ public class AlgoritmoSPDijkstraDigrafoPonderado {
 
         // checa se todas as arestas a = v1->v2 satisfazem distanciaPara[v2] <= distanciaPara[v1] + a.peso()
         for (int v = 0; v < G.V(); v++) {
-            for (Aresta a : G.adj(v)) {
-                int v2 = a.getV2();
-                if (distanciaPara[v] + a.peso() < distanciaPara[v2]) {
-                    System.err.println("aresta " + a + " não relaxada");
+            c.posiciona(v);
+            while (c.temProxima()) {
+                int v2 = c.proxima();
+                double distancia = distanciaPara(v) + c.peso();
+                if (distancia + tolerancia * distancia < distanciaPara(v2)) {
+                    System.err.println("aresta " + new Aresta(v, v2, c.peso()) + " não relaxada");
                     return false;
                 }
             }
@@ -175,7 +240,8 @@ public class AlgoritmoSPDijkstraDigrafoPonderado {
             if (v2 != a.getV2()) {
                 return false;
             }
-            if (distanciaPara[v1] + a.peso() != distanciaPara[v2]) {
+            double distancia = distanciaPara(v1) + a.peso();
+            if (Math.abs(distancia - distanciaPara(v2)) > tolerancia * distancia) {
                 System.err.println("edge " + a + " on shortest path not tight");
                 return false;
             }
@@ -188,13 +254,14 @@ public class AlgoritmoSPDijkstraDigrafoPonderado {
      */
     public static void main(String[] args) {
         In in = new In(args[0]);
-        DigrafoPonderado G = new DigrafoPonderado(in);
+        boolean precisaoSimples = args.length > 2 && args[2].equals("float");
+        DigrafoPonderado G = new DigrafoPonderado(in, precisaoSimples ? NucleoGrafo.Pesos.FLOAT : NucleoGrafo.Pesos.DOUBLE);
         int vo = Integer.parseInt(args[1]);
 
         System.out.println(G);
         
         // calcula o menor caminho
-        AlgoritmoSPDijkstraDigrafoPonderado sp = new AlgoritmoSPDijkstraDigrafoPonderado(G, vo);
+        AlgoritmoSPDijkstraDigrafoPonderado sp = new AlgoritmoSPDijkstraDigrafoPonderado(G, vo, precisaoSimples);
 
         // imprimi o menor caminho
         for (int t = 0; t < G.V(); t++) {
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ *  Compilação:        javac CarregadorGrafoParalelo.java
+ *  Execução:          java CarregadorGrafoParalelo dados.txt
+ *  Dependências:      DigrafoPonderado.java DigrafoPonderadoCSR.java ConstrutorGrafo.java In.java
+ *  Arquivos de dados: DigrafoPonderado1.txt
+ *  Link dos dados:    https://drive.google.com/open?id=0B3q56TwNCeXoc08yZ0JHZW1aZWs
+ *
+ *  Carrega um dígrafo ponderado de um arquivo texto interpretando trechos do
+ *  arquivo em paralelo.
+ *
+ *  % java CarregadorGrafoParalelo DigrafoPonderado1.txt
+ *  8 15
+ *  0: 0-4 0.38000  0-2 0.26000
+ *  1: 1-3 0.29000
+ *  2: 2-7 0.34000
+ *  3: 3-6 0.52000
+ *  4: 4-5 0.35000  4-7 0.37000
+ *  5: 5-4 0.35000  5-7 0.28000  5-1 0.32000
+ *  6: 6-2 0.40000  6-0 0.58000  6-4 0.93000
+ *  7: 7-5 0.28000  7-3 0.39000
+ *
+ ******************************************************************************/
+
+package br.edu.ifes.si.tpa;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Esta classe implementa a carga paralela de arquivos de dados no formato de {@link DigrafoPonderado}
+ * (V, A e uma aresta "v1 v2 peso" por linha). O cabeçalho é lido normalmente; a seção das arestas é
+ * mapeada em memória e dividida em blocos, alguns por núcleo, cujos limites são ajustados para o
+ * início de uma linha. Cada bloco é interpretado por uma tarefa do {@link ForkJoinPool} em um lote próprio
+ * de um {@link ConstrutorGrafo}, com o mesmo tokenizador de {@link In}. Os blocos são depois reunidos, na
+ * ordem do arquivo, em um {@link DigrafoPonderadoCSR} ou em um {@link DigrafoPonderado} idêntico ao construído
+ * por DigrafoPonderado(In). Como em DigrafoPonderado(In), apenas as A primeiras arestas são usadas.
+ * Para documentação adicional, acesse:
+ * <a href="http://algs4.cs.princeton.edu/44sp/">Section 4.4</a> of
+ * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class CarregadorGrafoParalelo {
+    private static final long TAMANHO_MAXIMO_BLOCO = Integer.MAX_VALUE;  // limite de um mapeamento
+    private static final long TAMANHO_MINIMO_BLOCO = 1 << 20;            // abaixo disso não compensa dividir
+    private static final int BLOCOS_POR_NUCLEO = 4;                      // equilibra blocos mais lentos
+
+    private int V;                            // número de vértices
+    private int A;                            // número de arestas
+    private ConstrutorGrafo construtor;       // arestas lidas, um lote por bloco na ordem do arquivo
+
+    /**
+     * Lê o arquivo utilizando o pool comum do ForkJoin.
+     * @param  arquivo o arquivo de dados
+     * @throws IllegalArgumentException se o arquivo não puder ser lido ou se V ou A for negativo
+     * @throws IndexOutOfBoundsException caso extremidades não estejam entre 0 e V-1
+     * @throws NoSuchElementException se o arquivo tiver menos de A arestas
+     */
+    public CarregadorGrafoParalelo(File arquivo) {
+        this(arquivo, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Lê o arquivo interpretando os blocos no pool informado.
+     * @param  arquivo o arquivo de dados
+     * @param  pool o pool em que os blocos são interpretados
+     * @throws IllegalArgumentException se o arquivo não puder ser lido ou se V ou A for negativo
+     * @throws IndexOutOfBoundsException caso extremidades não estejam entre 0 e V-1
+     * @throws NoSuchElementException se o arquivo tiver menos de A arestas
+     */
+    public CarregadorGrafoParalelo(File arquivo, ForkJoinPool pool) {
+        final MappedByteBuffer[] blocos;
+        try {
+            RandomAccessFile raf = new RandomAccessFile(arquivo, "r");
+            try {
+                FileChannel canal = raf.getChannel();
+                In.ByteTokenizer cabecalho = new In.ByteTokenizer(canal);
+                V = cabecalho.readInt();
+                A = cabecalho.readInt();
+                if (V < 0) throw new IllegalArgumentException("Número de vértices no dígrafo deve ser não negativo");
+                if (A < 0) throw new IllegalArgumentException("Número de arestas deve ser não negativo");
+                blocos = divide(canal, cabecalho.position(), pool.getParallelism() * BLOCOS_POR_NUCLEO);
+            }
+            finally {
+                raf.close();   // os mapeamentos continuam válidos depois de fechar o canal
+            }
+        }
+        catch (IOException ioe) {
+            throw new IllegalArgumentException("Não foi possível ler " + arquivo, ioe);
+        }
+
+        int b = blocos.length;
+        construtor = new ConstrutorGrafo(V, 0);
+        ConstrutorGrafo.Lote[] lotes = new ConstrutorGrafo.Lote[b];
+        for (int i = 0; i < b; i++)
+            lotes[i] = construtor.lote(Math.max(16, blocos[i].remaining() / 16));   // estimativa: cerca de 16 bytes por linha
+        pool.submit(() -> IntStream.range(0, b).parallel().forEach(i -> interpreta(lotes[i], blocos[i]))).join();
+
+        // usa apenas as A primeiras arestas, na ordem do arquivo
+        int restantes = A;
+        for (int i = 0; i < b; i++) {
+            lotes[i].trunca(restantes);
+            restantes -= lotes[i].tamanho();
+        }
+        if (restantes > 0) throw new NoSuchElementException("arquivo tem " + (A - restantes) + " de " + A + " arestas");
+    }
+
+    /**
+     * Divide a seção [inicio, fim do arquivo) em até n blocos mapeados em memória, cada um começando no
+     * início de uma linha, com no mínimo TAMANHO_MINIMO_BLOCO e no máximo TAMANHO_MAXIMO_BLOCO bytes
+     * (exceto por ajustes de linha).
+     */
+    private static MappedByteBuffer[] divide(FileChannel canal, long inicio, int n) throws IOException {
+        long tamanho = canal.size() - inicio;
+        long blocos = Math.max((tamanho + TAMANHO_MAXIMO_BLOCO - 1) / TAMANHO_MAXIMO_BLOCO,
+                               Math.min(n, (tamanho + TAMANHO_MINIMO_BLOCO - 1) / TAMANHO_MINIMO_BLOCO));
+        List<MappedByteBuffer> lista = new ArrayList<MappedByteBuffer>();
+        ByteBuffer sonda = ByteBuffer.allocate(4096);
+        long de = inicio;
+        for (long k = 1; k <= blocos && de < canal.size(); k++) {
+            long ate = k == blocos ? canal.size() : proximaLinha(canal, inicio + tamanho * k / blocos, sonda);
+            // a divisão pelo número de blocos garante no máximo TAMANHO_MAXIMO_BLOCO, salvo linhas enormes
+            if (ate - de > TAMANHO_MAXIMO_BLOCO) throw new IllegalArgumentException("linha com mais de " + TAMANHO_MAXIMO_BLOCO + " bytes");
+            if (ate > de) lista.add(canal.map(FileChannel.MapMode.READ_ONLY, de, ate - de));
+            de = Math.max(de, ate);
+        }
+        return lista.toArray(new MappedByteBuffer[lista.size()]);
+    }
+
+    // posição do primeiro byte depois do próximo '\n' a partir de p (ou o fim do arquivo)
+    private static long proximaLinha(FileChannel canal, long p, ByteBuffer sonda) throws IOException {
+        long tamanho = canal.size();
+        while (p < tamanho) {
+            sonda.clear();
+            int lidos = canal.read(sonda, p);
+            if (lidos <= 0) break;
+            for (int i = 0; i < lidos; i++)
+                if (sonda.get(i) == '\n') return p + i + 1;
+            p += lidos;
+        }
+        return tamanho;
+    }
+
+    // interpreta as arestas do bloco no lote próprio do bloco
+    private static void interpreta(ConstrutorGrafo.Lote lote, MappedByteBuffer bloco) {
+        In.ByteTokenizer in = new In.ByteTokenizer(bloco);
+        while (!in.isEmpty()) {
+            int v1 = in.readInt();
+            int v2 = in.readInt();
+            lote.addAresta(v1, v2, in.readDouble());
+        }
+    }
+
+    /**
+     * Retorna o número de vértices do dígrafo lido.
+     * @return o número de vértices do dígrafo lido
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Retorna o número de arestas do dígrafo lido.
+     * @return o número de arestas do dígrafo lido
+     */
+    public int A() {
+        return A;
+    }
+
+    /**
+     * Ordena as arestas lidas por (v1, v2), reúne as arestas paralelas e, opcionalmente, descarta os laços,
+     * como em {@link ConstrutorGrafo#canonicaliza}; as arestas do dígrafo montado depois ficam nessa ordem.
+     * @param  combinacao a forma de combinar os pesos das arestas paralelas
+     * @param  removeLacos verdadeiro para descartar os laços
+     * @return o número de arestas removidas
+     */
+    public int canonicaliza(ConstrutorGrafo.Combinacao combinacao, boolean removeLacos) {
+        int removidas = construtor.canonicaliza(combinacao, removeLacos, true);
+        A -= removidas;
+        return removidas;
+    }
+
+    /**
+     * Monta o dígrafo lido no formato CSR (ordenação por contagem sobre a origem das arestas).
+     * @return o dígrafo no formato CSR
+     */
+    public DigrafoPonderadoCSR csr() {
+        return construtor.csr();
+    }
+
+    /**
+     * Monta o dígrafo lido com listas de adjacências, com as arestas na ordem do arquivo.
+     * @return o dígrafo ponderado
+     */
+    public DigrafoPonderado digrafoPonderado() {
+        return construtor.digrafoPonderado();
+    }
+
+    /**
+     * Testa a classe CarregadorGrafoParalelo.
+     */
+    public static void main(String[] args) {
+        CarregadorGrafoParalelo carregador = new CarregadorGrafoParalelo(new File(args[0]));
+        System.out.println(carregador.digrafoPonderado());
+    }
+
+}
@@ -0,0 +1,500 @@
+/*******************************************************************************
+ *  Compilação:        javac ConstrutorGrafo.java
+ *  Execução:          java ConstrutorGrafo dados.txt [menor|maior|soma]
+ *                     java ConstrutorGrafo benchmark V A threads
+ *  Dependências:      NucleoGrafo.java Digrafo.java DigrafoPonderado.java Grafo.java
+ *                     GrafoPonderado.java DigrafoPonderadoCSR.java In.java
+ *  Arquivos de dados: DigrafoPonderado1.txt
+ *  Link dos dados:    https://drive.google.com/open?id=0B3q56TwNCeXoc08yZ0JHZW1aZWs
+ *
+ *  Acumula arestas em vetores primitivos, possivelmente a partir de várias
+ *  threads, e monta de uma vez qualquer uma das representações de grafo.
+ *
+ *  % java ConstrutorGrafo DigrafoPonderado1.txt
+ *  8 15
+ *  0: 0-4 0.38000  0-2 0.26000
+ *  1: 1-3 0.29000
+ *  2: 2-7 0.34000
+ *  3: 3-6 0.52000
+ *  4: 4-5 0.35000  4-7 0.37000
+ *  5: 5-4 0.35000  5-7 0.28000  5-1 0.32000
+ *  6: 6-2 0.40000  6-0 0.58000  6-4 0.93000
+ *  7: 7-5 0.28000  7-3 0.39000
+ *
+ *  % java ConstrutorGrafo DigrafoPonderado1.txt menor
+ *  removidas 0 arestas (0 laços, 0 paralelas)
+ *  8 15
+ *  0: 0-2 0.26000  0-4 0.38000
+ *  1: 1-3 0.29000
+ *  2: 2-7 0.34000
+ *  3: 3-6 0.52000
+ *  4: 4-5 0.35000  4-7 0.37000
+ *  5: 5-1 0.32000  5-4 0.35000  5-7 0.28000
+ *  6: 6-0 0.58000  6-2 0.40000  6-4 0.93000
+ *  7: 7-3 0.39000  7-5 0.28000
+ *
+ *  % java ConstrutorGrafo benchmark 1000000 10000000 4
+ *  (compara addAresta() aresta por aresta com o construtor alimentado por 4 threads)
+ *
+ ******************************************************************************/
+
+package br.edu.ifes.si.tpa;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Esta classe implementa a construção em lote de grafos. As arestas são acumuladas em lotes de vetores
+ * primitivos (origem, destino e peso, este só alocado quando aparece um peso diferente de 0), sem nenhum
+ * objeto {@link Aresta}. Cada thread que produz arestas obtém o seu próprio {@link Lote} com lote(), e os
+ * lotes são preenchidos sem sincronização; addAresta() do construtor usa um lote próprio, o primeiro.
+ * <p>
+ * A montagem conta o grau de cada vértice, reserva listas de adjacências com exatamente esse tamanho e as
+ * preenche em uma passada, em tempo O(V + A). Para o formato CSR, a soma de prefixos dos graus dá a posição
+ * de cada lista nos vetores de destinos e pesos. As arestas entram no grafo na ordem dos lotes (na ordem em
+ * que foram criados) e, em cada lote, na ordem em que foram adicionadas: o resultado é o mesmo de chamar
+ * addAresta() do grafo nessa ordem. A montagem não deve ocorrer enquanto outras threads adicionam arestas.
+ * <p>
+ * Antes da montagem, canonicaliza() pode ordenar as arestas por (v1, v2), com duas passadas de ordenação
+ * por contagem (radix sort LSD, em tempo O(V + A)), reunir as arestas paralelas em uma só, com o menor,
+ * o maior ou a soma dos pesos, e descartar os laços.
+ * Para documentação adicional, acesse:
+ * <a href="http://algs4.cs.princeton.edu/41graph">Section 4.1</a> of
+ * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class ConstrutorGrafo {
+    private static final int CAPACIDADE_INICIAL = 16;
+
+    private final int V;                                   // número de vértices
+    private final List<Lote> lotes = new ArrayList<Lote>(); // lotes na ordem de criação
+    private Lote principal;                                // lote usado por addAresta()
+    private int lacosRemovidos;                            // laços descartados por canonicaliza()
+    private int paralelasRemovidas;                        // arestas reunidas a outras por canonicaliza()
+
+    /**
+     * Forma de combinar os pesos de arestas paralelas em canonicaliza().
+     * MENOR e MAIOR mantêm o menor e o maior peso; SOMA soma os pesos.
+     */
+    public enum Combinacao { MENOR, MAIOR, SOMA }
+
+    /**
+     * Lote de arestas preenchido por uma única thread.
+     */
+    public static class Lote {
+        private final int V;          // número de vértices
+        private int[] origem;         // origem[i] = origem da i-ésima aresta
+        private int[] destino;        // destino[i] = destino da i-ésima aresta
+        private double[] peso;        // peso[i] = peso da i-ésima aresta (null enquanto todos os pesos são 0)
+        private int n;                // número de arestas no lote
+
+        private Lote(int V, int capacidade) {
+            this.V = V;
+            origem = new int[Math.max(1, capacidade)];
+            destino = new int[origem.length];
+        }
+
+        private Lote(int V, int[] origem, int[] destino, double[] peso, int n) {
+            this.V = V;
+            this.origem = origem;
+            this.destino = destino;
+            this.peso = peso;
+            this.n = n;
+        }
+
+        /**
+         * Adiciona a aresta v1-v2 com peso 0 no lote.
+         * @param  v1 a origem da aresta
+         * @param  v2 o destino da aresta
+         * @throws IndexOutOfBoundsException caso extremidades não estejam entre 0 e V-1
+         */
+        public void addAresta(int v1, int v2) {
+            addAresta(v1, v2, 0.0);
+        }
+
+        /**
+         * Adiciona a aresta v1-v2 com o peso dado no lote.
+         * @param  v1 a origem da aresta
+         * @param  v2 o destino da aresta
+         * @param  p o peso da aresta
+         * @throws IndexOutOfBoundsException caso extremidades não estejam entre 0 e V-1
+         */
+        public void addAresta(int v1, int v2, double p) {
+            if (v1 < 0 || v1 >= V) throw new IndexOutOfBoundsException("vértice " + v1 + " não está entre 0 e " + (V-1));
+            if (v2 < 0 || v2 >= V) throw new IndexOutOfBoundsException("vértice " + v2 + " não está entre 0 e " + (V-1));
+            if (n == origem.length) redimensiona(Math.max(16, 2 * n));   // o lote de canonicaliza() pode estar vazio
+            origem[n] = v1;
+            destino[n] = v2;
+            if (p != 0) {
+                if (peso == null) peso = new double[origem.length];
+                peso[n] = p;
+            }
+            n++;
+        }
+
+        private void redimensiona(int capacidade) {
+            int[] o = new int[capacidade];
+            int[] d = new int[capacidade];
+            System.arraycopy(origem, 0, o, 0, n);
+            System.arraycopy(destino, 0, d, 0, n);
+            origem = o;
+            destino = d;
+            if (peso != null) {
+                double[] p = new double[capacidade];
+                System.arraycopy(peso, 0, p, 0, n);
+                peso = p;
+            }
+        }
+
+        /**
+         * Retorna o número de arestas no lote.
+         * @return o número de arestas no lote
+         */
+        public int tamanho() {
+            return n;
+        }
+
+        /**
+         * Descarta as arestas a partir da posição n.
+         */
+        void trunca(int n) {
+            if (n < this.n) this.n = n;
+        }
+
+        private double peso(int i) {
+            return peso == null ? 0.0 : peso[i];
+        }
+    }
+
+    /**
+     * Inicializa um construtor de grafos com V vértices e nenhuma aresta.
+     * @param  V o número de vértices
+     * @throws IllegalArgumentException se V < 0
+     */
+    public ConstrutorGrafo(int V) {
+        this(V, CAPACIDADE_INICIAL);
+    }
+
+    /**
+     * Inicializa um construtor de grafos com V vértices, com espaço para A arestas em addAresta()
+     * antes de redimensionar.
+     * @param  V o número de vértices
+     * @param  A o número previsto de arestas
+     * @throws IllegalArgumentException se V ou A for negativo
+     */
+    public ConstrutorGrafo(int V, int A) {
+        if (V < 0) throw new IllegalArgumentException("Número de vértices no grafo deve ser não negativo");
+        if (A < 0) throw new IllegalArgumentException("Número de arestas deve ser não negativo");
+        this.V = V;
+        principal = lote(A);
+    }
+
+    /**
+     * Retorna o número de vértices.
+     * @return o número de vértices
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Retorna o número de arestas em todos os lotes.
+     * @return o número de arestas acumuladas
+     */
+    public synchronized int A() {
+        long A = 0;
+        for (Lote lote : lotes) A += lote.n;
+        if (A > Integer.MAX_VALUE) throw new IllegalArgumentException("mais de " + Integer.MAX_VALUE + " arestas");
+        return (int) A;
+    }
+
+    /**
+     * Adiciona a aresta v1-v2 com o peso dado no lote do próprio construtor. Não deve ser chamado por
+     * mais de uma thread; as demais threads devem usar lotes próprios.
+     * @param  v1 a origem da aresta
+     * @param  v2 o destino da aresta
+     * @param  peso o peso da aresta
+     * @throws IndexOutOfBoundsException caso extremidades não estejam entre 0 e V-1
+     */
+    public void addAresta(int v1, int v2, double peso) {
+        principal.addAresta(v1, v2, peso);
+    }
+
+    /**
+     * Cria um novo lote, cujas arestas entram no grafo depois das arestas dos lotes criados antes dele.
+     * @return o novo lote
+     */
+    public Lote lote() {
+        return lote(CAPACIDADE_INICIAL);
+    }
+
+    /**
+     * Cria um novo lote com espaço para capacidade arestas antes de redimensionar.
+     * @param  capacidade o número previsto de arestas do lote
+     * @return o novo lote
+     */
+    public synchronized Lote lote(int capacidade) {
+        Lote lote = new Lote(V, capacidade);
+        lotes.add(lote);
+        return lote;
+    }
+
+    /**
+     * Ordena as arestas acumuladas por (v1, v2) e reúne as arestas paralelas em uma só, combinando os pesos
+     * da forma dada; opcionalmente, descarta os laços. Para grafos não direcionados cada aresta é antes
+     * orientada como v1-v2 com v1 < v2, de modo que v-w e w-v são paralelas. As arestas passam a formar um
+     * único lote, que também recebe as próximas chamadas a addAresta(); os lotes obtidos antes deixam de fazer
+     * parte do construtor. Não deve ser chamado enquanto outras threads adicionam arestas.
+     * @param  combinacao a forma de combinar os pesos das arestas paralelas
+     * @param  removeLacos verdadeiro para descartar os laços
+     * @param  direcionado falso para considerar as arestas não direcionadas
+     * @return o número de arestas removidas (laços descartados mais arestas reunidas a outras)
+     */
+    public synchronized int canonicaliza(Combinacao combinacao, boolean removeLacos, boolean direcionado) {
+        int n = A();
+        boolean ponderado = false;
+        for (Lote lote : lotes) ponderado |= lote.peso != null;
+
+        // copia as arestas, orientando as não direcionadas e descartando os laços
+        int[] origem = new int[n];
+        int[] destino = new int[n];
+        double[] peso = ponderado ? new double[n] : null;
+        int m = 0;
+        for (Lote lote : lotes) {
+            for (int i = 0; i < lote.n; i++) {
+                int v1 = lote.origem[i], v2 = lote.destino[i];
+                if (v1 == v2 && removeLacos) continue;
+                if (!direcionado && v1 > v2) { int t = v1; v1 = v2; v2 = t; }
+                origem[m] = v1;
+                destino[m] = v2;
+                if (ponderado) peso[m] = lote.peso(i);
+                m++;
+            }
+        }
+        lacosRemovidos = n - m;
+
+        // radix sort LSD: ordenação estável por v2 e depois por v1
+        int[] o = new int[m], d = new int[m];
+        double[] p = ponderado ? new double[m] : null;
+        distribui(destino, origem, destino, peso, o, d, p, m);
+        distribui(o, o, d, p, origem, destino, peso, m);
+
+        // reúne as arestas paralelas, agora consecutivas
+        int k = 0;
+        for (int i = 0; i < m; i++) {
+            if (k > 0 && origem[i] == origem[k - 1] && destino[i] == destino[k - 1]) {
+                if (ponderado) {
+                    if      (combinacao == Combinacao.MENOR) peso[k - 1] = Math.min(peso[k - 1], peso[i]);
+                    else if (combinacao == Combinacao.MAIOR) peso[k - 1] = Math.max(peso[k - 1], peso[i]);
+                    else                                     peso[k - 1] += peso[i];
+                }
+                continue;
+            }
+            origem[k] = origem[i];
+            destino[k] = destino[i];
+            if (ponderado) peso[k] = peso[i];
+            k++;
+        }
+        paralelasRemovidas = m - k;
+
+        lotes.clear();
+        principal = new Lote(V, origem, destino, peso, k);
+        lotes.add(principal);
+        return n - k;
+    }
+
+    // copia as m arestas (origem, destino, peso) para (o, d, p) em ordem estável de chave[], por contagem
+    private void distribui(int[] chave, int[] origem, int[] destino, double[] peso, int[] o, int[] d, double[] p, int m) {
+        int[] inicio = new int[V + 1];
+        for (int i = 0; i < m; i++)
+            inicio[chave[i] + 1]++;
+        for (int v = 0; v < V; v++)
+            inicio[v + 1] += inicio[v];
+        for (int i = 0; i < m; i++) {
+            int j = inicio[chave[i]]++;
+            o[j] = origem[i];
+            d[j] = destino[i];
+            if (p != null) p[j] = peso[i];
+        }
+    }
+
+    /**
+     * Retorna o número de laços descartados pela última chamada a canonicaliza().
+     * @return o número de laços descartados
+     */
+    public int lacosRemovidos() {
+        return lacosRemovidos;
+    }
+
+    /**
+     * Retorna o número de arestas reunidas a outras pela última chamada a canonicaliza().
+     * @return o número de arestas paralelas removidas
+     */
+    public int paralelasRemovidas() {
+        return paralelasRemovidas;
+    }
+
+    // preenche G, ainda sem arestas, com listas de exatamente o tamanho necessário
+    private <G extends NucleoGrafo> G monta(G grafo) {
+        List<Lote> lotes;
+        synchronized (this) {
+            lotes = new ArrayList<Lote>(this.lotes);
+        }
+        int[] grau = new int[V];
+        for (Lote lote : lotes) {
+            for (int i = 0; i < lote.n; i++) {
+                grau[lote.origem[i]]++;
+                if (!grafo.direcionado()) grau[lote.destino[i]]++;
+            }
+        }
+        grafo.reserva(grau);
+        for (Lote lote : lotes)
+            for (int i = 0; i < lote.n; i++)
+                grafo.adiciona(lote.origem[i], lote.destino[i], lote.peso(i));
+        return grafo;
+    }
+
+    /**
+     * Monta o dígrafo com as arestas acumuladas.
+     * @return o dígrafo
+     * @throws IllegalArgumentException se alguma aresta tiver peso diferente de 0
+     */
+    public Digrafo digrafo() {
+        return monta(new Digrafo(V));
+    }
+
+    /**
+     * Monta o dígrafo ponderado com as arestas acumuladas, com os pesos em double.
+     * @return o dígrafo ponderado
+     */
+    public DigrafoPonderado digrafoPonderado() {
+        return digrafoPonderado(NucleoGrafo.Pesos.DOUBLE);
+    }
+
+    /**
+     * Monta o dígrafo ponderado com as arestas acumuladas, guardando os pesos da forma dada.
+     * @param  pesos a forma de guardar os pesos
+     * @return o dígrafo ponderado
+     * @throws IllegalArgumentException se algum peso não puder ser guardado na forma escolhida
+     */
+    public DigrafoPonderado digrafoPonderado(NucleoGrafo.Pesos pesos) {
+        return monta(new DigrafoPonderado(V, pesos));
+    }
+
+    /**
+     * Monta o grafo com as arestas acumuladas.
+     * @return o grafo
+     * @throws IllegalArgumentException se alguma aresta tiver peso diferente de 0
+     */
+    public Grafo grafo() {
+        return monta(new Grafo(V));
+    }
+
+    /**
+     * Monta o grafo ponderado com as arestas acumuladas, com os pesos em double.
+     * @return o grafo ponderado
+     */
+    public GrafoPonderado grafoPonderado() {
+        return grafoPonderado(NucleoGrafo.Pesos.DOUBLE);
+    }
+
+    /**
+     * Monta o grafo ponderado com as arestas acumuladas, guardando os pesos da forma dada.
+     * @param  pesos a forma de guardar os pesos
+     * @return o grafo ponderado
+     * @throws IllegalArgumentException se algum peso não puder ser guardado na forma escolhida
+     */
+    public GrafoPonderado grafoPonderado(NucleoGrafo.Pesos pesos) {
+        return monta(new GrafoPonderado(V, pesos));
+    }
+
+    /**
+     * Monta o dígrafo ponderado no formato CSR (ordenação por contagem sobre a origem das arestas).
+     * @return o dígrafo no formato CSR
+     */
+    public DigrafoPonderadoCSR csr() {
+        List<Lote> lotes;
+        synchronized (this) {
+            lotes = new ArrayList<Lote>(this.lotes);
+        }
+        int[] inicio = new int[V + 1];
+        for (Lote lote : lotes)
+            for (int i = 0; i < lote.n; i++)
+                inicio[lote.origem[i] + 1]++;
+        for (int v = 0; v < V; v++)
+            inicio[v + 1] += inicio[v];
+        int[] proximo = new int[V];
+        System.arraycopy(inicio, 0, proximo, 0, V);
+        int[] alvo = new int[inicio[V]];
+        double[] pesos = new double[inicio[V]];
+        for (Lote lote : lotes) {
+            for (int i = 0; i < lote.n; i++) {
+                int j = proximo[lote.origem[i]]++;
+                alvo[j] = lote.destino[i];
+                pesos[j] = lote.peso(i);
+            }
+        }
+        return new DigrafoPonderadoCSR(V, inicio, alvo, pesos);
+    }
+
+    /**
+     * Compara a construção aresta por aresta com addAresta() com a construção por lotes preenchidos
+     * por várias threads, em um dígrafo ponderado aleatório com V vértices e A arestas.
+     */
+    private static void benchmark(final int V, final int A, int threads) throws InterruptedException {
+        long inicio = System.nanoTime();
+        DigrafoPonderado G = new DigrafoPonderado(V);
+        Random random = new Random(42);
+        for (int i = 0; i < A; i++)
+            G.addAresta(new Aresta(random.nextInt(V), random.nextInt(V), random.nextDouble()));
+        long fim = System.nanoTime();
+        System.out.printf("addAresta(Aresta)     %8d ms  %d arestas\n", (fim - inicio) / 1000000, G.A());
+        G = null;
+
+        inicio = System.nanoTime();
+        final ConstrutorGrafo construtor = new ConstrutorGrafo(V);
+        Thread[] produtores = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int semente = 42 + t;
+            final int quantidade = A / threads + (t < A % threads ? 1 : 0);
+            final Lote lote = construtor.lote(quantidade);
+            produtores[t] = new Thread(() -> {
+                Random r = new Random(semente);
+                for (int i = 0; i < quantidade; i++)
+                    lote.addAresta(r.nextInt(V), r.nextInt(V), r.nextDouble());
+            });
+            produtores[t].start();
+        }
+        for (Thread t : produtores) t.join();
+        DigrafoPonderado H = construtor.digrafoPonderado();
+        fim = System.nanoTime();
+        System.out.printf("ConstrutorGrafo (%d)   %8d ms  %d arestas\n", threads, (fim - inicio) / 1000000, H.A());
+    }
+
+    /**
+     * Testa a classe ConstrutorGrafo.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args[0].equals("benchmark")) {
+            benchmark(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+            return;
+        }
+        In in = new In(args[0]);
+        int V = in.readInt();
+        int A = in.readInt();
+        ConstrutorGrafo construtor = new ConstrutorGrafo(V, A);
+        for (int i = 0; i < A; i++) {
+            int v1 = in.readInt();
+            int v2 = in.readInt();
+            construtor.addAresta(v1, v2, in.readDouble());
+        }
+        if (args.length > 1) {
+            Combinacao combinacao = Combinacao.valueOf(args[1].toUpperCase());
+            int removidas = construtor.canonicaliza(combinacao, true, true);
+            System.out.printf("removidas %d arestas (%d laços, %d paralelas)\n",
+                              removidas, construtor.lacosRemovidos(), construtor.paralelasRemovidas());
+        }
+        System.out.println(construtor.digrafoPonderado());
+    }
+
+}
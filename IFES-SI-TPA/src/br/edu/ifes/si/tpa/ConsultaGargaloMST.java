@@ -0,0 +1,203 @@
+/*******************************************************************************
+ *  Compilação:       javac ConsultaGargaloMST.java
+ *  Execução:         java  ConsultaGargaloMST dados.txt v w
+ *  Dependências:     GrafoPonderado.java Aresta.java Fila.java In.java
+ *                    AlgoritmoMSTKruskalGrafoPonderado.java
+ *  Arquivo de dados: GrafoPonderado1.txt
+ *  Link dos dados:   https://drive.google.com/open?id=0B3q56TwNCeXoenFyMnlzX2ZyXzg
+ *
+ *  Responde consultas de gargalo (aresta de maior peso no caminho entre dois vértices
+ *  da árvore geradora mínima, ou seja, o caminho minimax do grafo) em O(log V).
+ *
+ *  %  java ConsultaGargaloMST GrafoPonderado1.txt 3 4
+ *  3-4: 4-5 0.35000
+ *
+ ******************************************************************************/
+
+package br.edu.ifes.si.tpa;
+
+/**
+ * Esta classe implementa um índice de consultas sobre as arestas de uma árvore (ou floresta) geradora mínima.
+ * A árvore é enraizada e, para cada vértice v e cada k, são guardados o ancestral 2^k níveis acima de v
+ * (binary lifting) e a aresta de maior peso nesse trecho. Com isso o ancestral comum mais próximo (LCA) e
+ * a aresta de maior peso do caminho v-w são obtidos em O(log V), depois de um pré-processamento
+ * O(V log V). Como a árvore é mínima, essa aresta é o gargalo do caminho minimax entre v e w no grafo.
+ * Para documentação adicional, acesse:
+ * <a href="http://algs4.cs.princeton.edu/43mst">Section 4.3</a>
+ * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class ConsultaGargaloMST {
+
+    private final int V;              // número de vértices
+    private final int niveis;         // número de níveis do binary lifting: 2^niveis > V
+    private int[] componente;         // componente[v] = raiz da árvore que contém v
+    private int[] profundidade;       // profundidade[v] = número de arestas entre v e a raiz
+    private int[][] ancestral;        // ancestral[k][v] = ancestral 2^k níveis acima de v (ou a raiz)
+    private Aresta[][] maior;         // maior[k][v] = aresta de maior peso entre v e ancestral[k][v]
+
+    /**
+     * Constrói o índice sobre as arestas da árvore geradora mínima.
+     * @param V o número de vértices
+     * @param mst as arestas da árvore (ou floresta) geradora mínima, por exemplo AlgoritmoMSTKruskalGrafoPonderado.arestas()
+     * @throws IllegalArgumentException se as arestas formarem ciclo
+     * @throws IndexOutOfBoundsException caso extremidades não estejam entre 0 e V-1
+     */
+    public ConsultaGargaloMST(int V, Iterable<Aresta> mst) {
+        if (V < 0) throw new IllegalArgumentException("Número de vértices no grafo deve ser não negativo");
+        this.V = V;
+        int k = 1;
+        while ((1 << k) <= V) k++;
+        niveis = k;
+
+        // lista de adjacências compacta: arestas de v em incidentes[inicio[v] .. inicio[v+1]-1]
+        int[] grau = new int[V + 1];
+        int A = 0;
+        for (Aresta a : mst) {
+            int v = a.umVertice(), w = a.outroVertice(v);
+            validaVertice(v);
+            validaVertice(w);
+            grau[v + 1]++;
+            grau[w + 1]++;
+            A++;
+        }
+        if (A >= Math.max(V, 1)) throw new IllegalArgumentException("as arestas não formam uma floresta");
+        for (int v = 0; v < V; v++) grau[v + 1] += grau[v];
+        int[] inicio = grau;
+        int[] proximo = new int[V];
+        System.arraycopy(inicio, 0, proximo, 0, V);
+        Aresta[] incidentes = new Aresta[2 * A];
+        for (Aresta a : mst) {
+            int v = a.umVertice(), w = a.outroVertice(v);
+            incidentes[proximo[v]++] = a;
+            incidentes[proximo[w]++] = a;
+        }
+
+        componente = new int[V];
+        profundidade = new int[V];
+        ancestral = new int[niveis][V];
+        maior = new Aresta[niveis][V];
+        for (int v = 0; v < V; v++) componente[v] = -1;
+
+        // busca em largura a partir de cada raiz, preenchendo o nível 0
+        int[] fila = new int[V];
+        for (int raiz = 0; raiz < V; raiz++) {
+            if (componente[raiz] != -1) continue;
+            int primeiro = 0, ultimo = 0;
+            fila[ultimo++] = raiz;
+            componente[raiz] = raiz;
+            ancestral[0][raiz] = raiz;
+            while (primeiro < ultimo) {
+                int v = fila[primeiro++];
+                for (int i = inicio[v]; i < inicio[v + 1]; i++) {
+                    Aresta a = incidentes[i];
+                    int w = a.outroVertice(v);
+                    if (w == ancestral[0][v] && a == maior[0][v]) continue;   // aresta para o pai
+                    if (componente[w] != -1) throw new IllegalArgumentException("as arestas não formam uma floresta");
+                    componente[w] = raiz;
+                    profundidade[w] = profundidade[v] + 1;
+                    ancestral[0][w] = v;
+                    maior[0][w] = a;
+                    fila[ultimo++] = w;
+                }
+            }
+        }
+
+        for (int j = 1; j < niveis; j++) {
+            for (int v = 0; v < V; v++) {
+                int meio = ancestral[j-1][v];
+                ancestral[j][v] = ancestral[j-1][meio];
+                maior[j][v] = maiorDe(maior[j-1][v], maior[j-1][meio]);
+            }
+        }
+    }
+
+    // aresta de maior peso entre a e b (null representa a ausência de aresta)
+    private static Aresta maiorDe(Aresta a, Aresta b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.peso() >= b.peso() ? a : b;
+    }
+
+    /**
+     * Valida vértice da árvore.
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    private void validaVertice(int v) {
+        if (v < 0 || v >= V)
+            throw new IndexOutOfBoundsException("vértice " + v + " não está entre 0 e " + (V-1));
+    }
+
+    /**
+     * Retorna verdadeiro se v e w estão na mesma árvore da floresta.
+     * @param v um vértice
+     * @param w outro vértice
+     * @return verdadeiro se existe caminho entre v e w
+     */
+    public boolean conectado(int v, int w) {
+        validaVertice(v);
+        validaVertice(w);
+        return componente[v] == componente[w];
+    }
+
+    /**
+     * Retorna a aresta de maior peso no caminho entre v e w na árvore, que é o gargalo do caminho minimax no grafo.
+     * @param v um vértice
+     * @param w outro vértice
+     * @return a aresta de maior peso no caminho v-w, ou null se v == w ou se não existir caminho
+     * @throws IndexOutOfBoundsException caso v ou w não estejam entre 0 e V-1
+     */
+    public Aresta arestaGargalo(int v, int w) {
+        if (!conectado(v, w)) return null;
+        Aresta resultado = null;
+        if (profundidade[v] < profundidade[w]) {
+            int temp = v;
+            v = w;
+            w = temp;
+        }
+        // sobe v até a profundidade de w
+        int diferenca = profundidade[v] - profundidade[w];
+        for (int j = 0; diferenca > 0; j++, diferenca >>= 1) {
+            if ((diferenca & 1) != 0) {
+                resultado = maiorDe(resultado, maior[j][v]);
+                v = ancestral[j][v];
+            }
+        }
+        if (v == w) return resultado;
+        // sobe os dois até logo abaixo do ancestral comum mais próximo
+        for (int j = niveis - 1; j >= 0; j--) {
+            if (ancestral[j][v] != ancestral[j][w]) {
+                resultado = maiorDe(resultado, maiorDe(maior[j][v], maior[j][w]));
+                v = ancestral[j][v];
+                w = ancestral[j][w];
+            }
+        }
+        return maiorDe(resultado, maiorDe(maior[0][v], maior[0][w]));
+    }
+
+    /**
+     * Retorna o peso do gargalo do caminho minimax entre v e w.
+     * @param v um vértice
+     * @param w outro vértice
+     * @return o peso da aresta de maior peso no caminho v-w; 0 se v == w; Double.POSITIVE_INFINITY se não existir caminho
+     * @throws IndexOutOfBoundsException caso v ou w não estejam entre 0 e V-1
+     */
+    public double pesoGargalo(int v, int w) {
+        if (!conectado(v, w)) return Double.POSITIVE_INFINITY;
+        Aresta a = arestaGargalo(v, w);
+        return a == null ? 0.0 : a.peso();
+    }
+
+    /**
+     * Testa a classe ConsultaGargaloMST
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        GrafoPonderado G = new GrafoPonderado(in);
+        int v = Integer.parseInt(args[1]);
+        int w = Integer.parseInt(args[2]);
+        AlgoritmoMSTKruskalGrafoPonderado kruskal = new AlgoritmoMSTKruskalGrafoPonderado(G);
+        ConsultaGargaloMST gargalo = new ConsultaGargaloMST(G.V(), kruskal.arestas());
+        System.out.println(v + "-" + w + ": " + gargalo.arestaGargalo(v, w));
+    }
+
+}
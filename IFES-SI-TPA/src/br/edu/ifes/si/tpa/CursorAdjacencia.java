@@ -0,0 +1,55 @@
+/******************************************************************************
+ *  Compilação:         javac CursorAdjacencia.java
+ *  Dependências:       nenhuma
+ *
+ *  Cursor sobre as arestas que saem de um vértice, sem criar objetos por aresta.
+ *
+ ******************************************************************************/
+
+package br.edu.ifes.si.tpa;
+
+/**
+ * Esta interface define um cursor sobre a lista de adjacências de um vértice. O mesmo cursor pode ser
+ * reposicionado em vértices diferentes quantas vezes for necessário, de forma que percorrer um grafo
+ * inteiro não cria nenhum objeto por vértice ou por aresta:
+ * <pre>
+ *     CursorAdjacencia c = G.cursor();
+ *     c.posiciona(v);
+ *     while (c.temProxima()) {
+ *         int w = c.proxima();
+ *         double peso = c.peso();
+ *         ...
+ *     }
+ * </pre>
+ * Para documentação adicional, acesse:
+ * <a href="http://algs4.cs.princeton.edu/41graph">Section 4.1</a> of
+ * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public interface CursorAdjacencia {
+
+    /**
+     * Posiciona o cursor antes da primeira aresta que sai de v.
+     * @param  v o vértice
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    void posiciona(int v);
+
+    /**
+     * Retorna verdadeiro se ainda há arestas de v a percorrer.
+     * @return verdadeiro se ainda há arestas de v a percorrer
+     */
+    boolean temProxima();
+
+    /**
+     * Avança para a próxima aresta de v e retorna o vértice em sua outra extremidade.
+     * @return o vértice de destino da aresta
+     * @throws java.util.NoSuchElementException se não houver mais arestas
+     */
+    int proxima();
+
+    /**
+     * Retorna o peso da aresta retornada pela última chamada a proxima() (0 em grafos não ponderados).
+     * @return o peso da aresta atual
+     */
+    double peso();
+}
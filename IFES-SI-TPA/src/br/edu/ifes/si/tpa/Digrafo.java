@@ -1,7 +1,8 @@
 /*******************************************************************************
  *  Compilação:        javac Digrafo.java
  *  Execução:          java Digrafo dados.txt
- *  Dependências:      Aresta.java
+ *  Dependências:      Aresta.java NucleoGrafo.java AcessoGrafo.java CursorAdjacencia.java
+ *                     DigrafoPonderadoCSR.java
  *  Arquivos de dados: Digrafo1.txt
  *  Link dos dados:    https://drive.google.com/open?id=0B3q56TwNCeXoc2tlbllCRmo1MTQ
  *
@@ -27,34 +28,29 @@
 
 package br.edu.ifes.si.tpa;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Esta classe implementa a representação do dígrafo com lista de adjacências.
+ * As listas guardam apenas os destinos das arestas, sem pesos (ver {@link NucleoGrafo}); as arestas
+ * retornadas por adj() e arestas() têm peso 0.
+ * <p>
+ * Como não há pesos, addAresta() lança IllegalArgumentException para uma aresta com peso diferente de 0,
+ * que antes era aceita e guardada com o seu peso; use {@link DigrafoPonderado} para guardar os pesos. Os
+ * objetos Aresta passados a addAresta() não são guardados: adj(v) cria um novo objeto Aresta a cada get(),
+ * de modo que as arestas retornadas não são as do chamador nem o mesmo objeto em duas chamadas, e devem
+ * ser comparadas pelas extremidades, não por referência.
  * Para documentação adicional, acesse:
  * <a href="http://algs4.cs.princeton.edu/42digraph">Section 4.2</a> of
  * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
  */
-public class Digrafo {
-    private static final String NEWLINE = System.getProperty("line.separator");
+public class Digrafo extends NucleoGrafo {
 
-    private final int V;         // número de vértices no dígrafo
-    private int A;               // número de arestas no dígrafo
-    private List<Aresta>[] adj;  // adj[v1] = lista de adjacência do vértice v1
-    
     /**
      * Inicializa um dígrafo com V vertices e 0 arestas.
      * @param  V o número de vértices
      * @throws IllegalArgumentException se V < 0
      */
     public Digrafo(int V) {
-        if (V < 0) throw new IllegalArgumentException("Número de vértices no dígrafo deve ser não negativo");
-        this.V = V;
-        this.A = 0;
-        adj = new ArrayList[V];
-        for (int v = 0; v < V; v++)
-            adj[v] = new ArrayList<>();
+        super(V, true, Pesos.NENHUM);
     }
 
 
@@ -73,93 +69,20 @@ public class Digrafo {
         for (int i = 0; i < A; i++) {
             int v1 = in.readInt();
             int v2 = in.readInt();
-            if (v1 < 0 || v1 >= V) throw new IndexOutOfBoundsException("vértice " + v1 + " não está entre 0 e " + (V-1));
-            if (v2 < 0 || v2 >= V) throw new IndexOutOfBoundsException("vértice " + v2 + " não está entre 0 e " + (V-1));
-            addAresta(new Aresta(v1, v2, 0));//Peso igual a zero para aresta (dígrafo não ponderado)
+            if (v1 < 0 || v1 >= V()) throw new IndexOutOfBoundsException("vértice " + v1 + " não está entre 0 e " + (V()-1));
+            if (v2 < 0 || v2 >= V()) throw new IndexOutOfBoundsException("vértice " + v2 + " não está entre 0 e " + (V()-1));
+            addAresta(v1, v2, 0);//Peso igual a zero para aresta (dígrafo não ponderado)
         }
     }
 
     /**
-     * Retorna o número de vértices do dígrafo.
-     * @return o número de vértices do dígrafo
-     */
-    public int V() {
-        return V;
-    }
-
-    /**
-     * Retorna o número de arestas do dígrafo.
-     * @return o número de arestas do dígrafo
-     */
-    public int A() {
-        return A;
-    }
-
-    /**
-     * Valida vértice do dígrafo.
-     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
-     */
-    private void validaVertice(int v) {
-        if (v < 0 || v >= V)
-            throw new IndexOutOfBoundsException("vértice " + v + " não está entre 0 e " + (V-1));
-    }
-
-    /**
-     * Adiciona aresta direcionada a no dígrafo.
-     * @param  a a aresta
-     * @throws IndexOutOfBoundsException caso extremidades não estejam entre 0 e V-1
-     */
-    public void addAresta(Aresta a) {
-        int v1 = a.getV1();
-        int v2 = a.getV2();
-        validaVertice(v1);
-        validaVertice(v2);
-        adj[v1].add(a);
-        A++;
-    }
-
-
-    /**
-     * Retorna as arestas incidentes no vértice v1.
-     * @param  v o vértice
-     * @return as arestas incidentes no vértice v1 como um Iterable
-     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
-     */
-    public List<Aresta> adj(int v) {
-        validaVertice(v);
-        return adj[v];
-    }
-
-
-    /**
-     * Retorna todas as arestas neste dígrafo.
-     * @return todas as arestas neste dígrafo, como um Iterable
+     * Retorna o dígrafo reverso, com cada aresta v-w trocada por w-v, em um {@link DigrafoPonderadoCSR}
+     * imutável (com pesos 0). É montado em tempo O(V + A) na primeira chamada e guardado até a próxima addAresta();
+     * as chamadas seguintes levam tempo constante.
+     * @return o dígrafo reverso
      */
-    public List<Aresta> arestas() {
-        List<Aresta> lista = new ArrayList();
-        for (int v = 0; v < V; v++) {
-            for (Aresta a : adj(v)) {
-                lista.add(a);
-            }
-        }
-        return lista;
-    } 
-
-    /**
-     * Retorna uma representação String deste dígrafo.
-     * @return uma representação String deste dígrafo
-     */
-    public String toString() {
-        StringBuilder s = new StringBuilder();
-        s.append(V + " " + A + NEWLINE);
-        for (int v = 0; v < V; v++) {
-            s.append(v + ": ");
-            for (Aresta a : adj[v]) {
-                s.append(a + "  ");
-            }
-            s.append(NEWLINE);
-        }
-        return s.toString();
+    public DigrafoPonderadoCSR reverso() {
+        return transposto();
     }
 
     /**
@@ -171,4 +94,4 @@ public class Digrafo {
         System.out.println(G);
     }
 
-}
\ No newline at end of file
+}
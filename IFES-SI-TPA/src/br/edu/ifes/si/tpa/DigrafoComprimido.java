@@ -0,0 +1,279 @@
+/*******************************************************************************
+ *  Compilação:        javac DigrafoComprimido.java
+ *  Execução:          java DigrafoComprimido dados.txt
+ *  Dependências:      Aresta.java DigrafoPonderado.java Digrafo.java AcessoGrafo.java CursorAdjacencia.java In.java
+ *  Arquivos de dados: DigrafoPonderado1.txt
+ *  Link dos dados:    https://drive.google.com/open?id=0B3q56TwNCeXoc08yZ0JHZW1aZWs
+ *
+ *  Um dígrafo imutável com as listas de adjacências ordenadas e comprimidas
+ *  (diferenças codificadas como inteiros de tamanho variável).
+ *
+ *  % java DigrafoComprimido DigrafoPonderado1.txt
+ *  8 15
+ *  0: 0-2 0.26000  0-4 0.38000
+ *  1: 1-3 0.29000
+ *  2: 2-7 0.34000
+ *  3: 3-6 0.52000
+ *  4: 4-5 0.35000  4-7 0.37000
+ *  5: 5-1 0.32000  5-4 0.35000  5-7 0.28000
+ *  6: 6-0 0.58000  6-2 0.40000  6-4 0.93000
+ *  7: 7-3 0.39000  7-5 0.28000
+ *
+ *  destinos: 1.0 bytes por aresta, total: 13.8 bytes por aresta (listas de adjacências: 52.3 bytes por aresta)
+ *
+ ******************************************************************************/
+
+package br.edu.ifes.si.tpa;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Esta classe implementa a representação imutável de um dígrafo, ponderado ou não, com listas de adjacências
+ * comprimidas. Os vizinhos de cada vértice v são ordenados e guardados em um único vetor de bytes: o primeiro
+ * como a diferença (com sinal) para v e os demais como a diferença para o vizinho anterior, cada diferença
+ * codificada em 7 bits por byte (varint). Em grafos com localidade nos identificadores a maior parte das
+ * diferenças ocupa um byte. Os pesos, quando existem, ficam em um vetor de doubles na mesma ordem.
+ * As arestas são percorridas com um {@link CursorAdjacencia}, que decodifica os vizinhos sob demanda.
+ * Como os vizinhos são ordenados, a ordem de visita das buscas pode ser diferente da obtida com as listas
+ * de {@link Digrafo} e {@link DigrafoPonderado}; distâncias e alcançabilidade são as mesmas.
+ * Para documentação adicional, acesse:
+ * <a href="http://algs4.cs.princeton.edu/42digraph">Section 4.2</a> of
+ * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class DigrafoComprimido implements AcessoGrafo {
+    private static final String NEWLINE = System.getProperty("line.separator");
+
+    private final int V;              // número de vértices
+    private final int A;              // número de arestas
+    private final int[] inicio;       // vizinhos de v codificados em dados[inicio[v] .. inicio[v+1]-1]
+    private final int[] primeira;     // arestas de v com índices primeira[v] .. primeira[v+1]-1
+    private final byte[] dados;       // diferenças codificadas como varint
+    private final double[] pesos;     // pesos[i] = peso da i-ésima aresta (null se não ponderado)
+
+    /**
+     * Inicializa o dígrafo comprimido a partir de um dígrafo.
+     * @param  G o dígrafo
+     * @throws IllegalArgumentException se as listas comprimidas não couberem em um vetor
+     */
+    public DigrafoComprimido(Digrafo G) {
+        this(G, false);
+    }
+
+    /**
+     * Inicializa o dígrafo comprimido a partir de um dígrafo ponderado.
+     * @param  G o dígrafo ponderado
+     * @throws IllegalArgumentException se as listas comprimidas não couberem em um vetor
+     */
+    public DigrafoComprimido(DigrafoPonderado G) {
+        this(G, true);
+    }
+
+    private DigrafoComprimido(AcessoGrafo G, boolean ponderado) {
+        V = G.V();
+        A = G.A();
+        inicio = new int[V + 1];
+        primeira = new int[V + 1];
+        pesos = ponderado ? new double[A] : null;
+        byte[] buffer = new byte[Math.max(16, A + A / 2)];
+        int n = 0;                    // bytes usados
+        int i = 0;                    // arestas codificadas
+        long[] chaves = new long[16];
+        double[] pesosLista = new double[16];
+        CursorAdjacencia c = G.cursor();
+        for (int v = 0; v < V; v++) {
+            inicio[v] = n;
+            primeira[v] = i;
+            int grau = G.grau(v);
+            if (chaves.length < grau) {
+                chaves = new long[Math.max(grau, 2 * chaves.length)];
+                pesosLista = new double[chaves.length];
+            }
+            // ordena pelo destino; a posição original na lista desempata, mantendo a ordenação estável
+            c.posiciona(v);
+            for (int k = 0; k < grau; k++) {
+                chaves[k] = ((long) c.proxima() << 32) | k;
+                if (ponderado) pesosLista[k] = c.peso();
+            }
+            Arrays.sort(chaves, 0, grau);
+            int anterior = v;
+            for (int k = 0; k < grau; k++) {
+                int w = (int) (chaves[k] >>> 32);
+                if (buffer.length - n < 5) {
+                    long capacidade = Math.min(Integer.MAX_VALUE - 8, 2L * buffer.length);
+                    if (capacidade - n < 5) throw new IllegalArgumentException("listas comprimidas não cabem em um vetor");
+                    buffer = Arrays.copyOf(buffer, (int) capacidade);
+                }
+                // a primeira diferença pode ser negativa: codificação zigzag
+                int diferenca = k == 0 ? (w - v) << 1 ^ (w - v) >> 31 : w - anterior;
+                n = escreve(buffer, n, diferenca);
+                if (ponderado) pesos[i] = pesosLista[(int) chaves[k]];
+                anterior = w;
+                i++;
+            }
+        }
+        inicio[V] = n;
+        primeira[V] = i;
+        dados = Arrays.copyOf(buffer, n);
+    }
+
+    // grava x (sem sinal) como varint em buffer[n..]; retorna a posição seguinte
+    private static int escreve(byte[] buffer, int n, int x) {
+        while ((x & ~0x7F) != 0) {
+            buffer[n++] = (byte) ((x & 0x7F) | 0x80);
+            x >>>= 7;
+        }
+        buffer[n++] = (byte) x;
+        return n;
+    }
+
+    /**
+     * Retorna o número de vértices do dígrafo.
+     * @return o número de vértices do dígrafo
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Retorna o número de arestas do dígrafo.
+     * @return o número de arestas do dígrafo
+     */
+    public int A() {
+        return A;
+    }
+
+    /**
+     * Retorna verdadeiro, já que esta representação guarda apenas dígrafos.
+     * @return verdadeiro
+     */
+    public boolean direcionado() {
+        return true;
+    }
+
+    /**
+     * Valida vértice do dígrafo.
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    private void validaVertice(int v) {
+        if (v < 0 || v >= V)
+            throw new IndexOutOfBoundsException("vértice " + v + " não está entre 0 e " + (V-1));
+    }
+
+    /**
+     * Retorna o grau de saída do vértice v.
+     * @param  v o vértice
+     * @return o grau de saída do vértice v
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    public int grau(int v) {
+        validaVertice(v);
+        return primeira[v + 1] - primeira[v];
+    }
+
+    /**
+     * Retorna um novo cursor sobre as listas de adjacências deste dígrafo.
+     * @return um cursor, a ser posicionado em um vértice antes do uso
+     */
+    public CursorAdjacencia cursor() {
+        return new Cursor();
+    }
+
+    // decodifica as diferenças do vértice atual sob demanda
+    private class Cursor implements CursorAdjacencia {
+        private int v;              // vértice atual
+        private int posicao;        // próximo byte a decodificar
+        private int fim;            // fim dos bytes de v
+        private int aresta;         // índice da aresta atual
+        private int atual;          // destino da aresta atual
+
+        public void posiciona(int v) {
+            validaVertice(v);
+            this.v = v;
+            posicao = inicio[v];
+            fim = inicio[v + 1];
+            aresta = primeira[v] - 1;
+        }
+
+        public boolean temProxima() {
+            return posicao < fim;
+        }
+
+        public int proxima() {
+            if (posicao >= fim) throw new NoSuchElementException("não há mais arestas de " + v);
+            int x = 0;
+            int deslocamento = 0;
+            byte b;
+            do {
+                b = dados[posicao++];
+                x |= (b & 0x7F) << deslocamento;
+                deslocamento += 7;
+            } while (b < 0);
+            aresta++;
+            if (aresta == primeira[v]) atual = v + ((x >>> 1) ^ -(x & 1));
+            else                       atual += x;
+            return atual;
+        }
+
+        public double peso() {
+            return pesos == null ? 0.0 : pesos[aresta];
+        }
+    }
+
+    /**
+     * Retorna o número de bytes ocupados pelas listas comprimidas, incluindo índices e pesos.
+     * @return o número de bytes ocupados
+     */
+    public long bytes() {
+        return dados.length + 4L * inicio.length + 4L * primeira.length + (pesos == null ? 0 : 8L * pesos.length);
+    }
+
+    /**
+     * Retorna o número de bytes por aresta ocupados pelas listas comprimidas, incluindo índices e pesos.
+     * @return o número de bytes por aresta
+     */
+    public double bytesPorAresta() {
+        return A == 0 ? 0.0 : (double) bytes() / A;
+    }
+
+    /**
+     * Retorna o número de bytes por aresta ocupados apenas pelos destinos comprimidos.
+     * @return o número de bytes de destinos por aresta
+     */
+    public double bytesDestinosPorAresta() {
+        return A == 0 ? 0.0 : (double) dados.length / A;
+    }
+
+    /**
+     * Retorna uma representação String deste dígrafo, com os vizinhos em ordem crescente.
+     * @return uma representação String deste dígrafo
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(V + " " + A + NEWLINE);
+        CursorAdjacencia c = cursor();
+        for (int v = 0; v < V; v++) {
+            s.append(v + ": ");
+            c.posiciona(v);
+            while (c.temProxima()) {
+                int w = c.proxima();
+                s.append(new Aresta(v, w, c.peso()) + "  ");
+            }
+            s.append(NEWLINE);
+        }
+        return s.toString();
+    }
+
+    /**
+     * Testa a classe DigrafoComprimido.
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        DigrafoPonderado original = new DigrafoPonderado(in);
+        DigrafoComprimido G = new DigrafoComprimido(original);
+        System.out.println(G);
+        System.out.printf("destinos: %.1f bytes por aresta, total: %.1f bytes por aresta (listas de adjacências: %.1f bytes por aresta)\n",
+                          G.bytesDestinosPorAresta(), G.bytesPorAresta(), G.A() == 0 ? 0.0 : (double) original.bytes() / G.A());
+    }
+
+}
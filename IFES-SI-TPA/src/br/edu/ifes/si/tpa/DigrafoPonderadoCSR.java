@@ -0,0 +1,288 @@
+/*******************************************************************************
+ *  Compilação:        javac DigrafoPonderadoCSR.java
+ *  Execução:          java DigrafoPonderadoCSR dados.txt
+ *  Dependências:      Aresta.java DigrafoPonderado.java AcessoGrafo.java CursorAdjacencia.java In.java
+ *  Arquivos de dados: DigrafoPonderado1.txt
+ *  Link dos dados:    https://drive.google.com/open?id=0B3q56TwNCeXoc08yZ0JHZW1aZWs
+ *
+ *  Um dígrafo ponderado imutável no formato CSR (compressed sparse row).
+ *
+ *  % java DigrafoPonderadoCSR DigrafoPonderado1.txt
+ *  8 15
+ *  0: 0-4 0.38000  0-2 0.26000
+ *  1: 1-3 0.29000
+ *  2: 2-7 0.34000
+ *  3: 3-6 0.52000
+ *  4: 4-5 0.35000  4-7 0.37000
+ *  5: 5-4 0.35000  5-7 0.28000  5-1 0.32000
+ *  6: 6-2 0.40000  6-0 0.58000  6-4 0.93000
+ *  7: 7-5 0.28000  7-3 0.39000
+ *
+ ******************************************************************************/
+
+package br.edu.ifes.si.tpa;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Esta classe implementa a representação imutável do dígrafo ponderado no formato CSR (compressed sparse row).
+ * As arestas que saem de v ocupam as posições inicio(v) .. fim(v)-1 de dois vetores primitivos, um com os
+ * destinos e outro com os pesos, na mesma ordem em que aparecem na lista de adjacências de
+ * {@link DigrafoPonderado}. Não há um objeto por aresta: percorrer as arestas de um vértice é percorrer um
+ * trecho contíguo de memória.
+ * Para documentação adicional, acesse:
+ * <a href="http://algs4.cs.princeton.edu/44sp/">Section 4.4</a> of
+ * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class DigrafoPonderadoCSR implements AcessoGrafo {
+    private static final String NEWLINE = System.getProperty("line.separator");
+
+    private final int V;            // número de vértices no dígrafo
+    private final int A;            // número de arestas no dígrafo
+    private final int[] inicio;     // arestas de v nas posições inicio[v] .. inicio[v+1]-1
+    private final int[] destino;    // destino[i] = vértice de destino da i-ésima aresta
+    private final double[] peso;    // peso[i] = peso da i-ésima aresta (null se todos os pesos são 0)
+
+    /**
+     * Inicializa o dígrafo a partir dos vetores já no formato CSR, sem copiá-los. O vetor de pesos pode
+     * ser null, para um dígrafo com todos os pesos iguais a 0.
+     */
+    DigrafoPonderadoCSR(int V, int[] inicio, int[] destino, double[] peso) {
+        this.V = V;
+        this.A = inicio[V];
+        this.inicio = inicio;
+        this.destino = destino;
+        this.peso = peso;
+    }
+
+    /**
+     * Inicializa o dígrafo a partir de A arestas dadas por vetores paralelos (origem[i], destino[i], peso[i]).
+     * As arestas de cada vértice mantêm a ordem em que aparecem nos vetores.
+     * @param  V o número de vértices
+     * @param  A o número de arestas
+     * @param  origem os vértices de origem
+     * @param  destino os vértices de destino
+     * @param  peso os pesos
+     * @throws IllegalArgumentException se V ou A for negativo
+     * @throws IndexOutOfBoundsException caso extremidades não estejam entre 0 e V-1
+     */
+    public DigrafoPonderadoCSR(int V, int A, int[] origem, int[] destino, double[] peso) {
+        if (V < 0) throw new IllegalArgumentException("Número de vértices no dígrafo deve ser não negativo");
+        if (A < 0) throw new IllegalArgumentException("Número de arestas deve ser não negativo");
+        this.V = V;
+        this.A = A;
+        inicio = new int[V + 1];
+        for (int i = 0; i < A; i++) {
+            validaVertice(origem[i]);
+            validaVertice(destino[i]);
+            inicio[origem[i] + 1]++;
+        }
+        for (int v = 0; v < V; v++)
+            inicio[v + 1] += inicio[v];
+        int[] proximo = new int[V];
+        System.arraycopy(inicio, 0, proximo, 0, V);
+        this.destino = new int[A];
+        this.peso = new double[A];
+        for (int i = 0; i < A; i++) {
+            int j = proximo[origem[i]]++;
+            this.destino[j] = destino[i];
+            this.peso[j] = peso[i];
+        }
+    }
+
+    /**
+     * Inicializa o dígrafo como uma cópia de G.
+     * @param  G o dígrafo ponderado
+     */
+    public DigrafoPonderadoCSR(DigrafoPonderado G) {
+        V = G.V();
+        A = G.A();
+        inicio = new int[V + 1];
+        destino = new int[A];
+        peso = new double[A];
+        int i = 0;
+        CursorAdjacencia c = G.cursor();
+        for (int v = 0; v < V; v++) {
+            inicio[v] = i;
+            for (c.posiciona(v); c.temProxima(); i++) {
+                destino[i] = c.proxima();
+                peso[i] = c.peso();
+            }
+        }
+        inicio[V] = i;
+    }
+
+    /**
+     * Retorna o número de vértices do dígrafo.
+     * @return o número de vértices do dígrafo
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Retorna o número de arestas do dígrafo.
+     * @return o número de arestas do dígrafo
+     */
+    public int A() {
+        return A;
+    }
+
+    /**
+     * Retorna verdadeiro, já que esta representação guarda apenas dígrafos.
+     * @return verdadeiro
+     */
+    public boolean direcionado() {
+        return true;
+    }
+
+    /**
+     * Valida vértice do dígrafo.
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    private void validaVertice(int v) {
+        if (v < 0 || v >= V)
+            throw new IndexOutOfBoundsException("vértice " + v + " não está entre 0 e " + (V-1));
+    }
+
+    /**
+     * Retorna a posição da primeira aresta que sai de v.
+     * @param  v o vértice
+     * @return a posição da primeira aresta que sai de v
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    public int inicio(int v) {
+        validaVertice(v);
+        return inicio[v];
+    }
+
+    /**
+     * Retorna a posição seguinte à última aresta que sai de v.
+     * @param  v o vértice
+     * @return a posição seguinte à última aresta que sai de v
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    public int fim(int v) {
+        validaVertice(v);
+        return inicio[v + 1];
+    }
+
+    /**
+     * Retorna o grau de saída do vértice v.
+     * @param  v o vértice
+     * @return o grau de saída do vértice v
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    public int grau(int v) {
+        validaVertice(v);
+        return inicio[v + 1] - inicio[v];
+    }
+
+    /**
+     * Retorna o vértice de destino da i-ésima aresta.
+     * @param  i a posição da aresta, entre inicio(v) e fim(v)-1 para as arestas de v
+     * @return o vértice de destino da aresta
+     */
+    public int destino(int i) {
+        return destino[i];
+    }
+
+    /**
+     * Retorna o peso da i-ésima aresta.
+     * @param  i a posição da aresta, entre inicio(v) e fim(v)-1 para as arestas de v
+     * @return o peso da aresta
+     */
+    public double peso(int i) {
+        return peso == null ? 0.0 : peso[i];
+    }
+
+    /**
+     * Retorna um novo cursor sobre as listas de adjacências deste dígrafo.
+     * @return um cursor, a ser posicionado em um vértice antes do uso
+     */
+    public CursorAdjacencia cursor() {
+        return new Cursor();
+    }
+
+    // percorre o trecho de destino[] e peso[] do vértice atual
+    private class Cursor implements CursorAdjacencia {
+        private int v;              // vértice atual
+        private int i;              // posição da aresta atual
+        private int fim;            // fim das arestas de v
+
+        public void posiciona(int v) {
+            validaVertice(v);
+            this.v = v;
+            i = inicio[v] - 1;
+            fim = inicio[v + 1];
+        }
+
+        public boolean temProxima() {
+            return i + 1 < fim;
+        }
+
+        public int proxima() {
+            if (i + 1 >= fim) throw new NoSuchElementException("não há mais arestas de " + v);
+            return destino[++i];
+        }
+
+        public double peso() {
+            return DigrafoPonderadoCSR.this.peso(i);
+        }
+    }
+
+    /**
+     * Retorna as arestas que saem do vértice v, criando um objeto Aresta para cada uma.
+     * @param  v o vértice
+     * @return as arestas que saem do vértice v
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    public List<Aresta> adj(int v) {
+        validaVertice(v);
+        List<Aresta> lista = new ArrayList<Aresta>(inicio[v + 1] - inicio[v]);
+        for (int i = inicio[v]; i < inicio[v + 1]; i++)
+            lista.add(new Aresta(v, destino[i], peso(i)));
+        return lista;
+    }
+
+    /**
+     * Retorna um DigrafoPonderado com as mesmas arestas, na mesma ordem.
+     * @return o dígrafo ponderado com listas de adjacências
+     */
+    public DigrafoPonderado digrafoPonderado() {
+        DigrafoPonderado G = new DigrafoPonderado(V);
+        for (int v = 0; v < V; v++)
+            for (int i = inicio[v]; i < inicio[v + 1]; i++)
+                G.addAresta(new Aresta(v, destino[i], peso(i)));
+        return G;
+    }
+
+    /**
+     * Retorna uma representação String deste dígrafo.
+     * @return uma representação String deste dígrafo
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(V + " " + A + NEWLINE);
+        for (int v = 0; v < V; v++) {
+            s.append(v + ": ");
+            for (Aresta a : adj(v)) {
+                s.append(a + "  ");
+            }
+            s.append(NEWLINE);
+        }
+        return s.toString();
+    }
+
+    /**
+     * Testa a classe DigrafoPonderadoCSR.
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        DigrafoPonderadoCSR G = new DigrafoPonderadoCSR(new DigrafoPonderado(in));
+        System.out.println(G);
+    }
+
+}
@@ -105,6 +105,25 @@ public class FilaPrioridadeMin<Key> implements Iterable<Key> {
         assert isMinHeap();
     }
 
+    /**
+     * Initializes a priority queue from the array of keys, using the given comparador.
+     * <p>
+     * Takes time proportional to the number of keys, using sink-based heap construction.
+     *
+     * @param  keys the array of keys
+     * @param  comparator the order to use when comparing keys
+     */
+    public FilaPrioridadeMin(Key[] keys, Comparator<Key> comparator) {
+        this.comparador = comparator;
+        n = keys.length;
+        pq = (Key[]) new Object[keys.length + 1];
+        for (int i = 0; i < n; i++)
+            pq[i+1] = keys[i];
+        for (int k = n/2; k >= 1; k--)
+            sink(k);
+        assert isMinHeap();
+    }
+
     /**
      * Returns true if this priority queue is empty.
      *
@@ -0,0 +1,201 @@
+/******************************************************************************
+ *  Compilação:         javac FilaPrioridadeMinIndexFloat.java
+ *  Execução:           java FilaPrioridadeMinIndexFloat
+ *  Dependências:       nenhuma
+ *
+ *  Fila de prioridade mínima indexada com chaves float, em um heap binário.
+ *
+ ******************************************************************************/
+
+package br.edu.ifes.si.tpa;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Esta classe implementa uma fila de prioridade mínima indexada cujas chaves são float primitivos,
+ * com as mesmas operações de {@link FilaPrioridadeMinIndex}: cada chave é associada a um índice entre
+ * 0 e maxN-1, pelo qual é diminuída ou removida. As chaves ficam em um vetor float[] e são comparadas
+ * com Float.compare, sem um objeto por chave; é a fila usada pelos algoritmos em precisão simples.
+ * As operações insere, removeMin e diminuiChave levam tempo logarítmico; as demais, tempo constante.
+ * A construção leva tempo proporcional a maxN.
+ */
+public class FilaPrioridadeMinIndexFloat {
+    private int maxN;        // número máximo de elementos na fila
+    private int n;           // número de elementos na fila
+    private int[] pq;        // heap binário com índices a partir de 1
+    private int[] qp;        // inverso de pq: qp[pq[i]] = pq[qp[i]] = i
+    private float[] chaves;  // chaves[i] = prioridade de i
+
+    /**
+     * Inicializa uma fila vazia com índices entre 0 e maxN - 1.
+     * @param  maxN o número de índices
+     * @throws IllegalArgumentException se maxN < 0
+     */
+    public FilaPrioridadeMinIndexFloat(int maxN) {
+        if (maxN < 0) throw new IllegalArgumentException();
+        this.maxN = maxN;
+        n = 0;
+        chaves = new float[maxN + 1];
+        pq = new int[maxN + 1];
+        qp = new int[maxN + 1];
+        for (int i = 0; i <= maxN; i++)
+            qp[i] = -1;
+    }
+
+    /**
+     * Retorna verdadeiro se a fila está vazia.
+     * @return verdadeiro se a fila está vazia, falso, caso contrário
+     */
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    /**
+     * Retorna verdadeiro se o índice i está na fila.
+     * @param  i o índice
+     * @return verdadeiro se i está na fila, falso, caso contrário
+     * @throws IndexOutOfBoundsException a menos que 0 <= i < maxN
+     */
+    public boolean contem(int i) {
+        if (i < 0 || i >= maxN) throw new IndexOutOfBoundsException();
+        return qp[i] != -1;
+    }
+
+    /**
+     * Retorna o número de chaves na fila.
+     * @return o número de chaves na fila
+     */
+    public int tamanho() {
+        return n;
+    }
+
+    /**
+     * Associa a chave ao índice i.
+     * @param  i o índice
+     * @param  chave a chave
+     * @throws IndexOutOfBoundsException a menos que 0 <= i < maxN
+     * @throws IllegalArgumentException se i já está na fila
+     */
+    public void insere(int i, float chave) {
+        if (i < 0 || i >= maxN) throw new IndexOutOfBoundsException();
+        if (contem(i)) throw new IllegalArgumentException("o índice já está na fila de prioridade");
+        n++;
+        qp[i] = n;
+        pq[n] = i;
+        chaves[i] = chave;
+        swim(n);
+    }
+
+    /**
+     * Retorna o índice associado a uma chave mínima.
+     * @return o índice associado a uma chave mínima
+     * @throws NoSuchElementException se a fila está vazia
+     */
+    public int minIndex() {
+        if (n == 0) throw new NoSuchElementException("Fila de prioridade vazia");
+        return pq[1];
+    }
+
+    /**
+     * Retorna uma chave mínima.
+     * @return uma chave mínima
+     * @throws NoSuchElementException se a fila está vazia
+     */
+    public float minChave() {
+        if (n == 0) throw new NoSuchElementException("Fila de prioridade vazia");
+        return chaves[pq[1]];
+    }
+
+    /**
+     * Remove uma chave mínima e retorna o índice associado a ela.
+     * @return o índice associado a uma chave mínima
+     * @throws NoSuchElementException se a fila está vazia
+     */
+    public int removeMin() {
+        if (n == 0) throw new NoSuchElementException("Fila de prioridade vazia");
+        int min = pq[1];
+        troca(1, n--);
+        sink(1);
+        qp[min] = -1;
+        pq[n + 1] = -1;
+        return min;
+    }
+
+    /**
+     * Retorna a chave associada ao índice i.
+     * @param  i o índice
+     * @return a chave associada a i
+     * @throws IndexOutOfBoundsException a menos que 0 <= i < maxN
+     * @throws NoSuchElementException se i não está na fila
+     */
+    public float chaveDe(int i) {
+        if (i < 0 || i >= maxN) throw new IndexOutOfBoundsException();
+        if (!contem(i)) throw new NoSuchElementException("o índice não está na fila de prioridade");
+        return chaves[i];
+    }
+
+    /**
+     * Diminui a chave associada ao índice i para o valor dado.
+     * @param  i o índice
+     * @param  chave a nova chave, menor que a atual
+     * @throws IndexOutOfBoundsException a menos que 0 <= i < maxN
+     * @throws IllegalArgumentException se chave >= chave associada a i
+     * @throws NoSuchElementException se i não está na fila
+     */
+    public void diminuiChave(int i, float chave) {
+        if (i < 0 || i >= maxN) throw new IndexOutOfBoundsException();
+        if (!contem(i)) throw new NoSuchElementException("o índice não está na fila de prioridade");
+        if (Float.compare(chaves[i], chave) <= 0)
+            throw new IllegalArgumentException("diminuiChave() com esse argumento não diminuiria a chave");
+        chaves[i] = chave;
+        swim(qp[i]);
+    }
+
+    private boolean maior(int i, int j) {
+        return Float.compare(chaves[pq[i]], chaves[pq[j]]) > 0;
+    }
+
+    private void troca(int i, int j) {
+        int swap = pq[i];
+        pq[i] = pq[j];
+        pq[j] = swap;
+        qp[pq[i]] = i;
+        qp[pq[j]] = j;
+    }
+
+    private void swim(int k) {
+        while (k > 1 && maior(k / 2, k)) {
+            troca(k, k / 2);
+            k = k / 2;
+        }
+    }
+
+    private void sink(int k) {
+        while (2 * k <= n) {
+            int j = 2 * k;
+            if (j < n && maior(j, j + 1)) j++;
+            if (!maior(k, j)) break;
+            troca(k, j);
+            k = j;
+        }
+    }
+
+    /**
+     * Testa a classe FilaPrioridadeMinIndexFloat
+     */
+    public static void main(String[] args) {
+        float[] chaves = { 0.5f, 0.25f, 3.0f, 0.125f, 2.0f, 0.25f, 1.0f };
+        FilaPrioridadeMinIndexFloat pq = new FilaPrioridadeMinIndexFloat(chaves.length);
+        for (int i = 0; i < chaves.length; i++) {
+            pq.insere(i, chaves[i]);
+        }
+        pq.diminuiChave(2, 0.0f);
+
+        // remove e imprime cada chave
+        while (!pq.isEmpty()) {
+            float chave = pq.minChave();
+            int i = pq.removeMin();
+            System.out.println(i + " " + chave);
+        }
+    }
+}
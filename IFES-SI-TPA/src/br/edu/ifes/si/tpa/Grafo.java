@@ -1,7 +1,7 @@
 /*******************************************************************************
  *  Compilação:        javac Grafo.java
  *  Execução:          java Grafo dados.txt
- *  Dependências:      Aresta.java
+ *  Dependências:      Aresta.java NucleoGrafo.java AcessoGrafo.java CursorAdjacencia.java
  *  Arquivos de dados: Grafo1.txt
  *  Link dos dados:    https://drive.google.com/open?id=0B3q56TwNCeXoMlQ1c1dGOXJRbG8
  *
@@ -26,38 +26,29 @@
  ******************************************************************************/
 package br.edu.ifes.si.tpa;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Esta classe implementa a representação do grafo com lista de adjacências.
+ * As listas guardam apenas os vizinhos, sem pesos (ver {@link NucleoGrafo}); as arestas
+ * retornadas por adj() e arestas() têm peso 0.
+ * <p>
+ * Como não há pesos, addAresta() lança IllegalArgumentException para uma aresta com peso diferente de 0,
+ * que antes era aceita e guardada com o seu peso; use {@link GrafoPonderado} para guardar os pesos. Os
+ * objetos Aresta passados a addAresta() não são guardados: adj(v) cria um novo objeto Aresta a cada get(),
+ * de modo que as arestas retornadas não são as do chamador nem o mesmo objeto em duas chamadas, e devem
+ * ser comparadas pelas extremidades, não por referência.
  * Para documentação adicional, acesse:
  * <a href="http://algs4.cs.princeton.edu/41graph/">Section 4.1</a> of
  * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
  */
-public class Grafo {
-
-    private static final String NEWLINE = System.getProperty("line.separator");
-
-    private final int V;         // número de vértices no grafo
-    private int A;               // número de arestas no grafo
-    private List<Aresta>[] adj;  // adj[v1] = lista de adjacência do vértice v1
+public class Grafo extends NucleoGrafo {
 
     /**
-     * Inicializa um dígrafo com V vertices e 0 arestas.
+     * Inicializa um grafo com V vertices e 0 arestas.
      * @param  V o número de vértices
      * @throws IllegalArgumentException se V < 0
      */
     public Grafo(int V) {
-        if (V < 0) {
-            throw new IllegalArgumentException("Número de vértices no grafo deve ser não negativo");
-        }
-        this.V = V;
-        this.A = 0;
-        adj = new ArrayList[V];
-        for (int v = 0; v < V; v++) {
-            adj[v] = new ArrayList<>();
-        }
+        super(V, false, Pesos.NENHUM);
     }
 
     /**  
@@ -77,103 +68,8 @@ public class Grafo {
         for (int i = 0; i < A; i++) {
             int v1 = in.readInt();
             int v2 = in.readInt();
-            double peso = 0;
-            addAresta(new Aresta(v1, v2, peso));
-        }
-    }
-
-    /**
-     * Retorna o número de vértices do dígrafo.
-     * @return o número de vértices do dígrafo
-     */
-    public int V() {
-        return V;
-    }
-
-    /**
-     * Retorna o número de arestas do dígrafo.
-     * @return o número de arestas do dígrafo
-     */
-    public int A() {
-        return A;
-    }
-
-    /**
-     * Valida vértice do dígrafo.
-     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
-     */
-    private void validaVertice(int v) {
-        if (v < 0 || v >= V)
-            throw new IndexOutOfBoundsException("vértice " + v + " não está entre 0 e " + (V-1));
-    }
-
-    /**
-     * Adiciona aresta direcionada a no dígrafo.
-     * @param  a a aresta
-     * @throws IndexOutOfBoundsException caso extremidades não estejam entre 0 e V-1
-     */
-    public void addAresta(Aresta a) {
-        int v1 = a.umVertice();
-        int v2 = a.outroVertice(v1);
-        validaVertice(v1);
-        validaVertice(v2);
-        adj[v1].add(0, a);
-        Aresta a2 = new Aresta(a.getV2(), a.getV1(), a.peso());
-        adj[v2].add(0, a2);
-        A++;
-    }
-
-    /**
-     * Retorna as arestas incidentes no vértice v.
-     * @param  v o vértice
-     * @return as arestas incidentes no vértice v como um Iterable
-     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
-     */
-    public List<Aresta> adj(int v) {
-        validaVertice(v);
-        return adj[v];
-    }
-
-    /**
-     * Retorna o grau do vértice v.
-     * @param v o vértice
-     * @return o grau do vértice v
-     * @throws IndexOutOfBoundsException caso não seja 0 <= v < V
-     */
-    public int grau(int v) {
-        validaVertice(v);
-        return adj[v].size();
-    }
-
-    /**
-     * Retorna todas as arestas neste grafo.
-     * @return todas as arestas neste grafo, como um Iterable
-     */
-    public List<Aresta> arestas() {
-        List<Aresta> lista = new ArrayList();
-        for (int v = 0; v < V; v++) {
-            for (Aresta a : adj(v)) {
-                lista.add(a);
-            }
-        }
-        return lista;
-    }
-
-    /**
-     * Retorna uma representação String deste grafo.
-     * @return uma representação String deste grafo
-     */
-    public String toString() {
-        StringBuilder s = new StringBuilder();
-        s.append(V + " " + A + NEWLINE);
-        for (int v = 0; v < V; v++) {
-            s.append(v + ": ");
-            for (Aresta a : adj[v]) {
-                s.append(a + "  ");
-            }
-            s.append(NEWLINE);
+            addAresta(v1, v2, 0);
         }
-        return s.toString();
     }
 
     /**
@@ -183,7 +79,6 @@ public class Grafo {
         In in = new In(args[0]);
         Grafo G = new Grafo(in);
         System.out.println(G);
-
     }
 
 }
@@ -0,0 +1,472 @@
+/*******************************************************************************
+ *  Compilação:        javac GrafoBinario.java
+ *  Execução:          java GrafoBinario tipo dados.txt [float]
+ *  Dependências:      Aresta.java Digrafo.java DigrafoPonderado.java Grafo.java AcessoGrafo.java CursorAdjacencia.java
+ *                     GrafoPonderado.java In.java
+ *  Arquivos de dados: DigrafoPonderado1.txt
+ *  Link dos dados:    https://drive.google.com/open?id=0B3q56TwNCeXoc08yZ0JHZW1aZWs
+ *
+ *  Um grafo ou dígrafo imutável lido de um arquivo binário mapeado em memória.
+ *  O tipo é digrafo, digrafoPonderado, grafo ou grafoPonderado; o teste grava
+ *  o grafo do arquivo texto em um arquivo binário temporário e o abre.
+ *
+ *  % java GrafoBinario digrafoPonderado DigrafoPonderado1.txt
+ *  8 15
+ *  0: 0-4 0.38000  0-2 0.26000
+ *  1: 1-3 0.29000
+ *  2: 2-7 0.34000
+ *  3: 3-6 0.52000
+ *  4: 4-5 0.35000  4-7 0.37000
+ *  5: 5-4 0.35000  5-7 0.28000  5-1 0.32000
+ *  6: 6-2 0.40000  6-0 0.58000  6-4 0.93000
+ *  7: 7-5 0.28000  7-3 0.39000
+ *
+ *  checksum ok
+ *
+ ******************************************************************************/
+
+package br.edu.ifes.si.tpa;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Esta classe implementa a leitura, sem desserialização, de grafos e dígrafos gravados em um arquivo binário.
+ * O arquivo é mapeado em memória e as listas de adjacências são lidas diretamente do mapeamento, de forma que
+ * abrir o arquivo custa O(1) independentemente do tamanho do grafo.
+ * <p>
+ * O arquivo, em big-endian (como os demais arquivos binários do projeto), contém:
+ * <ul>
+ * <li>um cabeçalho de 64 bytes: o número mágico "TPAG", a versão, os indicadores direcionado/ponderado,
+ *     o número de bytes por peso (0, 4 ou 8), V, A, o número L de entradas de adjacência e o CRC32 do corpo;</li>
+ * <li>os deslocamentos: V+1 longs, com as entradas de v nas posições inicio[v] .. inicio[v+1]-1;</li>
+ * <li>os destinos: L ints;</li>
+ * <li>os pesos, alinhados em 8 bytes: L floats ou L doubles, ausentes em grafos não ponderados.</li>
+ * </ul>
+ * Em grafos não direcionados cada aresta aparece nas listas das duas extremidades (L = 2A), na mesma ordem
+ * das listas de {@link Grafo} e {@link GrafoPonderado}. Arquivos com mais de 2GB são mapeados em vários
+ * segmentos. O CRC32 não é conferido ao abrir o arquivo, pois exigiria lê-lo por inteiro; use
+ * {@link #checaIntegridade()} quando necessário.
+ * Para documentação adicional, acesse:
+ * <a href="http://algs4.cs.princeton.edu/41graph">Section 4.1</a> of
+ * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class GrafoBinario implements AcessoGrafo {
+    private static final String NEWLINE = System.getProperty("line.separator");
+
+    private static final int MAGICO = 0x54504147;            // "TPAG"
+    private static final int VERSAO = 1;
+    private static final int DIRECIONADO = 1;                // indicadores do cabeçalho
+    private static final int PONDERADO = 2;
+    private static final int TAMANHO_CABECALHO = 64;
+    private static final int BITS_SEGMENTO = 30;             // segmentos mapeados de 1GB
+    private static final long MASCARA_SEGMENTO = (1L << BITS_SEGMENTO) - 1;
+    private static final int TAMANHO_BUFFER = 1 << 16;
+
+    /**
+     * Precisão com que os pesos são gravados.
+     */
+    public enum Precisao {
+        /** pesos gravados como float (4 bytes), com cerca de 7 dígitos significativos */
+        FLOAT,
+        /** pesos gravados como double (8 bytes), sem perda */
+        DOUBLE
+    }
+
+    private final int V;                    // número de vértices
+    private final int A;                    // número de arestas
+    private final long L;                   // número de entradas de adjacência
+    private final boolean direcionado;      // dígrafo?
+    private final int bytesPeso;            // 0 (não ponderado), 4 (float) ou 8 (double)
+    private final long checksum;            // CRC32 do corpo gravado no cabeçalho
+    private final long posicaoDestinos;     // posição no arquivo do vetor de destinos
+    private final long posicaoPesos;        // posição no arquivo do vetor de pesos
+    private final long tamanho;             // tamanho do arquivo
+    private final MappedByteBuffer[] segmentos;  // o arquivo mapeado em segmentos de 2^BITS_SEGMENTO bytes
+
+    /**
+     * Abre o arquivo binário, mapeando-o em memória.
+     * @param  arquivo o arquivo binário
+     * @throws IllegalArgumentException se o arquivo não puder ser lido ou não estiver no formato esperado
+     */
+    public GrafoBinario(File arquivo) {
+        try {
+            RandomAccessFile raf = new RandomAccessFile(arquivo, "r");
+            try {
+                FileChannel canal = raf.getChannel();
+                tamanho = canal.size();
+                if (tamanho < TAMANHO_CABECALHO) throw new IllegalArgumentException(arquivo + " não é um grafo binário");
+                int n = (int) ((tamanho + MASCARA_SEGMENTO) >>> BITS_SEGMENTO);
+                segmentos = new MappedByteBuffer[n];
+                for (int s = 0; s < n; s++) {
+                    long inicio = (long) s << BITS_SEGMENTO;
+                    segmentos[s] = canal.map(FileChannel.MapMode.READ_ONLY, inicio, Math.min(tamanho - inicio, 1L << BITS_SEGMENTO));
+                }
+            }
+            finally {
+                raf.close();   // o mapeamento continua válido depois de fechar o canal
+            }
+        }
+        catch (IOException ioe) {
+            throw new IllegalArgumentException("Não foi possível ler " + arquivo, ioe);
+        }
+
+        ByteBuffer cabecalho = segmentos[0];
+        if (cabecalho.getInt(0) != MAGICO) throw new IllegalArgumentException(arquivo + " não é um grafo binário");
+        if (cabecalho.getInt(4) != VERSAO) throw new IllegalArgumentException("versão " + cabecalho.getInt(4) + " não suportada");
+        int indicadores = cabecalho.getInt(8);
+        direcionado = (indicadores & DIRECIONADO) != 0;
+        bytesPeso = cabecalho.getInt(12);
+        V = cabecalho.getInt(16);
+        A = cabecalho.getInt(20);
+        L = cabecalho.getLong(24);
+        checksum = cabecalho.getLong(32);
+        if (((indicadores & PONDERADO) != 0) != (bytesPeso != 0) || (bytesPeso != 0 && bytesPeso != 4 && bytesPeso != 8))
+            throw new IllegalArgumentException("tamanho de peso inválido: " + bytesPeso);
+        if (V < 0 || A < 0 || L != (direcionado ? A : 2L * A))
+            throw new IllegalArgumentException(arquivo + " está corrompido");
+        posicaoDestinos = TAMANHO_CABECALHO + 8L * (V + 1);
+        posicaoPesos = alinha(posicaoDestinos + 4 * L);
+        if (tamanho != posicaoPesos + bytesPeso * L)
+            throw new IllegalArgumentException(arquivo + " está corrompido");
+    }
+
+    // arredonda p para o próximo múltiplo de 8
+    private static long alinha(long p) {
+        return (p + 7) & ~7L;
+    }
+
+    // leituras absolutas no arquivo mapeado; como as seções são alinhadas, nenhum valor cruza segmentos
+    private int getInt(long p) {
+        return segmentos[(int) (p >>> BITS_SEGMENTO)].getInt((int) (p & MASCARA_SEGMENTO));
+    }
+
+    private long getLong(long p) {
+        return segmentos[(int) (p >>> BITS_SEGMENTO)].getLong((int) (p & MASCARA_SEGMENTO));
+    }
+
+    private float getFloat(long p) {
+        return segmentos[(int) (p >>> BITS_SEGMENTO)].getFloat((int) (p & MASCARA_SEGMENTO));
+    }
+
+    private double getDouble(long p) {
+        return segmentos[(int) (p >>> BITS_SEGMENTO)].getDouble((int) (p & MASCARA_SEGMENTO));
+    }
+
+    /**
+     * Retorna o número de vértices.
+     * @return o número de vértices
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Retorna o número de arestas.
+     * @return o número de arestas
+     */
+    public int A() {
+        return A;
+    }
+
+    /**
+     * Retorna verdadeiro se o arquivo contém um dígrafo.
+     * @return verdadeiro se o arquivo contém um dígrafo
+     */
+    public boolean direcionado() {
+        return direcionado;
+    }
+
+    /**
+     * Retorna verdadeiro se o arquivo contém pesos.
+     * @return verdadeiro se o arquivo contém pesos
+     */
+    public boolean ponderado() {
+        return bytesPeso != 0;
+    }
+
+    /**
+     * Valida vértice do grafo.
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    private void validaVertice(int v) {
+        if (v < 0 || v >= V)
+            throw new IndexOutOfBoundsException("vértice " + v + " não está entre 0 e " + (V-1));
+    }
+
+    /**
+     * Retorna a posição da primeira entrada de adjacência de v.
+     * @param  v o vértice
+     * @return a posição da primeira entrada de adjacência de v
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    public long inicio(int v) {
+        validaVertice(v);
+        return getLong(TAMANHO_CABECALHO + 8L * v);
+    }
+
+    /**
+     * Retorna a posição seguinte à última entrada de adjacência de v.
+     * @param  v o vértice
+     * @return a posição seguinte à última entrada de adjacência de v
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    public long fim(int v) {
+        validaVertice(v);
+        return getLong(TAMANHO_CABECALHO + 8L * (v + 1));
+    }
+
+    /**
+     * Retorna o grau (de saída, em dígrafos) do vértice v.
+     * @param  v o vértice
+     * @return o grau do vértice v
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    public int grau(int v) {
+        return (int) (fim(v) - inicio(v));
+    }
+
+    /**
+     * Retorna o vértice de destino da i-ésima entrada de adjacência.
+     * @param  i a posição da entrada, entre inicio(v) e fim(v)-1 para as entradas de v
+     * @return o vértice de destino
+     * @throws IndexOutOfBoundsException caso i não seja 0 <= i < L
+     */
+    public int destino(long i) {
+        validaEntrada(i);
+        return getInt(posicaoDestinos + 4 * i);
+    }
+
+    /**
+     * Retorna o peso da i-ésima entrada de adjacência (0 em grafos não ponderados).
+     * @param  i a posição da entrada, entre inicio(v) e fim(v)-1 para as entradas de v
+     * @return o peso
+     * @throws IndexOutOfBoundsException caso i não seja 0 <= i < L
+     */
+    public double peso(long i) {
+        validaEntrada(i);
+        if (bytesPeso == 8) return getDouble(posicaoPesos + 8 * i);
+        if (bytesPeso == 4) return getFloat(posicaoPesos + 4 * i);
+        return 0.0;
+    }
+
+    private void validaEntrada(long i) {
+        if (i < 0 || i >= L)
+            throw new IndexOutOfBoundsException("entrada " + i + " não está entre 0 e " + (L-1));
+    }
+
+    /**
+     * Retorna as arestas incidentes no vértice v, criando um objeto Aresta para cada uma.
+     * @param  v o vértice
+     * @return as arestas incidentes no vértice v
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    public List<Aresta> adj(int v) {
+        long inicio = inicio(v), fim = fim(v);
+        List<Aresta> lista = new ArrayList<Aresta>((int) (fim - inicio));
+        for (long i = inicio; i < fim; i++)
+            lista.add(new Aresta(v, destino(i), peso(i)));
+        return lista;
+    }
+
+    /**
+     * Retorna um novo cursor sobre as listas de adjacências deste grafo, lidas diretamente do arquivo mapeado.
+     * @return um cursor, a ser posicionado em um vértice antes do uso
+     */
+    public CursorAdjacencia cursor() {
+        return new Cursor();
+    }
+
+    // percorre as entradas do vértice atual sem validar cada posição
+    private class Cursor implements CursorAdjacencia {
+        private int v;              // vértice atual
+        private long i;             // posição da entrada atual
+        private long fim;           // fim das entradas de v
+
+        public void posiciona(int v) {
+            this.i = inicio(v) - 1;
+            this.fim = getLong(TAMANHO_CABECALHO + 8L * (v + 1));
+            this.v = v;
+        }
+
+        public boolean temProxima() {
+            return i + 1 < fim;
+        }
+
+        public int proxima() {
+            if (i + 1 >= fim) throw new NoSuchElementException("não há mais arestas de " + v);
+            return getInt(posicaoDestinos + 4 * ++i);
+        }
+
+        public double peso() {
+            if (bytesPeso == 8) return getDouble(posicaoPesos + 8 * i);
+            if (bytesPeso == 4) return getFloat(posicaoPesos + 4 * i);
+            return 0.0;
+        }
+    }
+
+    /**
+     * Confere o CRC32 do corpo do arquivo com o gravado no cabeçalho, lendo o arquivo inteiro.
+     * @return verdadeiro se o arquivo está íntegro
+     */
+    public boolean checaIntegridade() {
+        CRC32 crc = new CRC32();
+        for (int s = 0; s < segmentos.length; s++) {
+            ByteBuffer b = segmentos[s].duplicate();
+            if (s == 0) b.position(TAMANHO_CABECALHO);
+            crc.update(b);
+        }
+        return crc.getValue() == checksum;
+    }
+
+    /**
+     * Retorna uma representação String deste grafo, no mesmo formato das classes de grafo.
+     * @return uma representação String deste grafo
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(V + " " + A + NEWLINE);
+        for (int v = 0; v < V; v++) {
+            s.append(v + ": ");
+            for (Aresta a : adj(v)) {
+                s.append(a + "  ");
+            }
+            s.append(NEWLINE);
+        }
+        return s.toString();
+    }
+
+    /**
+     * Grava o dígrafo no arquivo binário.
+     * @param  G o dígrafo
+     * @param  arquivo o arquivo a ser gravado
+     * @throws IllegalArgumentException se o arquivo não puder ser gravado
+     */
+    public static void grava(Digrafo G, File arquivo) {
+        grava(arquivo, true, 0, G);
+    }
+
+    /**
+     * Grava o dígrafo ponderado no arquivo binário.
+     * @param  G o dígrafo ponderado
+     * @param  arquivo o arquivo a ser gravado
+     * @param  precisao a precisão dos pesos
+     * @throws IllegalArgumentException se o arquivo não puder ser gravado
+     */
+    public static void grava(DigrafoPonderado G, File arquivo, Precisao precisao) {
+        grava(arquivo, true, bytes(precisao), G);
+    }
+
+    /**
+     * Grava o grafo no arquivo binário.
+     * @param  G o grafo
+     * @param  arquivo o arquivo a ser gravado
+     * @throws IllegalArgumentException se o arquivo não puder ser gravado
+     */
+    public static void grava(Grafo G, File arquivo) {
+        grava(arquivo, false, 0, G);
+    }
+
+    /**
+     * Grava o grafo ponderado no arquivo binário.
+     * @param  G o grafo ponderado
+     * @param  arquivo o arquivo a ser gravado
+     * @param  precisao a precisão dos pesos
+     * @throws IllegalArgumentException se o arquivo não puder ser gravado
+     */
+    public static void grava(GrafoPonderado G, File arquivo, Precisao precisao) {
+        grava(arquivo, false, bytes(precisao), G);
+    }
+
+    private static int bytes(Precisao precisao) {
+        return precisao == Precisao.FLOAT ? 4 : 8;
+    }
+
+    // grava cabeçalho, deslocamentos, destinos e pesos a partir das listas de adjacências
+    private static void grava(File arquivo, boolean direcionado, int bytesPeso, AcessoGrafo G) {
+        int V = G.V();
+        int A = G.A();
+        CursorAdjacencia c = G.cursor();
+        try {
+            RandomAccessFile raf = new RandomAccessFile(arquivo, "rw");
+            try {
+                raf.setLength(0);
+                FileChannel canal = raf.getChannel();
+                canal.position(TAMANHO_CABECALHO);
+                CheckedOutputStream corpo = new CheckedOutputStream(Channels.newOutputStream(canal), new CRC32());
+                DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(corpo, TAMANHO_BUFFER));
+                long L = 0;
+                for (int v = 0; v < V; v++) {
+                    saida.writeLong(L);
+                    L += G.grau(v);
+                }
+                saida.writeLong(L);
+                for (int v = 0; v < V; v++)
+                    for (c.posiciona(v); c.temProxima(); )
+                        saida.writeInt(c.proxima());
+                if (bytesPeso != 0) {
+                    long posicao = TAMANHO_CABECALHO + 8L * (V + 1) + 4 * L;
+                    for (long p = posicao; p < alinha(posicao); p++) saida.writeByte(0);
+                    for (int v = 0; v < V; v++) {
+                        for (c.posiciona(v); c.temProxima(); ) {
+                            c.proxima();
+                            if (bytesPeso == 4) saida.writeFloat((float) c.peso());
+                            else                saida.writeDouble(c.peso());
+                        }
+                    }
+                }
+                saida.flush();
+
+                ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+                cabecalho.putInt(MAGICO);
+                cabecalho.putInt(VERSAO);
+                cabecalho.putInt((direcionado ? DIRECIONADO : 0) | (bytesPeso != 0 ? PONDERADO : 0));
+                cabecalho.putInt(bytesPeso);
+                cabecalho.putInt(V);
+                cabecalho.putInt(A);
+                cabecalho.putLong(L);
+                cabecalho.putLong(corpo.getChecksum().getValue());
+                cabecalho.clear();
+                canal.write(cabecalho, 0);
+            }
+            finally {
+                raf.close();
+            }
+        }
+        catch (IOException ioe) {
+            throw new IllegalArgumentException("Não foi possível gravar " + arquivo, ioe);
+        }
+    }
+
+    /**
+     * Testa a classe GrafoBinario.
+     */
+    public static void main(String[] args) throws IOException {
+        String tipo = args[0];
+        In in = new In(args[1]);
+        Precisao precisao = args.length > 2 && args[2].equals("float") ? Precisao.FLOAT : Precisao.DOUBLE;
+        File binario = File.createTempFile("grafo", ".bin");
+        binario.deleteOnExit();
+        if      (tipo.equals("digrafo"))          grava(new Digrafo(in), binario);
+        else if (tipo.equals("digrafoPonderado")) grava(new DigrafoPonderado(in), binario, precisao);
+        else if (tipo.equals("grafo"))            grava(new Grafo(in), binario);
+        else                                      grava(new GrafoPonderado(in), binario, precisao);
+        GrafoBinario G = new GrafoBinario(binario);
+        System.out.println(G);
+        System.out.println(G.checaIntegridade() ? "checksum ok" : "checksum inválido");
+        binario.delete();
+    }
+
+}
@@ -1,7 +1,7 @@
 /*******************************************************************************
  *  Compilação:        javac GrafoPonderado.java
  *  Execução:          java GrafoPonderado dados.txt
- *  Dependências:      Aresta.java
+ *  Dependências:      Aresta.java NucleoGrafo.java AcessoGrafo.java CursorAdjacencia.java
  *  Arquivos de dados: GrafoPonderado1.txt
  *  Link dos dados:    https://drive.google.com/open?id=0B3q56TwNCeXoenFyMnlzX2ZyXzg
  *
@@ -17,26 +17,33 @@
  *  5: 5-1 0,32000  5-7 0,28000  5-4 0,35000  
  *  6: 6-4 0,93000  6-0 0,58000  6-3 0,52000  6-2 0,40000  
  *  7: 7-2 0,34000  7-1 0,19000  7-0 0,16000  7-5 0,28000  7-4 0,37000
+ *  
+ *  arestas() em paralelo: mesmas arestas do percurso sequencial
  *
  ******************************************************************************/
 package br.edu.ifes.si.tpa;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.stream.Collectors;
 
 /**
  * Esta classe implementa a representação do grafo ponderado com lista de adjacências.
+ * Os pesos são guardados em double, a menos que outra forma seja escolhida no construtor
+ * (ver {@link NucleoGrafo.Pesos}). Cada aresta é guardada uma única vez, como um registro com as
+ * extremidades e o peso, e as listas de v e de w guardam apenas o índice desse registro. adj() e arestas()
+ * criam novos objetos Aresta, e a aresta v-w aparece como v-w na lista de v e como w-v na lista de w; arestas() e arestasNaoDirecionadas() retornam cada aresta uma única vez, com a orientação
+ * em que foi adicionada. Os algoritmos de árvore geradora mínima leem os
+ * registros diretamente, sem criar objetos Aresta (ver {@link VetorArestas}).
+ * <p>
+ * Os objetos Aresta passados a addAresta() não são guardados nem retornados: adj(v) cria um novo objeto
+ * Aresta a cada get(), de modo que as arestas retornadas não são as do chamador nem o mesmo objeto em duas
+ * chamadas, e devem ser comparadas pelas extremidades e pelo peso, não por referência. Quem guardava
+ * referências às arestas adicionadas (por exemplo, como chaves) deve guardar as suas próprias.
  * Para documentação adicional, acesse:
  * <a href="http://algs4.cs.princeton.edu/43mst/">Section 4.3</a> of
  * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
  */
-public class GrafoPonderado {
-
-    private static final String NEWLINE = System.getProperty("line.separator");
-
-    private final int V;         // número de vértices no grafo
-    private int A;               // número de arestas no grafo
-    private List<Aresta>[] adj;  // adj[v1] = lista de adjacência do vértice v1
+public class GrafoPonderado extends NucleoGrafo {
 
     /**
      * Inicializa um grafo com V vértices e 0 arestas.
@@ -44,15 +51,17 @@ public class GrafoPonderado {
      * @throws IllegalArgumentException se V < 0
      */
     public GrafoPonderado(int V) {
-        if (V < 0) {
-            throw new IllegalArgumentException("Número de vértices no grafo deve ser não negativo");
-        }
-        this.V = V;
-        this.A = 0;
-        adj = new ArrayList[V];
-        for (int v = 0; v < V; v++) {
-            adj[v] = new ArrayList<>();
-        }
+        this(V, Pesos.DOUBLE);
+    }
+
+    /**
+     * Inicializa um grafo com V vértices e 0 arestas, guardando os pesos da forma dada.
+     * @param  V o número de vértices
+     * @param  pesos a forma de guardar os pesos
+     * @throws IllegalArgumentException se V < 0
+     */
+    public GrafoPonderado(int V, Pesos pesos) {
+        super(V, false, pesos);
     }
 
     /**  
@@ -64,7 +73,19 @@ public class GrafoPonderado {
      * @throws IllegalArgumentException se o número de vértices ou arestas for negativo
      */
     public GrafoPonderado(In in) {
-        this(in.readInt());
+        this(in, Pesos.DOUBLE);
+    }
+
+    /**
+     * Inicializa um grafo à partir de um arquivo de dados, guardando os pesos da forma dada.
+     * @param  in o arquivo de entrada de dados
+     * @param  pesos a forma de guardar os pesos
+     * @throws IndexOutOfBoundsException se os pontos finais de qualquer borda estão fora da área prescrita
+     * @throws IllegalArgumentException se o número de vértices ou arestas for negativo, ou se algum
+     *         peso não puder ser guardado na forma escolhida
+     */
+    public GrafoPonderado(In in, Pesos pesos) {
+        this(in.readInt(), pesos);
         int A = in.readInt();
         if (A < 0) {
             throw new IllegalArgumentException("Número de arestas deve ser não negativo");
@@ -73,114 +94,10 @@ public class GrafoPonderado {
             int v1 = in.readInt();
             int v2 = in.readInt();
             double peso = in.readDouble();
-            addAresta(new Aresta(v1, v2, peso));
+            addAresta(v1, v2, peso);
         }
     }
 
-    /**
-     * Retorna o número de vértices do dígrafo.
-     * @return o número de vértices do dígrafo
-     */
-    public int V() {
-        return V;
-    }
-
-    /**
-     * Retorna o número de arestas do dígrafo.
-     * @return o número de arestas do dígrafo
-     */
-    public int A() {
-        return A;
-    }
-
-    /**
-     * Valida vértice do dígrafo.
-     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
-     */
-    private void validaVertice(int v) {
-        if (v < 0 || v >= V)
-            throw new IndexOutOfBoundsException("vértice " + v + " não está entre 0 e " + (V-1));
-    }
-
-    /**
-     * Adiciona aresta direcionada a no grafo.
-     * @param  a a aresta
-     * @throws IndexOutOfBoundsException caso extremidades não estejam entre 0 e V-1
-     */
-    public void addAresta(Aresta a) {
-        int v1 = a.umVertice();
-        int v2 = a.outroVertice(v1);
-        validaVertice(v1);
-        validaVertice(v2);
-        adj[v1].add(0, a);
-        Aresta a2 = new Aresta(a.getV2(), a.getV1(), a.peso());
-        adj[v2].add(0, a2);
-        A++;
-    }
-
-    /**
-     * Retorna as arestas incidentes no vértice v.
-     * @param  v o vértice
-     * @return as arestas incidentes no vértice v como um Iterable
-     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
-     */
-    public List<Aresta> adj(int v) {
-        validaVertice(v);
-        return adj[v];
-    }
-
-    /**
-     * Retorna o grau do vértice v.
-     * @param v o vértice
-     * @return o grau do vértice v
-     * @throws IndexOutOfBoundsException caso não seja 0 <= v < V
-     */
-    public int grau(int v) {
-        validaVertice(v);
-        return adj[v].size();
-    }
-
-    /**
-     * Retorna todas as arestas neste grafo.
-     * @return todas as arestas neste grafo, como um Iterable
-     */
-    public List<Aresta> arestas() {
-        List<Aresta> lista = new ArrayList<Aresta>();
-        for (int v = 0; v < V; v++) {
-            int selfLoops = 0;
-            for (Aresta a : adj(v)) {
-                if (a.outroVertice(v) > v) {
-                    lista.add(a);
-                    lista.add(v, a);
-                } // only add one copy of each self loop (self loops will be consecutive)
-                else if (a.outroVertice(v) == v) {
-                    if (selfLoops % 2 == 0) {
-                        lista.add(a);
-                    }
-                    selfLoops++;
-                }
-            }
-        }
-        return lista;
-    }
-
-    /**
-     * Retorna uma representação String deste grafo.
-     * @return uma representação String deste grafo
-     */
-    public String toString() {
-        StringBuilder s = new StringBuilder();
-        s.append(V + " " + A + NEWLINE);
-        for (int v = 0; v < V; v++) {
-            s.append(v + ": ");
-            for (Aresta a : adj[v]) {
-                s.append(a + "  ");
-            }
-            s.append(NEWLINE);
-        }
-        return s.toString();
-    }
-
     /**
      * Testa a classe GrafoPonderado.
      */
@@ -188,6 +105,13 @@ public class GrafoPonderado {
         In in = new In(args[0]);
         GrafoPonderado G = new GrafoPonderado(in);
         System.out.println(G);
+
+        // arestas() percorrida em paralelo deve dar as mesmas arestas, na mesma ordem, que o percurso sequencial
+        String sequencial = G.arestas().toString();
+        String vetor = Arrays.toString(G.arestas().parallelStream().toArray());
+        String lista = G.arestas().parallelStream().collect(Collectors.toList()).toString();
+        boolean iguais = sequencial.equals(vetor) && sequencial.equals(lista);
+        System.out.println("arestas() em paralelo: " + (iguais ? "mesmas arestas" : "arestas diferentes") + " do percurso sequencial");
     }
 
 }
@@ -10,20 +10,29 @@
 package br.edu.ifes.si.tpa;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.net.Socket;
 // import java.net.HttpURLConnection;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.InputMismatchException;
 import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
 import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 /**
  *  <i>Input</i>. This class provides methods for reading strings
@@ -48,7 +57,21 @@ import java.util.regex.Pattern;
  *  consist of \n, \r, \r\n, and Unicode hex code points 0x2028, 0x2029, 0x0085;
  *  see <tt><a href="http://www.docjar.com/html/api/java/util/Scanner.java.html">
  *  Scanner.java</a></tt> (NB: Java 6u23 and earlier uses only \r, \r, \r\n).
- *
+ *  <p>
+ *  Input streams created from a local file read tokens with a hand-written
+ *  byte-level tokenizer over a {@link FileChannel} and a large direct
+ *  {@link ByteBuffer} instead of {@link Scanner}; {@link #readInt()},
+ *  {@link #readLong()} and {@link #readDouble()} do not allocate for plain
+ *  decimal tokens. In this mode the bytes 0x00..0x20 are the token separators
+ *  (non-ASCII whitespace is part of a token), and tokens the tokenizer cannot
+ *  parse on its own (e.g. with grouping separators) are handed to a
+ *  {@link Scanner} so the result is the same. The first call to a line or
+ *  character based method switches the stream to a {@link Scanner} over the
+ *  remaining input. In the same mode {@link #readAllInts()},
+ *  {@link #readAllLongs()} and {@link #readAllDoubles()} memory-map the rest
+ *  of the file and parse it straight into a presized array; files larger than
+ *  the mapping limit are split into chunks at whitespace boundaries that are
+ *  parsed in parallel.
  *  @author David Pritchard
  *  @author Robert Sedgewick
  *  @author Kevin Wayne
@@ -79,7 +102,11 @@ public final class In {
 
     //// end: section (1 of 2) of code duplicated from In to StdIn.
 
+    // largest chunk mapped at once by the readAll methods (a mapping is limited to 2GB)
+    private static final long MAPPED_CHUNK_SIZE = Integer.MAX_VALUE;
+
     private Scanner scanner;
+    private ByteTokenizer tokenizer;   // non-null while reading a local file in the fast mode
 
    /**
      * Initializes an input stream from standard input.
@@ -138,11 +165,8 @@ public final class In {
     public In(File file) {
         if (file == null) throw new NullPointerException("argument is null");
         try {
-            // for consistency with StdIn, wrap with BufferedInputStream instead of use
-            // file as argument to Scanner
             FileInputStream fis = new FileInputStream(file);
-            scanner = new Scanner(new BufferedInputStream(fis), CHARSET_NAME);
-            scanner.useLocale(LOCALE);
+            tokenizer = new ByteTokenizer(fis.getChannel());
         }
         catch (IOException ioe) {
             throw new IllegalArgumentException("Could not open " + file);
@@ -164,11 +188,8 @@ public final class In {
             // first try to read file from local file system
             File file = new File(name);
             if (file.exists()) {
-                // for consistency with StdIn, wrap with BufferedInputStream instead of use
-                // file as argument to Scanner
                 FileInputStream fis = new FileInputStream(file);
-                scanner = new Scanner(new BufferedInputStream(fis), CHARSET_NAME);
-                scanner.useLocale(LOCALE);
+                tokenizer = new ByteTokenizer(fis.getChannel());
                 return;
             }
 
@@ -216,7 +237,16 @@ public final class In {
      * @return <tt>true</tt> if this input stream exists; <tt>false</tt> otherwise
      */
     public boolean exists()  {
-        return scanner != null;
+        return scanner != null || tokenizer != null;
+    }
+
+    // returns the scanner, switching from the fast tokenizer to a scanner over the remaining input if needed
+    private Scanner scanner() {
+        if (tokenizer != null) {
+            scanner = tokenizer.toScanner();
+            tokenizer = null;
+        }
+        return scanner;
     }
     
     ////  begin: section (2 of 2) of code duplicated from In to StdIn,
@@ -231,6 +261,7 @@ public final class In {
      *         <tt>false</tt> otherwise
      */
     public boolean isEmpty() {
+        if (tokenizer != null) return tokenizer.isEmpty();
         return !scanner.hasNext();
     }
 
@@ -244,7 +275,7 @@ public final class In {
      *         <tt>false</tt> otherwise
      */
     public boolean hasNextLine() {
-        return scanner.hasNextLine();
+        return scanner().hasNextLine();
     }
 
     /**
@@ -256,6 +287,7 @@ public final class In {
      *         <tt>false</tt> otherwise   
      */
     public boolean hasNextChar() {
+        Scanner scanner = scanner();
         scanner.useDelimiter(EMPTY_PATTERN);
         boolean result = scanner.hasNext();
         scanner.useDelimiter(WHITESPACE_PATTERN);
@@ -271,7 +303,7 @@ public final class In {
     public String readLine() {
         String line;
         try {
-            line = scanner.nextLine();
+            line = scanner().nextLine();
         }
         catch (NoSuchElementException e) {
             line = null;
@@ -285,6 +317,7 @@ public final class In {
      * @return the next character in this input stream
      */
     public char readChar() {
+        Scanner scanner = scanner();
         scanner.useDelimiter(EMPTY_PATTERN);
         String ch = scanner.next();
         assert ch.length() == 1 : "Internal (Std)In.readChar() error!"
@@ -300,6 +333,7 @@ public final class In {
      * @return the remainder of this input stream, as a string
      */
     public String readAll() {
+        Scanner scanner = scanner();
         if (!scanner.hasNextLine())
             return "";
 
@@ -316,6 +350,7 @@ public final class In {
      * @return the next <tt>String</tt> in this input stream
      */
     public String readString() {
+        if (tokenizer != null) return tokenizer.readString();
         return scanner.next();
     }
 
@@ -326,6 +361,7 @@ public final class In {
      * @return the next <tt>int</tt> in this input stream
      */
     public int readInt() {
+        if (tokenizer != null) return tokenizer.readInt();
         return scanner.nextInt();
     }
 
@@ -336,6 +372,7 @@ public final class In {
      * @return the next <tt>double</tt> in this input stream
      */
     public double readDouble() {
+        if (tokenizer != null) return tokenizer.readDouble();
         return scanner.nextDouble();
     }
 
@@ -346,6 +383,7 @@ public final class In {
      * @return the next <tt>float</tt> in this input stream
      */
     public float readFloat() {
+        if (tokenizer != null) return tokenizer.readFloat();
         return scanner.nextFloat();
     }
 
@@ -356,6 +394,7 @@ public final class In {
      * @return the next <tt>long</tt> in this input stream
      */
     public long readLong() {
+        if (tokenizer != null) return tokenizer.readLong();
         return scanner.nextLong();
     }
 
@@ -366,6 +405,7 @@ public final class In {
      * @return the next <tt>short</tt> in this input stream
      */
     public short readShort() {
+        if (tokenizer != null) return tokenizer.readShort();
         return scanner.nextShort();
     }
 
@@ -378,6 +418,7 @@ public final class In {
      * @return the next <tt>byte</tt> in this input stream
      */
     public byte readByte() {
+        if (tokenizer != null) return tokenizer.readByte();
         return scanner.nextByte();
     }
 
@@ -437,6 +478,16 @@ public final class In {
      * @return all remaining lines in this input stream, as an array of integers
      */
     public int[] readAllInts() {
+        if (tokenizer != null) {
+            final ByteTokenizer[] chunks = mapRemaining();
+            final long[] start = countTokens(chunks);
+            final int[] vals = new int[arrayLength(start[chunks.length])];
+            chunks(chunks.length).forEach(c -> {
+                for (int i = (int) start[c]; i < start[c + 1]; i++)
+                    vals[i] = chunks[c].readInt();
+            });
+            return vals;
+        }
         String[] fields = readAllStrings();
         int[] vals = new int[fields.length];
         for (int i = 0; i < fields.length; i++)
@@ -451,6 +502,16 @@ public final class In {
      * @return all remaining lines in this input stream, as an array of longs
      */
     public long[] readAllLongs() {
+        if (tokenizer != null) {
+            final ByteTokenizer[] chunks = mapRemaining();
+            final long[] start = countTokens(chunks);
+            final long[] vals = new long[arrayLength(start[chunks.length])];
+            chunks(chunks.length).forEach(c -> {
+                for (int i = (int) start[c]; i < start[c + 1]; i++)
+                    vals[i] = chunks[c].readLong();
+            });
+            return vals;
+        }
         String[] fields = readAllStrings();
         long[] vals = new long[fields.length];
         for (int i = 0; i < fields.length; i++)
@@ -465,6 +526,16 @@ public final class In {
      * @return all remaining lines in this input stream, as an array of doubles
      */
     public double[] readAllDoubles() {
+        if (tokenizer != null) {
+            final ByteTokenizer[] chunks = mapRemaining();
+            final long[] start = countTokens(chunks);
+            final double[] vals = new double[arrayLength(start[chunks.length])];
+            chunks(chunks.length).forEach(c -> {
+                for (int i = (int) start[c]; i < start[c + 1]; i++)
+                    vals[i] = chunks[c].readDouble();
+            });
+            return vals;
+        }
         String[] fields = readAllStrings();
         double[] vals = new double[fields.length];
         for (int i = 0; i < fields.length; i++)
@@ -474,11 +545,342 @@ public final class In {
     
     ///// end: section (2 of 2) of code duplicated from In to StdIn */
 
+    // maps the unread part of the file in chunks of at most MAPPED_CHUNK_SIZE bytes,
+    // each ending at a whitespace byte (or at the end of the file), and consumes it
+    private ByteTokenizer[] mapRemaining() {
+        try {
+            FileChannel channel = tokenizer.channel;
+            long position = tokenizer.position();
+            long size = channel.size();
+            ArrayList<ByteTokenizer> chunks = new ArrayList<ByteTokenizer>();
+            ByteBuffer probe = ByteBuffer.allocate(4096);
+            while (position < size) {
+                long end = Math.min(size, position + MAPPED_CHUNK_SIZE);
+                // move the end back to the last whitespace byte of the chunk
+                while (end < size) {
+                    long from = Math.max(position, end - probe.capacity());
+                    probe.clear();
+                    probe.limit((int) (end - from));
+                    while (probe.hasRemaining() && channel.read(probe, from + probe.position()) >= 0) { }
+                    int i = probe.position() - 1;
+                    while (i >= 0 && !isWhitespace(probe.get(i))) i--;
+                    if (i >= 0) { end = from + i + 1; break; }
+                    if (from == position) throw new IllegalArgumentException("token longer than " + MAPPED_CHUNK_SIZE + " bytes");
+                    end = from;
+                }
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, end - position);
+                chunks.add(new ByteTokenizer(mapped));
+                position = end;
+            }
+            tokenizer.skipToEnd();
+            return chunks.toArray(new ByteTokenizer[chunks.size()]);
+        }
+        catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+    }
+
+    // counts the tokens of each chunk; returns start[c] = index of the first token of chunk c
+    private static long[] countTokens(final ByteTokenizer[] chunks) {
+        final long[] start = new long[chunks.length + 1];
+        chunks(chunks.length).forEach(c -> start[c + 1] = chunks[c].countTokens());
+        for (int c = 0; c < chunks.length; c++)
+            start[c + 1] += start[c];
+        return start;
+    }
+
+    // chunk indices, in parallel when there is more than one chunk
+    private static IntStream chunks(int n) {
+        IntStream range = IntStream.range(0, n);
+        return n > 1 ? range.parallel() : range;
+    }
+
+    private static int arrayLength(long n) {
+        if (n > Integer.MAX_VALUE - 8) throw new IllegalArgumentException(n + " values do not fit in an array");
+        return (int) n;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
    /**
      * Closes this input stream.
      */
     public void close() {
-        scanner.close();  
+        if (tokenizer != null) tokenizer.close();
+        else                   scanner.close();
+    }
+
+    /**
+     * Byte-level tokenizer used for local files: reads the file through a
+     * {@link FileChannel} into a direct buffer and parses numbers straight from
+     * the token bytes, falling back to a {@link Scanner} on the token for
+     * anything that is not a plain decimal number. Package-private so that the
+     * graph loaders of this package parse mapped files exactly as In does.
+     */
+    static final class ByteTokenizer {
+        private static final int BUFFER_SIZE = 1 << 20;
+        private static final double[] POWERS_OF_TEN = {
+            1e0,  1e1,  1e2,  1e3,  1e4,  1e5,  1e6,  1e7,  1e8,  1e9,  1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+        };
+
+        private final FileChannel channel;     // null when reading a mapped chunk
+        private final ByteBuffer buffer;
+        private byte[] token = new byte[64];   // bytes of the current token
+        private int length;                    // length of the current token
+        private boolean eof;                   // channel exhausted?
+
+        ByteTokenizer(FileChannel channel) {
+            this.channel = channel;
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.flip();                     // start with an empty buffer in read mode
+        }
+
+        // tokenizer over a mapped chunk of a file
+        ByteTokenizer(MappedByteBuffer mapped) {
+            this.channel = null;
+            this.buffer = mapped;
+            eof = true;
+        }
+
+        // offset in the file of the first unread byte
+        long position() throws IOException {
+            return channel.position() - buffer.remaining();
+        }
+
+        // marks the whole file as read
+        void skipToEnd() throws IOException {
+            channel.position(channel.size());
+            buffer.clear();
+            buffer.flip();
+            eof = true;
+        }
+
+        // number of tokens in the unread part of the buffer, without consuming them
+        long countTokens() {
+            long count = 0;
+            boolean inToken = false;
+            for (int i = buffer.position(), n = buffer.limit(); i < n; i++) {
+                boolean whitespace = isWhitespace(buffer.get(i));
+                if (!whitespace && !inToken) count++;
+                inToken = !whitespace;
+            }
+            return count;
+        }
+
+        // reads more bytes into the buffer; returns false at end of input
+        private boolean fill() {
+            if (eof) return false;
+            try {
+                buffer.compact();
+                int n;
+                do {
+                    n = channel.read(buffer);
+                } while (n == 0);
+                buffer.flip();
+                if (n < 0) eof = true;
+            }
+            catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+            return buffer.hasRemaining();
+        }
+
+        // skips separators; returns false at end of input
+        private boolean skipWhitespace() {
+            while (true) {
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get(buffer.position());
+                    if (!isWhitespace(b)) return true;
+                    buffer.position(buffer.position() + 1);
+                }
+                if (!fill()) return false;
+            }
+        }
+
+        // reads the next token into token[0..length)
+        private void nextToken() {
+            if (!skipWhitespace()) throw new NoSuchElementException();
+            length = 0;
+            while (true) {
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get(buffer.position());
+                    if (isWhitespace(b)) return;
+                    if (length == token.length) {
+                        byte[] temp = new byte[2 * length];
+                        System.arraycopy(token, 0, temp, 0, length);
+                        token = temp;
+                    }
+                    token[length++] = b;
+                    buffer.position(buffer.position() + 1);
+                }
+                if (!fill()) return;
+            }
+        }
+
+        // the current token as a string
+        private String tokenString() {
+            return new String(token, 0, length, StandardCharsets.UTF_8);
+        }
+
+        // a scanner over the current token, for tokens the fast path does not handle
+        private Scanner tokenScanner() {
+            Scanner s = new Scanner(tokenString());
+            s.useLocale(LOCALE);
+            return s;
+        }
+
+        boolean isEmpty() {
+            return !skipWhitespace();
+        }
+
+        String readString() {
+            nextToken();
+            return tokenString();
+        }
+
+        // parses the current token as a plain decimal long; returns false if it is not one
+        private long parsed;
+        private boolean parseLong() {
+            int i = 0;
+            boolean negative = false;
+            if (length > 0 && (token[0] == '-' || token[0] == '+')) {
+                negative = token[0] == '-';
+                i++;
+            }
+            if (i == length) return false;
+            long value = 0;            // accumulated as a negative number to reach Long.MIN_VALUE
+            for (; i < length; i++) {
+                int d = token[i] - '0';
+                if (d < 0 || d > 9) return false;
+                if (value < (Long.MIN_VALUE + d) / 10) return false;
+                value = value * 10 - d;
+            }
+            if (!negative && value == Long.MIN_VALUE) return false;
+            parsed = negative ? value : -value;
+            return true;
+        }
+
+        long readLong() {
+            nextToken();
+            if (parseLong()) return parsed;
+            return tokenScanner().nextLong();
+        }
+
+        int readInt() {
+            nextToken();
+            if (parseLong() && parsed >= Integer.MIN_VALUE && parsed <= Integer.MAX_VALUE) return (int) parsed;
+            return tokenScanner().nextInt();
+        }
+
+        short readShort() {
+            nextToken();
+            if (parseLong() && parsed >= Short.MIN_VALUE && parsed <= Short.MAX_VALUE) return (short) parsed;
+            return tokenScanner().nextShort();
+        }
+
+        byte readByte() {
+            nextToken();
+            if (parseLong() && parsed >= Byte.MIN_VALUE && parsed <= Byte.MAX_VALUE) return (byte) parsed;
+            return tokenScanner().nextByte();
+        }
+
+        // parses the current token as a decimal double of at most 15 significant digits and a small
+        // exponent, correctly rounded; returns false if it is not one
+        private double parsedDouble;
+        private boolean parseDouble() {
+            int i = 0;
+            boolean negative = false;
+            if (length > 0 && (token[0] == '-' || token[0] == '+')) {
+                negative = token[0] == '-';
+                i++;
+            }
+            long mantissa = 0;
+            int digits = 0;            // significant digits in the mantissa
+            int exponent = 0;          // decimal exponent applied to the mantissa
+            boolean any = false;
+            for (; i < length && token[i] >= '0' && token[i] <= '9'; i++) {
+                any = true;
+                if (mantissa == 0 && token[i] == '0') continue;
+                mantissa = mantissa * 10 + (token[i] - '0');
+                if (++digits > 15) return false;
+            }
+            if (i < length && token[i] == '.') {
+                for (i++; i < length && token[i] >= '0' && token[i] <= '9'; i++) {
+                    any = true;
+                    exponent--;
+                    if (mantissa == 0 && token[i] == '0') continue;
+                    mantissa = mantissa * 10 + (token[i] - '0');
+                    if (++digits > 15) return false;
+                }
+            }
+            if (!any) return false;
+            if (i < length && (token[i] == 'e' || token[i] == 'E')) {
+                i++;
+                boolean negativeExponent = false;
+                if (i < length && (token[i] == '-' || token[i] == '+')) {
+                    negativeExponent = token[i] == '-';
+                    i++;
+                }
+                if (i == length) return false;
+                int e = 0;
+                for (; i < length && token[i] >= '0' && token[i] <= '9'; i++) {
+                    if (e > 1000) return false;
+                    e = e * 10 + (token[i] - '0');
+                }
+                exponent += negativeExponent ? -e : e;
+            }
+            if (i != length) return false;
+
+            // mantissa < 10^15 < 2^53 and 10^|exponent| are exact doubles,
+            // so a single multiplication or division is correctly rounded
+            double value;
+            if (mantissa == 0)                       value = 0.0;
+            else if (exponent >= 0 && exponent <= 22) value = mantissa * POWERS_OF_TEN[exponent];
+            else if (exponent < 0 && exponent >= -22) value = mantissa / POWERS_OF_TEN[-exponent];
+            else                                      return false;
+            parsedDouble = negative ? -value : value;
+            return true;
+        }
+
+        double readDouble() {
+            nextToken();
+            if (parseDouble()) return parsedDouble;
+            return tokenScanner().nextDouble();
+        }
+
+        // narrowing the correctly rounded double gives the correctly rounded float unless the double
+        // fell exactly on a midpoint between two floats (or outside the float range)
+        float readFloat() {
+            nextToken();
+            if (parseDouble()) {
+                float f = (float) parsedDouble;
+                double midpoint = ((double) f + Math.nextAfter(f, parsedDouble)) / 2;
+                if (!Float.isInfinite(f) && (f == parsedDouble || parsedDouble != midpoint)) return f;
+            }
+            return tokenScanner().nextFloat();
+        }
+
+        // a scanner over everything not yet consumed
+        Scanner toScanner() {
+            byte[] rest = new byte[buffer.remaining()];
+            buffer.get(rest);
+            InputStream is = new SequenceInputStream(new ByteArrayInputStream(rest), Channels.newInputStream(channel));
+            Scanner s = new Scanner(new BufferedInputStream(is), CHARSET_NAME);
+            s.useLocale(LOCALE);
+            return s;
+        }
+
+        void close() {
+            try {
+                channel.close();
+            }
+            catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+        }
     }
 
     /**
@@ -0,0 +1,161 @@
+/******************************************************************************
+ *  Compilação:         javac IndiceArestas.java
+ *  Dependências:       nenhuma
+ *
+ *  Índice de pares (v, w) para consultar a existência de arestas em tempo constante.
+ *
+ ******************************************************************************/
+
+package br.edu.ifes.si.tpa;
+
+import java.util.Arrays;
+
+/**
+ * Esta classe implementa o índice de arestas usado por {@link NucleoGrafo}. Em grafos grandes ou esparsos
+ * o índice é uma tabela de espalhamento com endereçamento aberto (sondagem linear) cuja chave é o par
+ * (v, w) empacotado em um long, v nos 32 bits altos e w nos baixos, e cujo valor é a posição da aresta na
+ * lista de adjacências de v; a tabela dobra de tamanho quando passa da metade da capacidade, até 2<sup>30</sup>
+ * posições, e portanto guarda no máximo 2<sup>29</sup> pares. Em grafos
+ * sem pesos pequenos e densos o índice é uma matriz de V x V bits, que não guarda a posição.
+ * Para documentação adicional, acesse:
+ * <a href="http://algs4.cs.princeton.edu/34hash">Section 3.4</a> of
+ * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+final class IndiceArestas {
+    private static final long VAZIO = -1L;       // as chaves (v, w) com v, w >= 0 nunca são negativas
+    private static final int TAMANHO_MAXIMO = 1 << 30;  // maior potência de 2 que cabe em um vetor Java
+
+    private final int V;          // número de vértices
+    private long[] chaves;        // chaves da tabela (null na forma de matriz)
+    private int[] posicoes;       // posicoes[i] = posição da aresta chaves[i] na lista da origem
+    private int n;                // número de chaves na tabela
+    private final long[] bits;    // matriz de V x V bits, linha a linha (null na forma de tabela)
+
+    private IndiceArestas(int V, long capacidade, boolean matriz) {
+        this.V = V;
+        if (matriz) {
+            bits = new long[(int) (((long) V * V + 63) >>> 6)];
+        } else {
+            bits = null;
+            int m = 16;
+            while (m < 2L * capacidade && m < TAMANHO_MAXIMO) m <<= 1;
+            chaves = new long[m];
+            posicoes = new int[m];
+            Arrays.fill(chaves, VAZIO);
+        }
+    }
+
+    /**
+     * Cria um índice vazio na forma de tabela, com espaço para capacidade pares (até 2<sup>29</sup>) antes
+     * de redimensionar.
+     */
+    static IndiceArestas tabela(int V, long capacidade) {
+        return new IndiceArestas(V, capacidade, false);
+    }
+
+    /**
+     * Cria um índice vazio na forma de matriz de bits.
+     */
+    static IndiceArestas matriz(int V) {
+        return new IndiceArestas(V, 0, true);
+    }
+
+    /**
+     * Retorna verdadeiro se o índice é uma matriz de bits, que não guarda posições.
+     */
+    boolean matriz() {
+        return bits != null;
+    }
+
+    private static long chave(int v, int w) {
+        return (long) v << 32 | w;
+    }
+
+    // posição inicial da sondagem: espalhamento multiplicativo de Fibonacci
+    private int espalha(long chave) {
+        return (int) ((chave * 0x9E3779B97F4A7C15L) >>> 32) & (chaves.length - 1);
+    }
+
+    /**
+     * Insere o par (v, w) com a posição k, se ainda não está no índice.
+     * @return verdadeiro se o par foi inserido, falso se já estava no índice (que mantém a posição anterior)
+     * @throws IllegalStateException se a tabela já tem 2<sup>29</sup> pares e não pode mais crescer
+     */
+    boolean insere(int v, int w, int k) {
+        if (bits != null) {
+            long i = (long) v * V + w;
+            long mascara = 1L << i;
+            int palavra = (int) (i >>> 6);
+            if ((bits[palavra] & mascara) != 0) return false;
+            bits[palavra] |= mascara;
+            return true;
+        }
+        long chave = chave(v, w);
+        int i;
+        for (i = espalha(chave); chaves[i] != VAZIO; i = (i + 1) & (chaves.length - 1))
+            if (chaves[i] == chave) return false;
+        verificaEspaco(1);
+        chaves[i] = chave;
+        posicoes[i] = k;
+        if (++n > chaves.length / 2) redimensiona(2 * chaves.length);
+        return true;
+    }
+
+    /**
+     * Verifica se cabem mais novos pares no índice.
+     * @throws IllegalStateException se a tabela passaria de 2<sup>29</sup> pares, o máximo que ela comporta
+     */
+    void verificaEspaco(int novos) {
+        if (bits == null && n + novos > TAMANHO_MAXIMO / 2) throw cheio();
+    }
+
+    private static IllegalStateException cheio() {
+        return new IllegalStateException("índice de arestas cheio: a tabela comporta no máximo "
+                                         + TAMANHO_MAXIMO / 2 + " pares (v, w) distintos");
+    }
+
+    private void redimensiona(int capacidade) {
+        long[] antigas = chaves;
+        int[] antigasPosicoes = posicoes;
+        chaves = new long[capacidade];
+        posicoes = new int[capacidade];
+        Arrays.fill(chaves, VAZIO);
+        for (int j = 0; j < antigas.length; j++) {
+            if (antigas[j] == VAZIO) continue;
+            int i = espalha(antigas[j]);
+            while (chaves[i] != VAZIO) i = (i + 1) & (capacidade - 1);
+            chaves[i] = antigas[j];
+            posicoes[i] = antigasPosicoes[j];
+        }
+    }
+
+    /**
+     * Retorna verdadeiro se o par (v, w) está no índice.
+     */
+    boolean contem(int v, int w) {
+        if (bits != null) {
+            long i = (long) v * V + w;
+            return (bits[(int) (i >>> 6)] & 1L << i) != 0;
+        }
+        return posicao(v, w) >= 0;
+    }
+
+    /**
+     * Retorna a posição guardada para o par (v, w), ou -1 se o par não está no índice ou se o índice
+     * é uma matriz de bits.
+     */
+    int posicao(int v, int w) {
+        if (bits != null) return -1;
+        long chave = chave(v, w);
+        for (int i = espalha(chave); chaves[i] != VAZIO; i = (i + 1) & (chaves.length - 1))
+            if (chaves[i] == chave) return posicoes[i];
+        return -1;
+    }
+
+    /**
+     * Retorna o número aproximado de bytes ocupados pelo índice.
+     */
+    long bytes() {
+        return bits != null ? 16 + 8L * bits.length : 32 + 12L * chaves.length;
+    }
+}
@@ -0,0 +1,736 @@
+/*******************************************************************************
+ *  Compilação:        javac NucleoGrafo.java
+ *  Dependências:      Aresta.java AcessoGrafo.java CursorAdjacencia.java IndiceArestas.java
+ *                     DigrafoPonderadoCSR.java VetorArestas.java
+ *
+ *  Listas de adjacências com vetores primitivos, comuns a Digrafo, DigrafoPonderado,
+ *  Grafo e GrafoPonderado, com pesos opcionais (nenhum, int, float ou double).
+ *
+ ******************************************************************************/
+
+package br.edu.ifes.si.tpa;
+
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Esta classe implementa as listas de adjacências compartilhadas pelas classes {@link Digrafo},
+ * {@link DigrafoPonderado}, {@link Grafo} e {@link GrafoPonderado}, que apenas escolhem se o grafo é
+ * direcionado e como os pesos são guardados, e leem os seus arquivos de dados.
+ * <p>
+ * A lista de cada vértice v é um vetor de inteiros e, em dígrafos com pesos, um vetor paralelo de int,
+ * float ou double; não há um objeto por aresta, e um grafo sem pesos ocupa cerca de 4 bytes por entrada de
+ * adjacência. Os vetores crescem por duplicação, de modo que addAresta() leva tempo constante amortizado;
+ * compacta() libera a capacidade não usada. Objetos {@link Aresta} só são criados quando pedidos por adj()
+ * ou durante o percurso de arestas(); os algoritmos percorrem as listas com um {@link CursorAdjacencia}.
+ * <p>
+ * Algumas informações sobre as arestas são atualizadas a cada addAresta() e consultadas em tempo constante:
+ * menor e maior peso, número de arestas com peso negativo, se todos os pesos são inteiros, maior grau e
+ * número de laços. O número de arestas paralelas é contado em tempo O(V + A) na primeira consulta depois
+ * de adicionar arestas e guardado até a próxima adição. Os pesos considerados são os guardados, ou seja,
+ * já arredondados para float na forma FLOAT.
+ * <p>
+ * Depois de indexa(), um índice de pares (v, w) é mantido a cada addAresta(), e temAresta() e peso(v, w)
+ * levam tempo constante esperado em vez de percorrer a lista de v; o número de arestas paralelas também
+ * passa a ser atualizado a cada adição. Sem o índice essas consultas levam tempo proporcional ao grau de v.
+ * <p>
+ * O dígrafo reverso, pedido pelo método reverso() de {@link Digrafo} e {@link DigrafoPonderado}, é montado
+ * no formato CSR por ordenação por contagem dos destinos e guardado até a próxima adição de aresta.
+ * <p>
+ * Em grafos não direcionados cada aresta v-w ocupa uma posição na lista de v e outra na de w, e a posição
+ * da cópia, na lista de w, guarda um valor negativo, o que permite listar cada aresta uma única vez e com a
+ * orientação em que foi adicionada. Com pesos, cada aresta é guardada uma única vez, pelo seu identificador
+ * i (a ordem de adição), em um registro de inteiros com as duas extremidades e os bits do peso (3 inteiros
+ * com pesos int ou float, 4 com double); a posição na lista de v guarda i e a cópia na lista de w guarda ~i,
+ * e o vizinho é a outra extremidade da aresta i. O percurso das listas faz assim uma leitura indireta por
+ * aresta, ao registro, em troca de guardar o peso uma única vez. Sem pesos não há o que compartilhar: a
+ * posição na lista de v guarda w e a cópia guarda ~v. Os algoritmos de árvore geradora mínima leem as
+ * extremidades e os pesos diretamente dos registros, sem criar objetos Aresta. As listas de grafos não
+ * direcionados são percorridas da aresta mais recente para a mais antiga, a ordem das antigas listas com
+ * inserção no início.
+ * Para documentação adicional, acesse:
+ * <a href="http://algs4.cs.princeton.edu/41graph">Section 4.1</a> of
+ * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public abstract class NucleoGrafo implements AcessoGrafo {
+    private static final String NEWLINE = System.getProperty("line.separator");
+    private static final int[] VAZIA = new int[0];
+    private static final long LIMITE_MATRIZ = 1L << 26;   // maior matriz de bits do índice (8 MB)
+    private static final long BITS_POR_PAR = 192;         // bits por par (v, w) da tabela de espalhamento
+
+    /**
+     * Formas de guardar os pesos das arestas.
+     * NENHUM não guarda pesos (todos são 0); INT aceita apenas pesos inteiros;
+     * FLOAT guarda os pesos em precisão simples; DOUBLE guarda os pesos sem perda.
+     */
+    public enum Pesos { NENHUM, INT, FLOAT, DOUBLE }
+
+    private final int V;                  // número de vértices
+    private int A;                        // número de arestas
+    private final boolean direcionado;    // o grafo é direcionado?
+    private final Pesos pesos;            // forma de guardar os pesos
+    private final boolean compartilhado;  // arestas guardadas uma única vez (não direcionado, com pesos)?
+    private final int[][] destinos;       // destinos[v][0 .. grau[v]-1] = vizinhos de v (~w na cópia de w-v),
+                                          // ou identificadores das arestas (~i na cópia), se compartilhado
+    private final int[] grau;             // grau[v] = número de posições usadas em destinos[v]
+    private final int[][] pesosInt;       // pesos em paralelo com destinos, conforme a forma escolhida;
+    private final float[][] pesosFloat;   // os outros dois vetores são null (os três, se compartilhado)
+    private final double[][] pesosDouble;
+
+    private final int campos;             // inteiros por registro de aresta compartilhada (0 se não compartilhado)
+    private int[] registros;              // registros[campos*i ..] = extremidades e bits do peso da aresta i
+
+    private double pesoMinimo = Double.POSITIVE_INFINITY;  // menor peso guardado
+    private double pesoMaximo = Double.NEGATIVE_INFINITY;  // maior peso guardado
+    private int negativas;                // número de arestas com peso negativo
+    private int naoInteiras;              // número de arestas com peso não inteiro
+    private int grauMaximo;               // maior grau[v]
+    private int lacos;                    // número de arestas v-v
+    private int paralelas = -1;           // número de arestas paralelas (-1 se precisa ser contado)
+    private IndiceArestas indice;         // índice de pares (v, w), ou null antes de indexa()
+    private DigrafoPonderadoCSR reverso;  // dígrafo reverso guardado, ou null se precisa ser montado
+
+    /**
+     * Inicializa um grafo com V vértices e 0 arestas.
+     * @param  V o número de vértices
+     * @param  direcionado verdadeiro para um dígrafo
+     * @param  pesos a forma de guardar os pesos
+     * @throws IllegalArgumentException se V < 0
+     */
+    protected NucleoGrafo(int V, boolean direcionado, Pesos pesos) {
+        if (V < 0) throw new IllegalArgumentException("Número de vértices no " + (direcionado ? "dígrafo" : "grafo") + " deve ser não negativo");
+        this.V = V;
+        this.A = 0;
+        this.direcionado = direcionado;
+        this.pesos = pesos;
+        this.compartilhado = !direcionado && pesos != Pesos.NENHUM;
+        destinos = new int[V][];
+        grau = new int[V];
+        Arrays.fill(destinos, VAZIA);
+        Pesos porPosicao = compartilhado ? Pesos.NENHUM : pesos;
+        pesosInt = porPosicao == Pesos.INT ? new int[V][] : null;
+        pesosFloat = porPosicao == Pesos.FLOAT ? new float[V][] : null;
+        pesosDouble = porPosicao == Pesos.DOUBLE ? new double[V][] : null;
+        if (pesosInt != null) Arrays.fill(pesosInt, VAZIA);
+        if (pesosFloat != null) Arrays.fill(pesosFloat, new float[0]);
+        if (pesosDouble != null) Arrays.fill(pesosDouble, new double[0]);
+        campos = compartilhado ? VetorArestas.campos(pesos) : 0;
+        registros = compartilhado ? VAZIA : null;
+    }
+
+    /**
+     * Retorna o número de vértices.
+     * @return o número de vértices
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Retorna o número de arestas.
+     * @return o número de arestas
+     */
+    public int A() {
+        return A;
+    }
+
+    /**
+     * Retorna verdadeiro se o grafo é direcionado.
+     * @return verdadeiro se o grafo é direcionado
+     */
+    public boolean direcionado() {
+        return direcionado;
+    }
+
+    /**
+     * Retorna a forma como os pesos são guardados.
+     * @return a forma como os pesos são guardados
+     */
+    public Pesos pesos() {
+        return pesos;
+    }
+
+    /**
+     * Valida vértice do grafo.
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    protected void validaVertice(int v) {
+        if (v < 0 || v >= V)
+            throw new IndexOutOfBoundsException("vértice " + v + " não está entre 0 e " + (V-1));
+    }
+
+    /**
+     * Adiciona a aresta a no grafo. Apenas as extremidades e o peso são guardados.
+     * @param  a a aresta
+     * @throws IndexOutOfBoundsException caso extremidades não estejam entre 0 e V-1
+     * @throws IllegalArgumentException se o peso não puder ser guardado na forma escolhida
+     */
+    public void addAresta(Aresta a) {
+        int v1 = a.umVertice();
+        addAresta(v1, a.outroVertice(v1), a.peso());
+    }
+
+    /**
+     * Adiciona a aresta v1-v2 com o peso dado, sem criar um objeto Aresta.
+     * @param  v1 a origem da aresta
+     * @param  v2 o destino da aresta
+     * @param  peso o peso da aresta
+     * @throws IndexOutOfBoundsException caso extremidades não estejam entre 0 e V-1
+     * @throws IllegalArgumentException se o peso não puder ser guardado na forma escolhida
+     */
+    public void addAresta(int v1, int v2, double peso) {
+        validaVertice(v1);
+        validaVertice(v2);
+        adiciona(v1, v2, peso);
+    }
+
+    /**
+     * Adiciona a aresta v1-v2 sem validar as extremidades, já validadas pelo chamador.
+     * @throws IllegalArgumentException se o peso não puder ser guardado na forma escolhida
+     * @throws IllegalStateException se o grafo está indexado e o índice de pares está cheio
+     */
+    void adiciona(int v1, int v2, double peso) {
+        if (Double.isNaN(peso)) throw new IllegalArgumentException("Peso é não numérico");
+        if (pesos == Pesos.NENHUM && peso != 0)
+            throw new IllegalArgumentException("aresta " + v1 + "-" + v2 + " tem peso " + peso + ", mas o grafo não guarda pesos");
+        if (pesos == Pesos.INT && peso != (int) peso)
+            throw new IllegalArgumentException("aresta " + v1 + "-" + v2 + " tem peso " + peso + ", que não é inteiro");
+        if (indice != null) indice.verificaEspaco(direcionado ? 1 : 2);
+        int k1 = grau[v1];
+        if (compartilhado) guarda(A, v1, v2, peso);
+        insere(v1, compartilhado ? A : v2, peso);
+        int k2 = grau[v2];
+        if (!direcionado) insere(v2, compartilhado ? ~A : ~v1, peso);
+        A++;
+        boolean repetida = false;
+        if (indice != null) {
+            repetida = !indice.insere(v1, v2, k1);
+            if (!direcionado) indice.insere(v2, v1, k2);
+        }
+
+        double guardado = pesos == Pesos.FLOAT ? (float) peso : peso;
+        if (guardado < pesoMinimo) pesoMinimo = guardado;
+        if (guardado > pesoMaximo) pesoMaximo = guardado;
+        if (guardado < 0) negativas++;
+        if (guardado != Math.rint(guardado)) naoInteiras++;
+        grauMaximo = Math.max(grauMaximo, Math.max(grau[v1], grau[v2]));
+        if (v1 == v2) lacos++;
+        if (indice == null)      paralelas = -1;
+        else if (paralelas >= 0) paralelas += repetida ? 1 : 0;
+        reverso = null;
+    }
+
+    /**
+     * Amplia a lista de cada vértice v para exatamente capacidade[v] posições além das já usadas, de modo
+     * que as próximas arestas sejam adicionadas sem redimensionar as listas.
+     * @param capacidade capacidade[v] = número de posições a acrescentar na lista de v
+     */
+    void reserva(int[] capacidade) {
+        long posicoes = 0;
+        for (int v = 0; v < V; v++) {
+            posicoes += capacidade[v];
+            if (capacidade[v] > 0 && grau[v] + capacidade[v] != destinos[v].length) redimensiona(v, grau[v] + capacidade[v]);
+        }
+        // cada aresta ocupa duas posições
+        if (compartilhado && A + posicoes / 2 > registros.length / campos) redimensionaRegistros((int) (A + posicoes / 2));
+    }
+
+    // acrescenta x no fim da lista de v, duplicando a capacidade se necessário
+    private void insere(int v, int x, double peso) {
+        int n = grau[v];
+        if (n == destinos[v].length) redimensiona(v, Math.max(4, 2 * n));
+        destinos[v][n] = x;
+        if      (pesosInt != null)    pesosInt[v][n] = (int) peso;
+        else if (pesosFloat != null)  pesosFloat[v][n] = (float) peso;
+        else if (pesosDouble != null) pesosDouble[v][n] = peso;
+        grau[v] = n + 1;
+    }
+
+    private void redimensiona(int v, int capacidade) {
+        destinos[v] = Arrays.copyOf(destinos[v], capacidade);
+        if      (pesosInt != null)    pesosInt[v] = Arrays.copyOf(pesosInt[v], capacidade);
+        else if (pesosFloat != null)  pesosFloat[v] = Arrays.copyOf(pesosFloat[v], capacidade);
+        else if (pesosDouble != null) pesosDouble[v] = Arrays.copyOf(pesosDouble[v], capacidade);
+    }
+
+    // guarda o registro da aresta compartilhada i, duplicando a capacidade se necessário
+    private void guarda(int i, int v1, int v2, double peso) {
+        int j = campos * i;
+        if (j == registros.length) redimensionaRegistros(Math.max(4, 2 * i));
+        VetorArestas.grava(registros, j, pesos, v1, v2, peso);
+    }
+
+    private void redimensionaRegistros(int capacidade) {
+        registros = Arrays.copyOf(registros, campos * capacidade);
+    }
+
+    // vizinho de v na posição da sua lista que guarda x
+    private int vizinho(int v, int x) {
+        int y = x >= 0 ? x : ~x;
+        if (!compartilhado) return y;
+        int j = campos * y;
+        return registros[j] ^ registros[j + 1] ^ v;
+    }
+
+    // peso da k-ésima posição da lista de v
+    private double pesoNaPosicao(int v, int k) {
+        if (compartilhado) {
+            int x = destinos[v][k];
+            return VetorArestas.peso(registros, campos * (x >= 0 ? x : ~x), pesos);
+        }
+        if (pesosDouble != null) return pesosDouble[v][k];
+        if (pesosFloat != null)  return pesosFloat[v][k];
+        if (pesosInt != null)    return pesosInt[v][k];
+        return 0.0;
+    }
+
+    // posição na lista de v da i-ésima aresta na ordem de percurso
+    private int posicao(int v, int i) {
+        return direcionado ? i : grau[v] - 1 - i;
+    }
+
+    /**
+     * Retorna o menor peso das arestas, em tempo constante.
+     * @return o menor peso, ou Double.POSITIVE_INFINITY se não há arestas
+     */
+    public double pesoMinimo() {
+        return pesoMinimo;
+    }
+
+    /**
+     * Retorna o maior peso das arestas, em tempo constante.
+     * @return o maior peso, ou Double.NEGATIVE_INFINITY se não há arestas
+     */
+    public double pesoMaximo() {
+        return pesoMaximo;
+    }
+
+    /**
+     * Retorna o número de arestas com peso negativo, em tempo constante.
+     * @return o número de arestas com peso negativo
+     */
+    public int arestasPesoNegativo() {
+        return negativas;
+    }
+
+    /**
+     * Retorna verdadeiro se alguma aresta tem peso negativo, em tempo constante.
+     * @return verdadeiro se alguma aresta tem peso negativo
+     */
+    public boolean temPesoNegativo() {
+        return negativas > 0;
+    }
+
+    /**
+     * Retorna verdadeiro se todos os pesos são inteiros (sempre, nas formas NENHUM e INT), em tempo constante.
+     * @return verdadeiro se todos os pesos são inteiros
+     */
+    public boolean pesosInteiros() {
+        return naoInteiras == 0;
+    }
+
+    /**
+     * Retorna o maior grau entre os vértices, em tempo constante.
+     * @return o maior grau (0 se não há arestas)
+     */
+    public int grauMaximo() {
+        return grauMaximo;
+    }
+
+    /**
+     * Retorna o número de laços (arestas v-v), em tempo constante.
+     * @return o número de laços
+     */
+    public int lacos() {
+        return lacos;
+    }
+
+    /**
+     * Retorna o número de arestas paralelas: arestas com as mesmas extremidades (na mesma direção, em
+     * dígrafos) de uma aresta adicionada antes. É contado em tempo O(V + A) na primeira consulta depois de
+     * adicionar arestas, e em tempo constante nas seguintes.
+     * @return o número de arestas paralelas
+     */
+    public int arestasParalelas() {
+        if (paralelas < 0) paralelas = contaParalelas();
+        return paralelas;
+    }
+
+    // conta as arestas repetidas de cada lista, marcando os vizinhos de v com v+1; em grafos não
+    // direcionados cada aresta v-w é contada apenas na lista de min(v, w), pela posição direta nos laços
+    private int contaParalelas() {
+        int[] marca = new int[V];
+        int total = 0;
+        for (int v = 0; v < V; v++) {
+            for (int k = 0; k < grau[v]; k++) {
+                int x = destinos[v][k];
+                int w = vizinho(v, x);
+                if (!direcionado && (w < v || (w == v && x < 0))) continue;
+                if (marca[w] == v + 1) total++;
+                else                   marca[w] = v + 1;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Cria o índice de pares (v, w), em tempo O(V + A), e passa a mantê-lo a cada addAresta(). Em grafos
+     * sem pesos pequenos e densos (V x V bits ocupam no máximo o que uma tabela de espalhamento ocuparia com
+     * as arestas atuais, até 8 MB) o índice é uma matriz de bits, que não guarda posições, mas que basta para
+     * peso(v, w), sempre 0; nos demais é uma tabela de espalhamento com a posição da aresta na lista, de que
+     * peso(v, w) lê o peso.
+     * Não faz nada se o índice já existe.
+     * @throws IllegalStateException se a tabela de espalhamento não comporta os pares (v, w) do grafo
+     */
+    public void indexa() {
+        if (indice != null) return;
+        long celulas = (long) V * V;
+        long pares = direcionado ? A : 2L * A;
+        IndiceArestas novo = pesos == Pesos.NENHUM && celulas <= LIMITE_MATRIZ && celulas <= BITS_POR_PAR * pares
+                           ? IndiceArestas.matriz(V) : IndiceArestas.tabela(V, pares);
+        for (int v = 0; v < V; v++) {
+            for (int k = 0; k < grau[v]; k++) {
+                novo.insere(v, vizinho(v, destinos[v][k]), k);
+            }
+        }
+        indice = novo;
+        paralelas = contaParalelas();
+    }
+
+    /**
+     * Retorna verdadeiro se o índice de pares (v, w) foi criado por indexa().
+     * @return verdadeiro se o grafo está indexado
+     */
+    public boolean indexado() {
+        return indice != null;
+    }
+
+    /**
+     * Retorna verdadeiro se há uma aresta v-w (de v para w, em dígrafos), em tempo constante esperado
+     * depois de indexa() e em tempo proporcional ao grau de v sem o índice.
+     * @param  v um vértice
+     * @param  w outro vértice
+     * @return verdadeiro se há uma aresta v-w
+     * @throws IndexOutOfBoundsException caso v ou w não estejam entre 0 e V-1
+     */
+    public boolean temAresta(int v, int w) {
+        validaVertice(v);
+        validaVertice(w);
+        if (indice != null) return indice.contem(v, w);
+        return procura(v, w) >= 0;
+    }
+
+    /**
+     * Retorna o peso da aresta v-w (de v para w, em dígrafos); havendo arestas paralelas, o da primeira
+     * adicionada. Leva tempo constante esperado depois de indexa().
+     * @param  v um vértice
+     * @param  w outro vértice
+     * @return o peso da aresta v-w
+     * @throws IndexOutOfBoundsException caso v ou w não estejam entre 0 e V-1
+     * @throws NoSuchElementException se não há aresta v-w
+     */
+    public double peso(int v, int w) {
+        validaVertice(v);
+        validaVertice(w);
+        if (indice != null && indice.matriz()) {    // só em grafos sem pesos
+            if (!indice.contem(v, w)) throw new NoSuchElementException("não há aresta " + v + "-" + w);
+            return 0.0;
+        }
+        int k = indice != null ? indice.posicao(v, w) : procura(v, w);
+        if (k < 0) throw new NoSuchElementException("não há aresta " + v + "-" + w);
+        return pesoNaPosicao(v, k);
+    }
+
+    // primeira posição da lista de v com o vizinho w, ou -1
+    private int procura(int v, int w) {
+        for (int k = 0; k < grau[v]; k++)
+            if (vizinho(v, destinos[v][k]) == w) return k;
+        return -1;
+    }
+
+    /**
+     * Retorna o dígrafo reverso, com cada aresta v-w trocada por w-v, no formato CSR. É montado em tempo
+     * O(V + A) por ordenação por contagem: conta as arestas que chegam a cada vértice, acumula as contagens
+     * nos inícios dos trechos e distribui as origens, sem criar objetos Aresta. As arestas que chegam a w
+     * ficam em ordem crescente de origem e, para a mesma origem, na ordem em que foram adicionadas.
+     * O resultado é guardado e retornado pelas chamadas seguintes até que uma aresta seja adicionada.
+     * Em um grafo sem pesos, o dígrafo reverso também não guarda pesos (todos são 0).
+     * @return o dígrafo reverso
+     * @throws UnsupportedOperationException se o grafo não é direcionado
+     */
+    protected DigrafoPonderadoCSR transposto() {
+        if (!direcionado) throw new UnsupportedOperationException("o grafo não é direcionado");
+        if (reverso != null) return reverso;
+        int[] inicio = new int[V + 1];
+        for (int v = 0; v < V; v++)
+            for (int k = 0; k < grau[v]; k++)
+                inicio[destinos[v][k] + 1]++;
+        for (int v = 0; v < V; v++)
+            inicio[v + 1] += inicio[v];
+        int[] proximo = Arrays.copyOf(inicio, V);
+        int[] origem = new int[A];
+        double[] peso = pesos == Pesos.NENHUM ? null : new double[A];
+        for (int v = 0; v < V; v++) {
+            for (int k = 0; k < grau[v]; k++) {
+                int j = proximo[destinos[v][k]]++;
+                origem[j] = v;
+                if (peso != null) peso[j] = pesoNaPosicao(v, k);
+            }
+        }
+        reverso = new DigrafoPonderadoCSR(V, inicio, origem, peso);
+        return reverso;
+    }
+
+    /**
+     * Libera a capacidade não usada das listas de adjacências.
+     */
+    public void compacta() {
+        for (int v = 0; v < V; v++)
+            if (grau[v] < destinos[v].length) redimensiona(v, grau[v]);
+        if (compartilhado && campos * A < registros.length) redimensionaRegistros(A);
+    }
+
+    /**
+     * Retorna uma estimativa do número de bytes ocupados pelas listas de adjacências, pesos e índice
+     * (cabeçalho de 16 bytes por vetor, referências de 4 bytes), incluindo a capacidade não usada.
+     * @return o número estimado de bytes ocupados
+     */
+    public long bytes() {
+        int bytesPeso = pesos == Pesos.DOUBLE ? 8 : pesos == Pesos.NENHUM ? 0 : 4;
+        long total = 16 + 4L * V + 16 + 4L * V;    // destinos[] e grau[]
+        if (compartilhado) {
+            total += 16 + 4L * registros.length;   // registros das arestas, uma única vez por aresta
+            bytesPeso = 0;
+        }
+        if (bytesPeso != 0) total += 16 + 4L * V;
+        for (int v = 0; v < V; v++) {
+            if (destinos[v].length == 0) continue;
+            total += 16 + 4L * destinos[v].length;
+            if (bytesPeso != 0) total += 16 + (long) bytesPeso * destinos[v].length;
+        }
+        if (indice != null) total += indice.bytes();
+        return total;
+    }
+
+    /**
+     * Retorna o número de arestas na lista de adjacências de v (o grau de saída, em dígrafos).
+     * @param  v o vértice
+     * @return o número de arestas na lista de adjacências de v
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    public int grau(int v) {
+        validaVertice(v);
+        return grau[v];
+    }
+
+    /**
+     * Retorna as arestas da lista de adjacências de v, cada uma como um objeto Aresta v-w criado quando a
+     * posição é acessada. A lista não pode ser alterada e reflete as arestas adicionadas depois.
+     * @param  v o vértice
+     * @return as arestas da lista de adjacências de v
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    public List<Aresta> adj(final int v) {
+        validaVertice(v);
+        return new AbstractList<Aresta>() {
+            public Aresta get(int i) {
+                if (i < 0 || i >= grau[v]) throw new IndexOutOfBoundsException("posição " + i + " não está entre 0 e " + (grau[v]-1));
+                int k = posicao(v, i);
+                return new Aresta(v, vizinho(v, destinos[v][k]), pesoNaPosicao(v, k));
+            }
+
+            public int size() {
+                return grau[v];
+            }
+        };
+    }
+
+    /**
+     * Retorna um novo cursor sobre as listas de adjacências.
+     * @return um cursor, a ser posicionado em um vértice antes do uso
+     */
+    public CursorAdjacencia cursor() {
+        return new Cursor();
+    }
+
+    private class Cursor implements CursorAdjacencia {
+        private int v;              // vértice atual
+        private int i;              // número de arestas de v já percorridas
+        private int n;              // grau de v
+        private int k;              // posição em destinos[v] da aresta atual
+
+        public void posiciona(int v) {
+            validaVertice(v);
+            this.v = v;
+            i = 0;
+            n = grau[v];
+        }
+
+        public boolean temProxima() {
+            return i < n;
+        }
+
+        public int proxima() {
+            if (i >= n) throw new NoSuchElementException("não há mais arestas de " + v);
+            k = direcionado ? i : n - 1 - i;
+            i++;
+            return vizinho(v, destinos[v][k]);
+        }
+
+        public double peso() {
+            return pesoNaPosicao(v, k);
+        }
+    }
+
+    /**
+     * Retorna todas as arestas, cada uma uma única vez; em grafos não direcionados, com a orientação em
+     * que foi adicionada. A coleção não é uma cópia: as arestas são lidas das listas de adjacências, e os
+     * objetos Aresta criados, à medida que são percorridas, e size() é A(). O spliterator divide os
+     * vértices ao meio, de modo que arestas().parallelStream() percorre trechos das listas em paralelo.
+     * Em dígrafos cada metade conhece o seu número exato de arestas (SIZED e SUBSIZED); em grafos não
+     * direcionados, em que as listas também guardam as cópias das arestas, o número de arestas das metades
+     * é apenas estimado, e só o spliterator ainda não dividido é SIZED.
+     * A coleção não pode ser alterada e não deve ser percorrida enquanto arestas são adicionadas.
+     * @return todas as arestas, como uma coleção
+     */
+    public Collection<Aresta> arestas() {
+        return new AbstractCollection<Aresta>() {
+            public Iterator<Aresta> iterator() {
+                return Spliterators.iterator(new Arestas(0, V, A, true));
+            }
+
+            public Spliterator<Aresta> spliterator() {
+                return new Arestas(0, V, A, true);
+            }
+
+            public int size() {
+                return A;
+            }
+        };
+    }
+
+    // percorre as arestas dos vértices v .. fim-1, na ordem de arestas()
+    private class Arestas implements Spliterator<Aresta> {
+        private int v;              // vértice atual
+        private int i;              // número de posições de v já percorridas
+        private final int fim;      // vértice seguinte ao último
+        private long estimativa;    // número (exato, se dimensionado) de arestas restantes
+        private boolean dimensionado;
+
+        Arestas(int v, int fim, long estimativa, boolean dimensionado) {
+            this.v = v;
+            this.fim = fim;
+            this.estimativa = estimativa;
+            this.dimensionado = dimensionado;
+        }
+
+        public boolean tryAdvance(Consumer<? super Aresta> acao) {
+            for (; v < fim; v++, i = 0) {
+                while (i < grau[v]) {
+                    int k = posicao(v, i++);
+                    int x = destinos[v][k];
+                    if (x < 0) continue;           // cópia, na lista de w, de uma aresta w-v
+                    if (estimativa > 0) estimativa--;
+                    acao.accept(new Aresta(v, vizinho(v, x), pesoNaPosicao(v, k)));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public Spliterator<Aresta> trySplit() {
+            int meio = (v + 1 + fim) >>> 1;
+            if (meio <= v + 1 || meio >= fim) return null;
+            // a primeira metade fica com o vértice atual
+            Arestas primeira;
+            if (direcionado) {
+                // toda posição é uma aresta: a primeira metade tem as posições restantes de v .. meio-1
+                long n = grau[v] - i;
+                for (int u = v + 1; u < meio; u++) n += grau[u];
+                primeira = new Arestas(v, meio, n, dimensionado);
+                estimativa -= n;
+            }
+            else {
+                // as cópias só são reconhecidas ao percorrer as listas: os tamanhos passam a ser estimados
+                primeira = new Arestas(v, meio, estimativa / 2, false);
+                estimativa -= estimativa / 2;
+                dimensionado = false;
+            }
+            primeira.i = i;
+            v = meio;
+            i = 0;
+            return primeira;
+        }
+
+        public long estimateSize() {
+            return estimativa;
+        }
+
+        public int characteristics() {
+            if (!dimensionado) return ORDERED | NONNULL;
+            return ORDERED | NONNULL | SIZED | (direcionado ? SUBSIZED : 0);
+        }
+    }
+
+    /**
+     * Retorna as A() arestas, cada uma uma única vez e com a orientação em que foi adicionada, na ordem de
+     * arestas(), como novos objetos Aresta. Em dígrafos a direção é apenas ignorada: as arestas v-w e w-v
+     * são retornadas as duas, como arestas paralelas. Os algoritmos de árvore geradora mínima não usam este
+     * método: leem as arestas com vetorArestas(), sem criar um objeto por aresta.
+     * @return as arestas do grafo
+     */
+    public Aresta[] arestasNaoDirecionadas() {
+        return arestas().toArray(new Aresta[A]);
+    }
+
+    /**
+     * Retorna as arestas em vetores primitivos. Em grafos não direcionados com pesos o vetor é o dos registros
+     * das arestas compartilhadas, sem cópia, e a aresta i é a i-ésima adicionada; nos demais casos as
+     * extremidades e os pesos são copiados das listas, na ordem de arestas().
+     */
+    VetorArestas vetorArestas() {
+        if (compartilhado) return new VetorArestas(A, registros, pesos);
+        Pesos forma = pesos == Pesos.NENHUM ? Pesos.NENHUM : Pesos.DOUBLE;
+        int c = VetorArestas.campos(forma);
+        int[] copia = new int[c * A];
+        int n = 0;
+        for (int v = 0; v < V; v++) {
+            for (int i = 0; i < grau[v]; i++) {
+                int k = posicao(v, i);
+                int x = destinos[v][k];
+                if (x < 0) continue;
+                VetorArestas.grava(copia, c * n++, forma, v, x, pesoNaPosicao(v, k));
+            }
+        }
+        return new VetorArestas(A, copia, forma);
+    }
+
+    /**
+     * Retorna uma representação String deste grafo.
+     * @return uma representação String deste grafo
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(V + " " + A + NEWLINE);
+        CursorAdjacencia c = cursor();
+        for (int v = 0; v < V; v++) {
+            s.append(v + ": ");
+            c.posiciona(v);
+            while (c.temProxima()) {
+                int w = c.proxima();
+                s.append(new Aresta(v, w, c.peso()) + "  ");
+            }
+            s.append(NEWLINE);
+        }
+        return s.toString();
+    }
+
+}
@@ -0,0 +1,398 @@
+/*******************************************************************************
+ *  Compilação:        javac ReordenacaoVertices.java
+ *  Execução:          java ReordenacaoVertices dados.txt [rcm|bfs|grau]
+ *                     java ReordenacaoVertices benchmark lado
+ *  Dependências:      DigrafoPonderado.java Digrafo.java AcessoGrafo.java CursorAdjacencia.java In.java
+ *                     AlgoritmoSPDijkstraDigrafoPonderado.java
+ *  Arquivos de dados: DigrafoPonderado1.txt
+ *  Link dos dados:    https://drive.google.com/open?id=0B3q56TwNCeXoc08yZ0JHZW1aZWs
+ *
+ *  Renumera os vértices de um dígrafo para que vértices vizinhos tenham
+ *  identificadores próximos (Cuthill-McKee reverso, ordem de busca em largura
+ *  ou ordem decrescente de grau).
+ *
+ *  % java ReordenacaoVertices DigrafoPonderado1.txt rcm
+ *  0 -> 6
+ *  1 -> 0
+ *  2 -> 7
+ *  3 -> 2
+ *  4 -> 3
+ *  5 -> 1
+ *  6 -> 5
+ *  7 -> 4
+ *  8 15
+ *  0: 0-2 0.29000
+ *  1: 1-3 0.35000  1-4 0.28000  1-0 0.32000
+ *  2: 2-5 0.52000
+ *  3: 3-1 0.35000  3-4 0.37000
+ *  4: 4-1 0.28000  4-2 0.39000
+ *  5: 5-7 0.40000  5-6 0.58000  5-3 0.93000
+ *  6: 6-3 0.38000  6-7 0.26000
+ *  7: 7-4 0.34000
+ *
+ ******************************************************************************/
+
+package br.edu.ifes.si.tpa;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Esta classe implementa a renumeração de vértices para melhorar a localidade de acesso à memória.
+ * A permutação é calculada sobre a versão não direcionada do dígrafo por uma das estratégias:
+ * <ul>
+ * <li>{@link Estrategia#RCM}: Cuthill-McKee reverso; busca em largura a partir de um vértice
+ *     pseudo-periférico visitando os vizinhos em ordem crescente de grau, com a ordem final invertida.
+ *     Reduz a largura de banda da matriz de adjacências;</li>
+ * <li>{@link Estrategia#BFS}: ordem de visita de uma busca em largura;</li>
+ * <li>{@link Estrategia#GRAU}: ordem decrescente de grau, agrupando os vértices mais acessados.</li>
+ * </ul>
+ * O método reordena cria um novo dígrafo com os vértices renumerados e as listas de adjacências criadas
+ * na nova ordem, de modo que também as listas ficam próximas na memória. A permutação é mantida
+ * para traduzir resultados: o vértice v do dígrafo original é o vértice novo(v) do dígrafo reordenado.
+ * Para documentação adicional, acesse:
+ * <a href="http://algs4.cs.princeton.edu/41graph">Section 4.1</a> of
+ * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class ReordenacaoVertices {
+    private static final int LIMITE_INSERCAO = 16;   // listas menores são ordenadas por inserção
+
+    /**
+     * Estratégia usada para calcular a nova numeração.
+     */
+    public enum Estrategia { RCM, BFS, GRAU }
+
+    private final int V;          // número de vértices
+    private final int[] novo;     // novo[v] = número do vértice v no dígrafo reordenado
+    private final int[] antigo;   // antigo[n] = vértice do dígrafo original que recebeu o número n
+    private int[] fila;           // fila reutilizada pelas buscas da procura do vértice pseudo-periférico
+
+    /**
+     * Calcula a nova numeração dos vértices do dígrafo ponderado.
+     * @param G o dígrafo ponderado
+     * @param estrategia a estratégia de renumeração
+     */
+    public ReordenacaoVertices(DigrafoPonderado G, Estrategia estrategia) {
+        this((AcessoGrafo) G, estrategia);
+    }
+
+    /**
+     * Calcula a nova numeração dos vértices do dígrafo.
+     * @param G o dígrafo
+     * @param estrategia a estratégia de renumeração
+     */
+    public ReordenacaoVertices(Digrafo G, Estrategia estrategia) {
+        this((AcessoGrafo) G, estrategia);
+    }
+
+    private ReordenacaoVertices(AcessoGrafo G, Estrategia estrategia) {
+        V = G.V();
+        CursorAdjacencia c = G.cursor();
+        novo = new int[V];
+        antigo = new int[V];
+
+        // listas de adjacências não direcionadas, sem laços: vizinhos de v em vizinhos[inicio[v] .. inicio[v+1]-1]
+        int[] inicio = new int[V + 1];
+        for (int v = 0; v < V; v++) {
+            for (c.posiciona(v); c.temProxima(); ) {
+                int w = c.proxima();
+                if (w == v) continue;
+                inicio[v + 1]++;
+                inicio[w + 1]++;
+            }
+        }
+        for (int v = 0; v < V; v++)
+            inicio[v + 1] += inicio[v];
+        int[] proximo = new int[V];
+        System.arraycopy(inicio, 0, proximo, 0, V);
+        int[] vizinhos = new int[inicio[V]];
+        for (int v = 0; v < V; v++) {
+            for (c.posiciona(v); c.temProxima(); ) {
+                int w = c.proxima();
+                if (w == v) continue;
+                vizinhos[proximo[v]++] = w;
+                vizinhos[proximo[w]++] = v;
+            }
+        }
+
+        if (estrategia == Estrategia.GRAU) ordemGrau(inicio);
+        else                               ordemBusca(inicio, vizinhos, estrategia == Estrategia.RCM);
+        for (int n = 0; n < V; n++)
+            novo[antigo[n]] = n;
+    }
+
+    // vértices em ordem crescente de grau (ordenação por contagem, estável)
+    private int[] crescentePorGrau(int[] inicio) {
+        int maximo = 0;
+        for (int v = 0; v < V; v++)
+            maximo = Math.max(maximo, inicio[v + 1] - inicio[v]);
+        int[] contagem = new int[maximo + 2];
+        for (int v = 0; v < V; v++)
+            contagem[inicio[v + 1] - inicio[v] + 1]++;
+        for (int g = 0; g <= maximo; g++)
+            contagem[g + 1] += contagem[g];
+        int[] ordem = new int[V];
+        for (int v = 0; v < V; v++)
+            ordem[contagem[inicio[v + 1] - inicio[v]]++] = v;
+        return ordem;
+    }
+
+    // antigo[] = vértices em ordem decrescente de grau
+    private void ordemGrau(int[] inicio) {
+        int[] crescente = crescentePorGrau(inicio);
+        for (int n = 0; n < V; n++)
+            antigo[n] = crescente[V - 1 - n];
+    }
+
+    // antigo[] = ordem de visita de buscas em largura, uma por componente; em Cuthill-McKee a busca parte
+    // de um vértice pseudo-periférico, os vizinhos são visitados em ordem crescente de grau e a ordem é invertida
+    private void ordemBusca(int[] inicio, int[] vizinhos, boolean rcm) {
+        int[] sementes = crescentePorGrau(inicio);
+        boolean[] marcado = new boolean[V];
+        int[] nivel = new int[V];         // usado apenas na procura do vértice pseudo-periférico
+        int[] visita = new int[V];        // visita[v] = última busca auxiliar que alcançou v
+        int buscas = 0;
+        int n = 0;
+        for (int semente : sementes) {
+            if (marcado[semente]) continue;
+            int raiz = semente;
+            if (rcm) {
+                // George-Liu: troca a raiz pelo vértice de menor grau do último nível enquanto a excentricidade cresce
+                int excentricidade = -1;
+                while (true) {
+                    buscas++;
+                    int ultimo = niveis(raiz, inicio, vizinhos, nivel, visita, buscas);
+                    if (nivel[ultimo] <= excentricidade) break;
+                    excentricidade = nivel[ultimo];
+                    raiz = ultimo;
+                }
+            }
+            int primeiro = n;
+            antigo[n++] = raiz;
+            marcado[raiz] = true;
+            for (int i = primeiro; i < n; i++) {
+                int v = antigo[i];
+                int comeco = n;
+                for (int k = inicio[v]; k < inicio[v + 1]; k++) {
+                    int w = vizinhos[k];
+                    if (!marcado[w]) {
+                        marcado[w] = true;
+                        antigo[n++] = w;
+                    }
+                }
+                if (rcm) ordenaPorGrau(antigo, comeco, n, inicio);
+            }
+        }
+        if (rcm) {
+            for (int i = 0, j = V - 1; i < j; i++, j--) {
+                int temp = antigo[i];
+                antigo[i] = antigo[j];
+                antigo[j] = temp;
+            }
+        }
+    }
+
+    // busca em largura a partir de raiz; retorna o vértice de menor grau entre os do último nível
+    private int niveis(int raiz, int[] inicio, int[] vizinhos, int[] nivel, int[] visita, int busca) {
+        if (fila == null) fila = new int[V];
+        int primeiro = 0, ultimo = 0;
+        fila[ultimo++] = raiz;
+        visita[raiz] = busca;
+        nivel[raiz] = 0;
+        int melhor = raiz;
+        while (primeiro < ultimo) {
+            int v = fila[primeiro++];
+            if (nivel[v] > nivel[melhor] || (nivel[v] == nivel[melhor] && grau(inicio, v) < grau(inicio, melhor)))
+                melhor = v;
+            for (int k = inicio[v]; k < inicio[v + 1]; k++) {
+                int w = vizinhos[k];
+                if (visita[w] != busca) {
+                    visita[w] = busca;
+                    nivel[w] = nivel[v] + 1;
+                    fila[ultimo++] = w;
+                }
+            }
+        }
+        return melhor;
+    }
+
+    private static int grau(int[] inicio, int v) {
+        return inicio[v + 1] - inicio[v];
+    }
+
+    // ordena a[lo .. hi-1] em ordem crescente de grau, desempatando pelo número do vértice
+    private static void ordenaPorGrau(int[] a, int lo, int hi, int[] inicio) {
+        if (hi - lo <= LIMITE_INSERCAO) {
+            for (int i = lo + 1; i < hi; i++) {
+                int x = a[i];
+                int j = i;
+                while (j > lo && compara(inicio, a[j - 1], x) > 0) {
+                    a[j] = a[j - 1];
+                    j--;
+                }
+                a[j] = x;
+            }
+            return;
+        }
+        long[] chaves = new long[hi - lo];
+        for (int i = lo; i < hi; i++)
+            chaves[i - lo] = ((long) grau(inicio, a[i]) << 32) | a[i];
+        Arrays.sort(chaves);
+        for (int i = lo; i < hi; i++)
+            a[i] = (int) chaves[i - lo];
+    }
+
+    private static int compara(int[] inicio, int v, int w) {
+        int g = Integer.compare(grau(inicio, v), grau(inicio, w));
+        return g != 0 ? g : Integer.compare(v, w);
+    }
+
+    /**
+     * Valida vértice do dígrafo.
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    private void validaVertice(int v) {
+        if (v < 0 || v >= V)
+            throw new IndexOutOfBoundsException("vértice " + v + " não está entre 0 e " + (V-1));
+    }
+
+    /**
+     * Retorna o número que o vértice v do dígrafo original recebe no dígrafo reordenado.
+     * @param v um vértice do dígrafo original
+     * @return o vértice correspondente no dígrafo reordenado
+     * @throws IndexOutOfBoundsException caso v não seja 0 <= v < V
+     */
+    public int novo(int v) {
+        validaVertice(v);
+        return novo[v];
+    }
+
+    /**
+     * Retorna o vértice do dígrafo original que recebeu o número n no dígrafo reordenado.
+     * @param n um vértice do dígrafo reordenado
+     * @return o vértice correspondente no dígrafo original
+     * @throws IndexOutOfBoundsException caso n não seja 0 <= n < V
+     */
+    public int antigo(int n) {
+        validaVertice(n);
+        return antigo[n];
+    }
+
+    /**
+     * Retorna a largura de banda do dígrafo com esta numeração: o maior |novo(v) - novo(w)| entre as arestas v-w.
+     * @param G o dígrafo ponderado original
+     * @return a largura de banda
+     */
+    public int larguraDeBanda(DigrafoPonderado G) {
+        int largura = 0;
+        CursorAdjacencia c = G.cursor();
+        for (int v = 0; v < V; v++)
+            for (c.posiciona(v); c.temProxima(); )
+                largura = Math.max(largura, Math.abs(novo[v] - novo[c.proxima()]));
+        return largura;
+    }
+
+    /**
+     * Cria o dígrafo ponderado com os vértices renumerados. As listas de adjacências são criadas na nova ordem
+     * e cada lista mantém a ordem das arestas do dígrafo original.
+     * @param G o dígrafo ponderado original
+     * @return o dígrafo ponderado reordenado
+     * @throws IllegalArgumentException se G não tiver o número de vértices desta numeração
+     */
+    public DigrafoPonderado reordena(DigrafoPonderado G) {
+        if (G.V() != V) throw new IllegalArgumentException("dígrafo tem " + G.V() + " vértices, esperado " + V);
+        DigrafoPonderado R = new DigrafoPonderado(V, G.pesos());
+        CursorAdjacencia c = G.cursor();
+        for (int n = 0; n < V; n++)
+            for (c.posiciona(antigo[n]); c.temProxima(); ) {
+                int w = c.proxima();
+                R.addAresta(n, novo[w], c.peso());
+            }
+        return R;
+    }
+
+    /**
+     * Cria o dígrafo com os vértices renumerados. As listas de adjacências são criadas na nova ordem
+     * e cada lista mantém a ordem das arestas do dígrafo original.
+     * @param G o dígrafo original
+     * @return o dígrafo reordenado
+     * @throws IllegalArgumentException se G não tiver o número de vértices desta numeração
+     */
+    public Digrafo reordena(Digrafo G) {
+        if (G.V() != V) throw new IllegalArgumentException("dígrafo tem " + G.V() + " vértices, esperado " + V);
+        Digrafo R = new Digrafo(V);
+        CursorAdjacencia c = G.cursor();
+        for (int n = 0; n < V; n++)
+            for (c.posiciona(antigo[n]); c.temProxima(); )
+                R.addAresta(n, novo[c.proxima()], 0);
+        return R;
+    }
+
+    /**
+     * Compara o tempo do algoritmo de Dijkstra em uma grade lado x lado com os vértices numerados ao acaso
+     * e depois de renumerada por cada estratégia.
+     */
+    private static void benchmark(int lado) {
+        int V = lado * lado;
+        Random random = new Random(42);
+        int[] embaralhado = new int[V];
+        for (int v = 0; v < V; v++) embaralhado[v] = v;
+        for (int i = V - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = embaralhado[i];
+            embaralhado[i] = embaralhado[j];
+            embaralhado[j] = temp;
+        }
+        DigrafoPonderado G = new DigrafoPonderado(V);
+        for (int i = 0; i < lado; i++) {
+            for (int j = 0; j < lado; j++) {
+                int v = embaralhado[i * lado + j];
+                if (j + 1 < lado) G.addAresta(new Aresta(v, embaralhado[i * lado + j + 1], random.nextDouble()));
+                if (j > 0)        G.addAresta(new Aresta(v, embaralhado[i * lado + j - 1], random.nextDouble()));
+                if (i + 1 < lado) G.addAresta(new Aresta(v, embaralhado[(i + 1) * lado + j], random.nextDouble()));
+                if (i > 0)        G.addAresta(new Aresta(v, embaralhado[(i - 1) * lado + j], random.nextDouble()));
+            }
+        }
+        int vo = 0;
+        double original = tempoDijkstra(G, vo);
+        System.out.printf("%-10s %8.0f ms\n", "original", original);
+        for (Estrategia e : Estrategia.values()) {
+            long inicio = System.nanoTime();
+            ReordenacaoVertices r = new ReordenacaoVertices(G, e);
+            DigrafoPonderado R = r.reordena(G);
+            double preparo = (System.nanoTime() - inicio) / 1e6;
+            double tempo = tempoDijkstra(R, r.novo(vo));
+            System.out.printf("%-10s %8.0f ms  (%.1fx, renumeração %.0f ms, largura de banda %d)\n",
+                              e, tempo, original / tempo, preparo, r.larguraDeBanda(G));
+        }
+    }
+
+    // melhor de três execuções, em milissegundos
+    private static double tempoDijkstra(DigrafoPonderado G, int vo) {
+        double melhor = Double.POSITIVE_INFINITY;
+        for (int k = 0; k < 3; k++) {
+            long inicio = System.nanoTime();
+            new AlgoritmoSPDijkstraDigrafoPonderado(G, vo);
+            melhor = Math.min(melhor, (System.nanoTime() - inicio) / 1e6);
+        }
+        return melhor;
+    }
+
+    /**
+     * Testa a classe ReordenacaoVertices
+     */
+    public static void main(String[] args) {
+        if (args[0].equals("benchmark")) {
+            benchmark(Integer.parseInt(args[1]));
+            return;
+        }
+        In in = new In(args[0]);
+        DigrafoPonderado G = new DigrafoPonderado(in);
+        Estrategia estrategia = args.length > 1 ? Estrategia.valueOf(args[1].toUpperCase()) : Estrategia.RCM;
+        ReordenacaoVertices r = new ReordenacaoVertices(G, estrategia);
+        for (int v = 0; v < G.V(); v++)
+            System.out.println(v + " -> " + r.novo(v));
+        System.out.println(r.reordena(G));
+    }
+
+}
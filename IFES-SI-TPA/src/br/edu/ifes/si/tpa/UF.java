@@ -6,7 +6,11 @@
  *                      http://algs4.cs.princeton.edu/15uf/mediumUF.txt
  *                      http://algs4.cs.princeton.edu/15uf/largeUF.txt
  *
- *  Rápida união ponderada por tamanho dos conjuntos (sem redução do caminho pela metade: pai[p] = pai[pai[p]]).
+ *  Rápida união ponderada por tamanho dos conjuntos, com estratégia de compressão
+ *  de caminho selecionável (nenhuma, redução pela metade, compressão completa ou divisão).
+ *
+ *  % java UF benchmark 1000000 100000000
+ *  (executa 10^8 operações aleatórias junta/conectado para cada estratégia)
  *
  *  % java UF < tinyUF.txt
  *  4 3
@@ -23,6 +27,7 @@
 
 package br.edu.ifes.si.tpa;
 
+import java.util.Random;
 
 /**
  * Esta classe implementa Um algoritmo union-find é um algoritmo que realiza duas operações úteis nesta estrutura de dados:
@@ -34,18 +39,44 @@ package br.edu.ifes.si.tpa;
  */
 public class UF {
 
+    /**
+     * Estratégias de compressão de caminho aplicadas pelo método encontra.
+     * NENHUMA apenas percorre o caminho até a raiz;
+     * REDUCAO_PELA_METADE faz cada vértice visitado apontar para o seu avô, pulando de dois em dois (pai[p] = pai[pai[p]]);
+     * DIVISAO faz cada vértice visitado apontar para o seu avô, visitando todos os vértices do caminho;
+     * COMPRESSAO_COMPLETA faz todos os vértices do caminho apontarem diretamente para a raiz (duas passadas).
+     */
+    public enum Compressao { NENHUMA, REDUCAO_PELA_METADE, DIVISAO, COMPRESSAO_COMPLETA }
+
     private int[] pai;      // pai[i] = pai of i
     private int[] tamanho;  // tamanho[i] = tamanho da árvore com raíz em i: tamanho é a quantidade de filhos + 1
     private int quantidade; // número de componentes
+    private final Compressao compressao; // estratégia de compressão de caminho usada em encontra
 
     /**
      * Inicializa uma estrutura de dados union-find (conjunto-disjunto) vazia com n conjuntos.
+     * O método encontra não comprime os caminhos.
      *
      * @param  n o número de conjuntos
      * @throws IllegalArgumentException se n menor que zero
      */
     public UF(int n) {
+        this(n, Compressao.NENHUMA);
+    }
+
+    /**
+     * Inicializa uma estrutura de dados union-find (conjunto-disjunto) vazia com n conjuntos,
+     * utilizando a estratégia de compressão de caminho informada. A união continua sendo por tamanho.
+     *
+     * @param  n o número de conjuntos
+     * @param  compressao a estratégia de compressão de caminho
+     * @throws IllegalArgumentException se n menor que zero
+     * @throws NullPointerException se compressao for null
+     */
+    public UF(int n, Compressao compressao) {
         if (n < 0) throw new IllegalArgumentException();
+        if (compressao == null) throw new NullPointerException("argumento é null");
+        this.compressao = compressao;
         quantidade = n;
         pai = new int[n];
         tamanho = new int[n];
@@ -65,11 +96,46 @@ public class UF {
      */
     public int encontra(int p) {
         valida(p);
-        while (p != pai[p]) {
-            //pai[p] = pai[pai[p]];    // caminho reduzido pela metade (comentado para facilitar o entendimento)
-            p = pai[p];
+        switch (compressao) {
+            case REDUCAO_PELA_METADE:
+                while (p != pai[p]) {
+                    pai[p] = pai[pai[p]];    // caminho reduzido pela metade
+                    p = pai[p];
+                }
+                return p;
+            case DIVISAO:
+                while (p != pai[p]) {
+                    int proximo = pai[p];
+                    pai[p] = pai[proximo];   // cada vértice passa a apontar para o avô
+                    p = proximo;
+                }
+                return p;
+            case COMPRESSAO_COMPLETA:
+                int raiz = p;
+                while (raiz != pai[raiz]) {
+                    raiz = pai[raiz];
+                }
+                while (p != raiz) {          // segunda passada: todos apontam para a raiz
+                    int proximo = pai[p];
+                    pai[p] = raiz;
+                    p = proximo;
+                }
+                return raiz;
+            default:
+                while (p != pai[p]) {
+                    p = pai[p];
+                }
+                return p;
         }
-        return p;
+    }
+
+    /**
+     * Retorna a estratégia de compressão de caminho utilizada.
+     *
+     * @return a estratégia de compressão de caminho
+     */
+    public Compressao compressao() {
+        return compressao;
     }
 
     /**
@@ -124,10 +190,43 @@ public class UF {
         }
     }
 
+    /**
+     * Executa m operações aleatórias (metade junta, metade conectado) sobre n elementos
+     * para cada estratégia de compressão e imprime o custo médio por operação.
+     * Com compressão de caminho e união por tamanho o custo amortizado é quase constante.
+     *
+     * @param n o número de elementos
+     * @param m o número de operações
+     */
+    private static void benchmark(int n, long m) {
+        for (Compressao c : Compressao.values()) {
+            UF uf = new UF(n, c);
+            Random random = new Random(42);
+            long conectados = 0;
+            long inicio = System.nanoTime();
+            for (long i = 0; i < m; i++) {
+                int p = random.nextInt(n);
+                int q = random.nextInt(n);
+                if ((i & 1) == 0) uf.junta(p, q);
+                else if (uf.conectado(p, q)) conectados++;
+            }
+            long fim = System.nanoTime();
+            System.out.printf("%-20s %8.2f ns/operação  %8d ms  (%d componente(s), %d conectado(s))\n",
+                    c, (double) (fim - inicio) / m, (fim - inicio) / 1000000, uf.quantidade(), conectados);
+        }
+    }
+
     /**
      * Testa a classe UF
      */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("benchmark")) {
+            int n = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+            long m = args.length > 2 ? Long.parseLong(args[2]) : 100000000L;
+            benchmark(n, m);
+            return;
+        }
+
         /*
         //Lista 02 - Exercício 01
         UF uf = new UF(5);
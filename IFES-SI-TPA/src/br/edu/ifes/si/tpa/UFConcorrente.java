@@ -0,0 +1,135 @@
+/******************************************************************************
+ *  Compilação:         javac UFConcorrente.java
+ *  Execução:           java UFConcorrente
+ *  Dependências:       nenhuma
+ *
+ *  Union-find sem bloqueio, seguro para uso concorrente por várias threads.
+ *
+ *  % java UFConcorrente
+ *  1 componente(s)
+ *
+ ******************************************************************************/
+
+package br.edu.ifes.si.tpa;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Esta classe implementa uma estrutura union-find (conjunto-disjunto) que pode ser usada por várias
+ * threads ao mesmo tempo sem bloqueio. Os ponteiros para o pai são alterados com compare-and-set:
+ * a união pendura a raiz de menor índice na raiz de maior índice e o encontra reduz o caminho pela
+ * metade, o que só faz um vértice apontar para um ancestral e portanto nunca invalida outra operação.
+ * Para documentação adicional, acesse:
+ * <a href="http://algs4.cs.princeton.edu/15uf">Section 1.5</a>
+ * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class UFConcorrente {
+
+    private final AtomicIntegerArray pai;  // pai[i] = pai de i
+    private final AtomicInteger quantidade; // número de componentes
+
+    /**
+     * Inicializa uma estrutura de dados union-find concorrente com n conjuntos.
+     *
+     * @param  n o número de conjuntos
+     * @throws IllegalArgumentException se n menor que zero
+     */
+    public UFConcorrente(int n) {
+        if (n < 0) throw new IllegalArgumentException();
+        quantidade = new AtomicInteger(n);
+        pai = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++) {
+            pai.set(i, i);
+        }
+    }
+
+    /**
+     * Retorna a identificação do componente ao qual p pertence. Se houver uniões concorrentes,
+     * o valor retornado foi a raiz do componente em algum momento durante a chamada.
+     *
+     * @param  p o inteiro representando um conjunto
+     * @return a identificação do componente ao qual p pertence.
+     */
+    public int encontra(int p) {
+        valida(p);
+        while (true) {
+            int q = pai.get(p);
+            if (q == p) return p;
+            int r = pai.get(q);
+            if (q != r) pai.compareAndSet(p, q, r);   // caminho reduzido pela metade
+            p = r;
+        }
+    }
+
+    /**
+     * Retorna o número de componentes
+     *
+     * @return o número de componentes entre 1 e n
+     */
+    public int quantidade() {
+        return quantidade.get();
+    }
+
+    /**
+     * Retorna true se os dois elementos estão no mesmo componente.
+     *
+     * @param  p o inteiro representando um elemento
+     * @param  q o inteiro representando outro elemento
+     * @return true se os dois elementos estão no mesmo componente;
+     *         false caso contrário
+     */
+    public boolean conectado(int p, int q) {
+        while (true) {
+            int raizP = encontra(p);
+            int raizQ = encontra(q);
+            if (raizP == raizQ) return true;
+            if (pai.get(raizP) == raizP) return false;  // raizP ainda é raiz: resposta consistente
+        }
+    }
+
+    /**
+     * Une o componente contendo o elemento p com o componente contendo o elemento q.
+     * Quando várias threads tentam unir os mesmos componentes, apenas uma delas efetiva a união.
+     *
+     * @param  p o inteiro representando um elemento
+     * @param  q o inteiro representando outro elemento
+     * @return true se esta chamada uniu os componentes; false se já estavam conectados
+     */
+    public boolean junta(int p, int q) {
+        while (true) {
+            int raizP = encontra(p);
+            int raizQ = encontra(q);
+            if (raizP == raizQ) return false;
+            if (raizP > raizQ) {
+                int temp = raizP;
+                raizP = raizQ;
+                raizQ = temp;
+            }
+            // a raiz de menor índice passa a apontar para a de maior índice, evitando ciclos
+            if (pai.compareAndSet(raizP, raizP, raizQ)) {
+                quantidade.decrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    // valida se p é um índice válido
+    private void valida(int p) {
+        int n = pai.length();
+        if (p < 0 || p >= n) {
+            throw new IndexOutOfBoundsException("index " + p + " não está entre 0 e " + (n-1));
+        }
+    }
+
+    /**
+     * Testa a classe UFConcorrente
+     */
+    public static void main(String[] args) {
+        final int n = 1000000;
+        final UFConcorrente uf = new UFConcorrente(n);
+        IntStream.range(1, n).parallel().forEach(i -> uf.junta(i - 1, i));
+        System.out.println(uf.quantidade() + " componente(s)");
+    }
+}
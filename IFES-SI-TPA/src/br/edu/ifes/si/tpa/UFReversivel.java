@@ -0,0 +1,179 @@
+/******************************************************************************
+ *  Compilação:         javac UFReversivel.java
+ *  Execução:           java UFReversivel
+ *  Dependências:       nenhuma
+ *
+ *  Union-find com união por tamanho, sem compressão de caminho e com registro
+ *  das operações, permitindo marcar pontos de restauração e desfazer uniões.
+ *
+ *  % java UFReversivel
+ *  marca 0: 3 componente(s)
+ *  marca 1: 1 componente(s)
+ *  desfaz até a marca 1: 3 componente(s)
+ *  desfaz até a marca 0: 5 componente(s)
+ *
+ ******************************************************************************/
+
+package br.edu.ifes.si.tpa;
+
+
+/**
+ * Esta classe implementa uma estrutura union-find (conjunto-disjunto) que permite desfazer as uniões
+ * na ordem inversa em que foram feitas. A união é feita por tamanho e o método encontra não comprime
+ * os caminhos, de forma que cada junta altera apenas uma posição de pai e tamanho, que é registrada
+ * em uma pilha de operações. Assim encontra custa O(log n) no pior caso e desfazer uma união custa O(1).
+ * Para documentação adicional, acesse:
+ * <a href="http://algs4.cs.princeton.edu/15uf">Section 1.5</a>
+ * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class UFReversivel {
+
+    private int[] pai;      // pai[i] = pai de i
+    private int[] tamanho;  // tamanho[i] = tamanho da árvore com raíz em i
+    private int quantidade; // número de componentes
+    private int[] registro; // registro[k] = raiz que foi pendurada na k-ésima união efetiva
+    private int operacoes;  // número de uniões efetivas no registro
+
+    /**
+     * Inicializa uma estrutura de dados union-find reversível com n conjuntos.
+     *
+     * @param  n o número de conjuntos
+     * @throws IllegalArgumentException se n menor que zero
+     */
+    public UFReversivel(int n) {
+        if (n < 0) throw new IllegalArgumentException();
+        quantidade = n;
+        pai = new int[n];
+        tamanho = new int[n];
+        registro = new int[Math.max(1, n)];
+        for (int i = 0; i < n; i++) {
+            pai[i] = i;
+            tamanho[i] = 1;
+        }
+    }
+
+    /**
+     * Retorna a identificação do componente ao qual p pertence.
+     *
+     * @param  p o inteiro representando um conjunto
+     * @return a identificação do componente ao qual p pertence.
+     */
+    public int encontra(int p) {
+        valida(p);
+        while (p != pai[p]) {
+            p = pai[p];
+        }
+        return p;
+    }
+
+    /**
+     * Retorna o número de componentes
+     *
+     * @return o número de componentes entre 1 e n
+     */
+    public int quantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Retorna true se os dois elementos estão no mesmo componente.
+     *
+     * @param  p o inteiro representando um elemento
+     * @param  q o inteiro representando outro elemento
+     * @return true se os dois elementos estão no mesmo componente;
+     *         false caso contrário
+     */
+    public boolean conectado(int p, int q) {
+        return encontra(p) == encontra(q);
+    }
+
+    /**
+     * Une o componente contendo o elemento p com o componente contendo o elemento q.
+     * Uniões de elementos já conectados não são registradas.
+     *
+     * @param  p o inteiro representando um elemento
+     * @param  q o inteiro representando outro elemento
+     * @return true se os componentes foram unidos; false se já estavam conectados
+     */
+    public boolean junta(int p, int q) {
+        int raizP = encontra(p);
+        int raizQ = encontra(q);
+        if (raizP == raizQ) return false;
+
+        // a raiz do menor componente passa a apontar para a raiz do maior
+        if (tamanho[raizP] > tamanho[raizQ]) {
+            int temp = raizP;
+            raizP = raizQ;
+            raizQ = temp;
+        }
+        pai[raizP] = raizQ;
+        tamanho[raizQ] += tamanho[raizP];
+        quantidade--;
+
+        if (operacoes == registro.length) {
+            int[] temp = new int[2 * registro.length];
+            System.arraycopy(registro, 0, temp, 0, operacoes);
+            registro = temp;
+        }
+        registro[operacoes++] = raizP;
+        return true;
+    }
+
+    /**
+     * Retorna um ponto de restauração que representa o estado atual da estrutura.
+     *
+     * @return o ponto de restauração a ser passado para desfaz
+     */
+    public int marca() {
+        return operacoes;
+    }
+
+    /**
+     * Desfaz todas as uniões feitas depois do ponto de restauração informado.
+     *
+     * @param  marca o ponto de restauração retornado por marca()
+     * @throws IllegalArgumentException se a marca não for um ponto de restauração válido
+     */
+    public void desfaz(int marca) {
+        if (marca < 0 || marca > operacoes) {
+            throw new IllegalArgumentException("marca " + marca + " não está entre 0 e " + operacoes);
+        }
+        while (operacoes > marca) {
+            int filho = registro[--operacoes];
+            int raiz = pai[filho];
+            tamanho[raiz] -= tamanho[filho];
+            pai[filho] = filho;
+            quantidade++;
+        }
+    }
+
+    // valida se p é um índice válido
+    private void valida(int p) {
+        int n = pai.length;
+        if (p < 0 || p >= n) {
+            throw new IndexOutOfBoundsException("index " + p + " não está entre 0 e " + (n-1));
+        }
+    }
+
+    /**
+     * Testa a classe UFReversivel
+     */
+    public static void main(String[] args) {
+        UFReversivel uf = new UFReversivel(5);
+
+        int marca0 = uf.marca();
+        uf.junta(0, 1);
+        uf.junta(2, 3);
+        System.out.println("marca 0: " + uf.quantidade() + " componente(s)");
+
+        int marca1 = uf.marca();
+        uf.junta(1, 3);
+        uf.junta(4, 3);
+        System.out.println("marca 1: " + uf.quantidade() + " componente(s)");
+
+        uf.desfaz(marca1);
+        System.out.println("desfaz até a marca 1: " + uf.quantidade() + " componente(s)");
+        uf.desfaz(marca0);
+        System.out.println("desfaz até a marca 0: " + uf.quantidade() + " componente(s)");
+    }
+}
@@ -0,0 +1,185 @@
+/******************************************************************************
+ *  Compilação:         javac VetorArestas.java
+ *  Dependências:       Aresta.java AcessoGrafo.java CursorAdjacencia.java NucleoGrafo.java
+ *
+ *  As arestas de um grafo não direcionado em um vetor primitivo, indexadas por 0 .. A-1.
+ *
+ ******************************************************************************/
+
+package br.edu.ifes.si.tpa;
+
+import java.util.Arrays;
+
+/**
+ * Esta classe dá aos algoritmos de árvore geradora mínima acesso às arestas de um grafo por índice, sem um
+ * objeto {@link Aresta} por aresta. A aresta i é um registro de inteiros consecutivos de um único vetor:
+ * as duas extremidades e os bits do peso, em 1 inteiro (pesos int ou float) ou 2 (double), ou nenhum (sem
+ * pesos, todos 0). Em um {@link NucleoGrafo} não direcionado com pesos o vetor é o do próprio grafo, em
+ * que cada aresta é guardada uma única vez, e nada é copiado; nas demais representações as arestas são
+ * copiadas das listas de adjacências, com os pesos em double. O vetor reflete as arestas do grafo no
+ * momento em que foi obtido.
+ */
+final class VetorArestas {
+    private final int A;                  // número de arestas
+    private final int[] registros;        // registros[campos*i ..] = v1, v2 e os bits do peso da aresta i
+    private final NucleoGrafo.Pesos pesos;    // forma dos bits do peso
+    private final int campos;             // inteiros por registro
+
+    VetorArestas(int A, int[] registros, NucleoGrafo.Pesos pesos) {
+        this.A = A;
+        this.registros = registros;
+        this.pesos = pesos;
+        this.campos = campos(pesos);
+    }
+
+    /**
+     * Retorna as arestas do grafo, considerado não direcionado. Sem cópia em um {@link NucleoGrafo}
+     * não direcionado com pesos; nos demais casos as arestas são copiadas, na ordem de arestasNaoDirecionadas().
+     * @param  G o grafo
+     * @return as arestas do grafo
+     */
+    static VetorArestas de(AcessoGrafo G) {
+        if (G instanceof NucleoGrafo) return ((NucleoGrafo) G).vetorArestas();
+        int c = campos(NucleoGrafo.Pesos.DOUBLE);
+        int[] registros = new int[c * G.A()];
+        boolean direcionado = G.direcionado();
+        int n = 0;
+        CursorAdjacencia cursor = G.cursor();
+        for (int v = 0; v < G.V(); v++) {
+            int lacos = 0;
+            cursor.posiciona(v);
+            while (cursor.temProxima()) {
+                int w = cursor.proxima();
+                if (direcionado || w > v || (w == v && lacos++ % 2 == 0))
+                    grava(registros, c * n++, NucleoGrafo.Pesos.DOUBLE, v, w, cursor.peso());
+            }
+        }
+        return new VetorArestas(n, registros, NucleoGrafo.Pesos.DOUBLE);
+    }
+
+    /**
+     * Retorna o número de inteiros do registro de uma aresta com pesos da forma dada.
+     */
+    static int campos(NucleoGrafo.Pesos pesos) {
+        switch (pesos) {
+            case NENHUM: return 2;
+            case DOUBLE: return 4;
+            default:     return 3;
+        }
+    }
+
+    /**
+     * Grava em registros[j ..] o registro da aresta v1-v2 com o peso dado, na forma dada.
+     */
+    static void grava(int[] registros, int j, NucleoGrafo.Pesos pesos, int v1, int v2, double peso) {
+        registros[j] = v1;
+        registros[j + 1] = v2;
+        switch (pesos) {
+            case INT:
+                registros[j + 2] = (int) peso;
+                break;
+            case FLOAT:
+                registros[j + 2] = Float.floatToRawIntBits((float) peso);
+                break;
+            case DOUBLE:
+                long bits = Double.doubleToRawLongBits(peso);
+                registros[j + 2] = (int) (bits >>> 32);
+                registros[j + 3] = (int) bits;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Retorna o peso do registro em registros[j ..], guardado na forma dada.
+     */
+    static double peso(int[] registros, int j, NucleoGrafo.Pesos pesos) {
+        switch (pesos) {
+            case INT:    return registros[j + 2];
+            case FLOAT:  return Float.intBitsToFloat(registros[j + 2]);
+            case DOUBLE: return Double.longBitsToDouble((long) registros[j + 2] << 32 | (registros[j + 3] & 0xFFFFFFFFL));
+            default:     return 0.0;
+        }
+    }
+
+    /**
+     * Retorna o número de arestas.
+     */
+    int A() {
+        return A;
+    }
+
+    /**
+     * Retorna a primeira extremidade da aresta i, a origem com que ela foi adicionada.
+     */
+    int v1(int i) {
+        return registros[campos * i];
+    }
+
+    /**
+     * Retorna a segunda extremidade da aresta i.
+     */
+    int v2(int i) {
+        return registros[campos * i + 1];
+    }
+
+    /**
+     * Retorna o peso da aresta i.
+     */
+    double peso(int i) {
+        return peso(registros, campos * i, pesos);
+    }
+
+    /**
+     * Retorna um novo objeto Aresta com as extremidades e o peso da aresta i.
+     */
+    Aresta aresta(int i) {
+        return new Aresta(v1(i), v2(i), peso(i));
+    }
+
+    /**
+     * Retorna os índices de todas as arestas em ordem crescente de peso (ver ordenaPorPeso(int[], int, int)).
+     */
+    long[] ordenaPorPeso() {
+        return ordenaPorPeso(null, 0, A);
+    }
+
+    /**
+     * Ordena por peso, sem objetos Aresta, as arestas de índices ids[inicio .. fim-1] (ou inicio .. fim-1,
+     * se ids é null), na ordem de Aresta.compareTo e, entre pesos iguais, de índice. Primeiro ordena em
+     * paralelo os longs formados pelos 32 bits mais significativos da chave do peso e pelo índice; depois,
+     * em cada trecho com os mesmos 32 bits, troca-os pelos 32 bits menos significativos (sem sinal) e
+     * ordena o trecho de novo. O índice fica nos 32 bits menos significativos das duas formas.
+     * @return os índices das arestas em ordem crescente de peso, nos 32 bits menos significativos
+     */
+    long[] ordenaPorPeso(int[] ids, int inicio, int fim) {
+        int n = fim - inicio;
+        long[] chaves = new long[n];
+        for (int k = 0; k < n; k++) {
+            int i = ids == null ? inicio + k : ids[inicio + k];
+            chaves[k] = chave(peso(i)) & 0xFFFFFFFF00000000L | i;
+        }
+        Arrays.parallelSort(chaves);
+        for (int a = 0, b; a < n; a = b) {
+            long alto = chaves[a] >>> 32;
+            b = a + 1;
+            while (b < n && chaves[b] >>> 32 == alto) b++;
+            if (b - a > 1) {
+                for (int k = a; k < b; k++) {
+                    int i = (int) chaves[k];
+                    chaves[k] = (chave(peso(i)) << 32 | i) ^ Long.MIN_VALUE;
+                }
+                Arrays.parallelSort(chaves, a, b);
+            }
+        }
+        return chaves;
+    }
+
+    // long cuja ordem com sinal é a de Double.compare para p: os bits do double, com expoente e
+    // mantissa invertidos quando p é negativo
+    private static long chave(double p) {
+        long bits = Double.doubleToLongBits(p);
+        return bits ^ (bits >> 63 & 0x7FFFFFFFFFFFFFFFL);
+    }
+}